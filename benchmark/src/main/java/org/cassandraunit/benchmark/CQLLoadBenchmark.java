@@ -0,0 +1,79 @@
+package org.cassandraunit.benchmark;
+
+import org.cassandraunit.CQLDataLoader;
+import org.cassandraunit.CQLLoadingOption;
+import org.cassandraunit.benchmark.DataSetGenerator.Format;
+import org.cassandraunit.benchmark.DataSetGenerator.Shape;
+import org.cassandraunit.dataset.cql.FileCQLDataSet;
+import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution of a generated CQL script against an embedded Cassandra. Each load creates the keyspace again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CQLLoadBenchmark {
+
+    private static final String KEYSPACE_NAME = "benchmark_keyspace";
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columnsPerRow;
+
+    @Param({"1", "32"})
+    public int maxStatementsInFlight;
+
+    @Param({"0", "64"})
+    public int preparedStatementCacheSize;
+
+    private File directory;
+
+    private String dataSetLocation;
+
+    private CQLDataLoader dataLoader;
+
+    private CQLLoadingOption loadingOption;
+
+    @Setup
+    public void startCassandra() throws Exception {
+        EmbeddedCassandraServerHelper.startEmbeddedCassandra();
+        directory = TemporaryDirectory.create("cql-load-benchmark");
+        dataSetLocation = DataSetGenerator.generate(Format.cql, Shape.STANDARD, rows, columnsPerRow, directory)
+                .getPath();
+        dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        loadingOption = new CQLLoadingOption();
+        loadingOption.setMaxStatementsInFlight(maxStatementsInFlight);
+        loadingOption.setPreparedStatementCacheSize(preparedStatementCacheSize);
+    }
+
+    @TearDown
+    public void deleteDataSet() {
+        TemporaryDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public void load() {
+        dataLoader.load(new FileCQLDataSet(dataSetLocation, true, KEYSPACE_NAME), loadingOption);
+    }
+}
@@ -0,0 +1,71 @@
+package org.cassandraunit.benchmark;
+
+import org.cassandraunit.benchmark.DataSetGenerator.Format;
+import org.cassandraunit.benchmark.DataSetGenerator.Shape;
+import org.cassandraunit.dataset.cql.FileCQLDataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting of a generated CQL script into its statements, at once or one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CQLParserBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columnsPerRow;
+
+    private File directory;
+
+    private String dataSetLocation;
+
+    @Setup
+    public void generateDataSet() throws IOException {
+        directory = TemporaryDirectory.create("cql-parser-benchmark");
+        dataSetLocation = DataSetGenerator.generate(Format.cql, Shape.STANDARD, rows, columnsPerRow, directory)
+                .getPath();
+    }
+
+    @TearDown
+    public void deleteDataSet() {
+        TemporaryDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public List<String> statements() {
+        return new FileCQLDataSet(dataSetLocation).getCQLStatements();
+    }
+
+    @Benchmark
+    public void iterateStatements(Blackhole blackhole) {
+        Iterator<String> statements = new FileCQLDataSet(dataSetLocation).getCQLStatementIterator();
+        while (statements.hasNext()) {
+            blackhole.consume(statements.next());
+        }
+    }
+}
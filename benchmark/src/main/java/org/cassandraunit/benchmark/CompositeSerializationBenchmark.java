@@ -0,0 +1,39 @@
+package org.cassandraunit.benchmark;
+
+import org.cassandraunit.serializer.GenericTypeSerializer;
+import org.cassandraunit.type.GenericType;
+import org.cassandraunit.type.GenericTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a composite row key or column name.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CompositeSerializationBenchmark {
+
+    private final GenericType composite = new GenericType(
+            new String[]{"11", "aa", "13816710-1dd2-11b2-879a-782bcb80ff6a"},
+            new GenericTypeEnum[]{GenericTypeEnum.LONG_TYPE, GenericTypeEnum.UTF_8_TYPE,
+                    GenericTypeEnum.TIME_UUID_TYPE});
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return GenericTypeSerializer.get().toByteBuffer(composite);
+    }
+}
@@ -0,0 +1,386 @@
+package org.cassandraunit.benchmark;
+
+import org.cassandraunit.dataset.binary.BinaryDataSetWriter;
+import org.cassandraunit.dataset.xml.FileXmlDataSet;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes a dataset of one column family with a given number of rows and of columns per row, in any of the dataset
+ * formats. The wide rows are the datasets with few rows and many columns per row.
+ */
+public final class DataSetGenerator {
+
+    public static final String KEYSPACE_NAME = "benchmarkKeyspace";
+
+    public static final String COLUMN_FAMILY_NAME = "benchmarkColumnFamily";
+
+    /**
+     * number of columns in each super column of the SUPER shape
+     */
+    static final int COLUMNS_PER_SUPER_COLUMN = 10;
+
+    public enum Shape {
+        /**
+         * UTF8Type keys, names and values
+         */
+        STANDARD,
+        /**
+         * BytesType keys, names and values, written in hexadecimal
+         */
+        BYTES,
+        /**
+         * CompositeType(LongType,UTF8Type) keys and names
+         */
+        COMPOSITE,
+        /**
+         * counter columns
+         */
+        COUNTER,
+        /**
+         * super column family of LongType sub columns
+         */
+        SUPER
+    }
+
+    public enum Format {
+        xml, json, yaml, bin, cql
+    }
+
+    private DataSetGenerator() {
+    }
+
+    /**
+     * @return the written dataset file, in the directory, named after its format, shape and size
+     * @throws IllegalArgumentException if the shape can not be written in CQL, which only writes the STANDARD shape
+     */
+    public static File generate(Format format, Shape shape, int rows, int columnsPerRow, File directory)
+            throws IOException {
+        if (rows < 0 || columnsPerRow < 1) {
+            throw new IllegalArgumentException("a dataset has at least one column per row");
+        }
+        File file = new File(directory, shape.name().toLowerCase() + "-" + rows + "x" + columnsPerRow + "." + format);
+        switch (format) {
+            case xml:
+                write(new XmlEmitter(), shape, rows, columnsPerRow, file);
+                break;
+            case json:
+                write(new JsonEmitter(), shape, rows, columnsPerRow, file);
+                break;
+            case yaml:
+                write(new YamlEmitter(), shape, rows, columnsPerRow, file);
+                break;
+            case bin:
+                File xmlFile = generate(Format.xml, shape, rows, columnsPerRow, directory);
+                new BinaryDataSetWriter().write(new FileXmlDataSet(xmlFile.getPath()), file);
+                break;
+            case cql:
+                if (shape != Shape.STANDARD) {
+                    throw new IllegalArgumentException("only the STANDARD shape can be written in CQL");
+                }
+                writeCql(rows, columnsPerRow, file);
+                break;
+        }
+        return file;
+    }
+
+    private static void write(Emitter emitter, Shape shape, int rows, int columnsPerRow, File file)
+            throws IOException {
+        Writer writer = open(file);
+        try {
+            emitter.writer = writer;
+            emitter.startKeyspace(shape);
+            for (int row = 0; row < rows; row++) {
+                emitter.startRow(row == 0, key(shape, row));
+                if (shape == Shape.SUPER) {
+                    int superColumns = Math.max(1, columnsPerRow / COLUMNS_PER_SUPER_COLUMN);
+                    for (int superColumn = 0; superColumn < superColumns; superColumn++) {
+                        emitter.startSuperColumn(superColumn == 0, "superColumn" + superColumn);
+                        for (int column = 0; column < COLUMNS_PER_SUPER_COLUMN; column++) {
+                            emitter.column(column == 0, String.valueOf(column), value(shape, row, column));
+                        }
+                        emitter.endSuperColumn();
+                    }
+                } else {
+                    for (int column = 0; column < columnsPerRow; column++) {
+                        emitter.column(column == 0, name(shape, column), value(shape, row, column));
+                    }
+                }
+                emitter.endRow();
+            }
+            emitter.endKeyspace();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void writeCql(int rows, int columnsPerRow, File file) throws IOException {
+        Writer writer = open(file);
+        try {
+            writer.write("CREATE TABLE " + COLUMN_FAMILY_NAME
+                    + " (key varchar, name varchar, value varchar, PRIMARY KEY(key, name));\n");
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columnsPerRow; column++) {
+                    writer.write("INSERT INTO " + COLUMN_FAMILY_NAME + "(key, name, value) values('"
+                            + key(Shape.STANDARD, row) + "','" + name(Shape.STANDARD, column) + "','"
+                            + value(Shape.STANDARD, row, column) + "');\n");
+                }
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+
+    private static String key(Shape shape, int row) {
+        switch (shape) {
+            case BYTES:
+                return hex(row, 8);
+            case COMPOSITE:
+                return row + ":key";
+            default:
+                return "key" + row;
+        }
+    }
+
+    private static String name(Shape shape, int column) {
+        switch (shape) {
+            case BYTES:
+                return hex(column, 8);
+            case COMPOSITE:
+                return column + ":column";
+            default:
+                return "column" + column;
+        }
+    }
+
+    private static String value(Shape shape, int row, int column) {
+        switch (shape) {
+            case BYTES:
+                return hex(row, 16) + hex(column, 16);
+            case COUNTER:
+                return String.valueOf(row + column);
+            default:
+                return "value" + row + "_" + column;
+        }
+    }
+
+    /**
+     * @return the number, left padded with zeros to the given number of bytes, in hexadecimal
+     */
+    private static String hex(int number, int bytes) {
+        String hex = Integer.toHexString(number);
+        StringBuilder padded = new StringBuilder(bytes * 2);
+        for (int i = hex.length(); i < bytes * 2; i++) {
+            padded.append('0');
+        }
+        return padded.append(hex).toString();
+    }
+
+    private static String comparatorType(Shape shape) {
+        switch (shape) {
+            case BYTES:
+                return "BytesType";
+            case COMPOSITE:
+                return "CompositeType(LongType,UTF8Type)";
+            default:
+                return "UTF8Type";
+        }
+    }
+
+    private static String defaultColumnValueType(Shape shape) {
+        switch (shape) {
+            case BYTES:
+                return "BytesType";
+            case COUNTER:
+                return "CounterColumnType";
+            default:
+                return "UTF8Type";
+        }
+    }
+
+    private abstract static class Emitter {
+
+        Writer writer;
+
+        abstract void startKeyspace(Shape shape) throws IOException;
+
+        abstract void startRow(boolean first, String key) throws IOException;
+
+        abstract void startSuperColumn(boolean first, String name) throws IOException;
+
+        abstract void column(boolean first, String name, String value) throws IOException;
+
+        abstract void endSuperColumn() throws IOException;
+
+        abstract void endRow() throws IOException;
+
+        abstract void endKeyspace() throws IOException;
+    }
+
+    private static class XmlEmitter extends Emitter {
+
+        @Override
+        void startKeyspace(Shape shape) throws IOException {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<keyspace xmlns=\"http://xml.dataset.cassandraunit.org\">\n");
+            writer.write("<name>" + KEYSPACE_NAME + "</name>\n<columnFamilies>\n<columnFamily>\n");
+            writer.write("<name>" + COLUMN_FAMILY_NAME + "</name>\n");
+            if (shape == Shape.SUPER) {
+                writer.write("<type>SUPER</type>\n");
+            }
+            writer.write("<keyType>" + comparatorType(shape) + "</keyType>\n");
+            writer.write("<comparatorType>" + comparatorType(shape) + "</comparatorType>\n");
+            if (shape == Shape.SUPER) {
+                writer.write("<subComparatorType>LongType</subComparatorType>\n");
+            }
+            writer.write("<defaultColumnValueType>" + defaultColumnValueType(shape) + "</defaultColumnValueType>\n");
+        }
+
+        @Override
+        void startRow(boolean first, String key) throws IOException {
+            writer.write("<row><key>" + key + "</key>\n");
+        }
+
+        @Override
+        void startSuperColumn(boolean first, String name) throws IOException {
+            writer.write("<superColumn><name>" + name + "</name>\n");
+        }
+
+        @Override
+        void column(boolean first, String name, String value) throws IOException {
+            writer.write("<column><name>" + name + "</name><value>" + value + "</value></column>\n");
+        }
+
+        @Override
+        void endSuperColumn() throws IOException {
+            writer.write("</superColumn>\n");
+        }
+
+        @Override
+        void endRow() throws IOException {
+            writer.write("</row>\n");
+        }
+
+        @Override
+        void endKeyspace() throws IOException {
+            writer.write("</columnFamily>\n</columnFamilies>\n</keyspace>\n");
+        }
+    }
+
+    private static class JsonEmitter extends Emitter {
+
+        @Override
+        void startKeyspace(Shape shape) throws IOException {
+            writer.write("{\n\"name\" : \"" + KEYSPACE_NAME + "\",\n\"columnFamilies\" : [{\n");
+            writer.write("\"name\" : \"" + COLUMN_FAMILY_NAME + "\",\n");
+            if (shape == Shape.SUPER) {
+                writer.write("\"type\" : \"SUPER\",\n");
+            }
+            writer.write("\"keyType\" : \"" + comparatorType(shape) + "\",\n");
+            writer.write("\"comparatorType\" : \"" + comparatorType(shape) + "\",\n");
+            if (shape == Shape.SUPER) {
+                writer.write("\"subComparatorType\" : \"LongType\",\n");
+            }
+            writer.write("\"defaultColumnValueType\" : \"" + defaultColumnValueType(shape) + "\",\n");
+            writer.write("\"rows\" : [");
+        }
+
+        @Override
+        void startRow(boolean first, String key) throws IOException {
+            writer.write((first ? "" : ",") + "{\n\"key\" : \"" + key + "\",\n");
+        }
+
+        @Override
+        void startSuperColumn(boolean first, String name) throws IOException {
+            writer.write((first ? "\"superColumns\" : [" : ",") + "{\n\"name\" : \"" + name + "\",\n");
+        }
+
+        @Override
+        void column(boolean first, String name, String value) throws IOException {
+            writer.write((first ? "\"columns\" : [" : ",\n") + "{\"name\" : \"" + name + "\", \"value\" : \"" + value
+                    + "\"}");
+        }
+
+        @Override
+        void endSuperColumn() throws IOException {
+            writer.write("]}");
+        }
+
+        @Override
+        void endRow() throws IOException {
+            /* the super columns, or the columns, of the row */
+            writer.write("]}");
+        }
+
+        @Override
+        void endKeyspace() throws IOException {
+            writer.write("]\n}]\n}\n");
+        }
+    }
+
+    private static class YamlEmitter extends Emitter {
+
+        private boolean inSuperColumn;
+
+        @Override
+        void startKeyspace(Shape shape) throws IOException {
+            writer.write("name: " + KEYSPACE_NAME + "\ncolumnFamilies:\n- name: " + COLUMN_FAMILY_NAME + "\n");
+            if (shape == Shape.SUPER) {
+                writer.write("  type: SUPER\n");
+            }
+            writer.write("  keyType: \"" + comparatorType(shape) + "\"\n");
+            writer.write("  comparatorType: \"" + comparatorType(shape) + "\"\n");
+            if (shape == Shape.SUPER) {
+                writer.write("  subComparatorType: LongType\n");
+            }
+            writer.write("  defaultColumnValueType: " + defaultColumnValueType(shape) + "\n");
+            writer.write("  rows:\n");
+        }
+
+        @Override
+        void startRow(boolean first, String key) throws IOException {
+            writer.write("  - key: \"" + key + "\"\n");
+        }
+
+        @Override
+        void startSuperColumn(boolean first, String name) throws IOException {
+            if (first) {
+                writer.write("    superColumns:\n");
+            }
+            writer.write("    - name: \"" + name + "\"\n");
+            inSuperColumn = true;
+        }
+
+        @Override
+        void column(boolean first, String name, String value) throws IOException {
+            /* the columns of a super column are indented below it */
+            String indentation = inSuperColumn ? "      " : "    ";
+            if (first) {
+                writer.write(indentation + "columns:\n");
+            }
+            writer.write(indentation + "- {name: \"" + name + "\", value: \"" + value + "\"}\n");
+        }
+
+        @Override
+        void endSuperColumn() throws IOException {
+            inSuperColumn = false;
+        }
+
+        @Override
+        void endRow() throws IOException {
+        }
+
+        @Override
+        void endKeyspace() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.cassandraunit.benchmark;
+
+import org.cassandraunit.DataLoader;
+import org.cassandraunit.LoadingOption;
+import org.cassandraunit.benchmark.DataSetGenerator.Format;
+import org.cassandraunit.benchmark.DataSetGenerator.Shape;
+import org.cassandraunit.dataset.FileDataSet;
+import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of a generated dataset into an embedded Cassandra, from the parsing of the file to the last written
+ * mutation. Each load drops and creates the keyspace again, the schema is not migrated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dcassandraunit.dataset.cache.size=0")
+public class LoadBenchmark {
+
+    @Param({"xml", "bin"})
+    public Format format;
+
+    @Param({"STANDARD", "BYTES", "COMPOSITE", "COUNTER", "SUPER"})
+    public Shape shape;
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columnsPerRow;
+
+    @Param({"1", "4"})
+    public int threadCount;
+
+    private File directory;
+
+    private String dataSetLocation;
+
+    private DataLoader dataLoader;
+
+    private LoadingOption loadingOption;
+
+    @Setup
+    public void startCassandra() throws Exception {
+        EmbeddedCassandraServerHelper.startEmbeddedCassandra();
+        directory = TemporaryDirectory.create("load-benchmark");
+        dataSetLocation = DataSetGenerator.generate(format, shape, rows, columnsPerRow, directory).getPath();
+        dataLoader = new DataLoader("BenchmarkCluster", "localhost:9171");
+        loadingOption = new LoadingOption();
+        loadingOption.setThreadCount(threadCount);
+    }
+
+    @TearDown
+    public void deleteDataSet() {
+        TemporaryDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public void load() {
+        dataLoader.load(new FileDataSet(dataSetLocation), loadingOption);
+    }
+}
@@ -0,0 +1,97 @@
+package org.cassandraunit.benchmark;
+
+import org.cassandraunit.benchmark.DataSetGenerator.Format;
+import org.cassandraunit.benchmark.DataSetGenerator.Shape;
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.FileDataSet;
+import org.cassandraunit.dataset.binary.FileBinaryDataSet;
+import org.cassandraunit.dataset.json.FileStreamingJsonDataSet;
+import org.cassandraunit.dataset.xml.FileStreamingXmlDataSet;
+import org.cassandraunit.dataset.yaml.FileStreamingYamlDataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a generated dataset file into its keyspace, whole or row by row when streamed. The keyspace cache is
+ * disabled, each iteration parses the file again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dcassandraunit.dataset.cache.size=0")
+public class ParserBenchmark {
+
+    @Param({"xml", "json", "yaml", "bin"})
+    public Format format;
+
+    @Param({"STANDARD", "BYTES", "COMPOSITE", "COUNTER", "SUPER"})
+    public Shape shape;
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columnsPerRow;
+
+    private File directory;
+
+    private String dataSetLocation;
+
+    @Setup
+    public void generateDataSet() throws IOException {
+        directory = TemporaryDirectory.create("parser-benchmark");
+        dataSetLocation = DataSetGenerator.generate(format, shape, rows, columnsPerRow, directory).getPath();
+    }
+
+    @TearDown
+    public void deleteDataSet() {
+        TemporaryDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public KeyspaceModel parse() {
+        return new FileDataSet(dataSetLocation).getKeyspace();
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        for (ColumnFamilyModel columnFamily : openStreamingDataSet().getColumnFamilies()) {
+            for (RowModel row : columnFamily.getRowIterable()) {
+                blackhole.consume(row);
+            }
+        }
+    }
+
+    private DataSet openStreamingDataSet() {
+        switch (format) {
+            case xml:
+                return new FileStreamingXmlDataSet(dataSetLocation);
+            case json:
+                return new FileStreamingJsonDataSet(dataSetLocation);
+            case yaml:
+                return new FileStreamingYamlDataSet(dataSetLocation);
+            default:
+                return new FileBinaryDataSet(dataSetLocation);
+        }
+    }
+}
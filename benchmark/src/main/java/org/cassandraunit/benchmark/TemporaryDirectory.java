@@ -0,0 +1,31 @@
+package org.cassandraunit.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * directory of the generated datasets of a benchmark
+ */
+final class TemporaryDirectory {
+
+    private TemporaryDirectory() {
+    }
+
+    static File create(String prefix) throws IOException {
+        File directory = File.createTempFile(prefix, "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("cannot create the directory " + directory);
+        }
+        return directory;
+    }
+
+    static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,79 @@
+package org.cassandraunit.benchmark;
+
+import me.prettyprint.hector.api.ddl.ComparatorType;
+import org.cassandraunit.serializer.GenericTypeSerializer;
+import org.cassandraunit.type.GenericType;
+import org.cassandraunit.utils.TypeExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typing of the values of a dataset, with or without a type function, and serialization of the typed values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TypingBenchmark {
+
+    public enum Value {
+        UTF8("a utf8 value", ComparatorType.UTF8TYPE),
+        UTF8_FUNCTION("utf8(a utf8 value)", ComparatorType.BYTESTYPE),
+        HEX_BYTES("0123456789abcdef0123456789abcdef", ComparatorType.BYTESTYPE),
+        BASE64_BYTES("aGVsbG8gd29ybGQgaGVsbG8gd29ybGQ=", ComparatorType.BYTESTYPE),
+        LONG("1234567890123", ComparatorType.LONGTYPE),
+        LONG_FUNCTION("long(1234567890123)", ComparatorType.BYTESTYPE),
+        COUNTER("42", ComparatorType.COUNTERTYPE),
+        DATE("20130102 030405", ComparatorType.DATETYPE),
+        ISO_8601_DATE("2013-01-02T03:04:05.123Z", ComparatorType.DATETYPE),
+        TIME_UUID("13816710-1dd2-11b2-879a-782bcb80ff6a", ComparatorType.TIMEUUIDTYPE);
+
+        private final String text;
+
+        private final ComparatorType defaultValueType;
+
+        private Value(String text, ComparatorType defaultValueType) {
+            this.text = text;
+            this.defaultValueType = defaultValueType;
+        }
+    }
+
+    @Param
+    public Value value;
+
+    private GenericType genericType;
+
+    @Setup
+    public void typeValues() {
+        genericType = TypeExtractor.extract(value.text, value.defaultValueType);
+    }
+
+    @Benchmark
+    public GenericType extract() {
+        return TypeExtractor.extract(value.text, value.defaultValueType);
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return GenericTypeSerializer.get().toByteBuffer(genericType);
+    }
+
+    @Benchmark
+    public ByteBuffer extractAndSerialize() {
+        return GenericTypeSerializer.get().toByteBuffer(TypeExtractor.extract(value.text, value.defaultValueType));
+    }
+}
@@ -0,0 +1,162 @@
+package org.cassandraunit;
+
+import me.prettyprint.hector.api.Keyspace;
+import me.prettyprint.hector.api.beans.HColumn;
+import me.prettyprint.hector.api.beans.HCounterColumn;
+import me.prettyprint.hector.api.beans.HCounterSuperColumn;
+import me.prettyprint.hector.api.beans.HSuperColumn;
+import me.prettyprint.hector.api.factory.HFactory;
+import me.prettyprint.hector.api.mutation.Mutator;
+import org.cassandraunit.serializer.GenericTypeSerializer;
+import org.cassandraunit.type.GenericType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a Hector {@link Mutator} for one column family and executes the pending mutations every time the
+ * configured number of mutations or the estimated serialized size is reached, so that a big column family is sent
+ * as several bounded batch_mutate calls instead of a single one.
+ */
+class BatchingMutator {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingMutator.class);
+
+    /* thrift overhead of a column : timestamp + field headers */
+    private static final int COLUMN_OVERHEAD_IN_BYTES = 16;
+
+    private final Mutator<GenericType> mutator;
+    private final String columnFamilyName;
+    private final int maxMutationsPerBatch;
+    private final long maxBatchSizeInBytes;
+    private final LoadReport loadReport;
+    private final ColumnFamilyLoadReport columnFamilyReport;
+
+    private int pendingMutations = 0;
+    private long pendingSizeInBytes = 0;
+
+    /* the columns of a row are added one after the other with the same key, its size is computed once */
+    private GenericType lastKey = null;
+    private long lastKeySizeInBytes = 0;
+
+    private int executedBatches = 0;
+    private long executedMutations = 0;
+    private long totalExecutionTimeInNanos = 0;
+
+    /**
+     * @param loadReport report in which each executed batch is recorded
+     */
+    BatchingMutator(Keyspace keyspace, String columnFamilyName, int maxMutationsPerBatch, long maxBatchSizeInBytes,
+                    LoadReport loadReport) {
+        this.mutator = HFactory.createMutator(keyspace, GenericTypeSerializer.get());
+        this.columnFamilyName = columnFamilyName;
+        this.maxMutationsPerBatch = maxMutationsPerBatch;
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+        this.loadReport = loadReport;
+        this.columnFamilyReport = loadReport.getOrCreateColumnFamilyReport(columnFamilyName);
+    }
+
+    void addInsertion(GenericType key, HColumn<GenericType, GenericType> column) {
+        mutator.addInsertion(key, columnFamilyName, column);
+        added(keySize(key) + serializedSize(column));
+    }
+
+    void addInsertion(GenericType key, HSuperColumn<GenericType, GenericType, GenericType> superColumn) {
+        mutator.addInsertion(key, columnFamilyName, superColumn);
+        long size = keySize(key) + serializedSize(superColumn.getName());
+        for (HColumn<GenericType, GenericType> column : superColumn.getColumns()) {
+            size += serializedSize(column);
+        }
+        added(size);
+    }
+
+    void addCounter(GenericType key, HCounterColumn<GenericType> counterColumn) {
+        mutator.addCounter(key, columnFamilyName, counterColumn);
+        added(keySize(key) + serializedSize(counterColumn.getName()) + COLUMN_OVERHEAD_IN_BYTES);
+    }
+
+    void addCounter(GenericType key, HCounterSuperColumn<GenericType, GenericType> superCounterColumn) {
+        mutator.addCounter(key, columnFamilyName, superCounterColumn);
+        long size = keySize(key) + serializedSize(superCounterColumn.getName());
+        for (HCounterColumn<GenericType> counterColumn : superCounterColumn.getColumns()) {
+            size += serializedSize(counterColumn.getName()) + COLUMN_OVERHEAD_IN_BYTES;
+        }
+        added(size);
+    }
+
+    /**
+     * execute the mutations which are still pending
+     */
+    void flush() {
+        if (pendingMutations == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        mutator.execute();
+        long duration = System.nanoTime() - start;
+
+        executedBatches++;
+        executedMutations += pendingMutations;
+        totalExecutionTimeInNanos += duration;
+        loadReport.addRequest(columnFamilyReport, pendingSizeInBytes, duration, true);
+        log.debug("column family {} : batch #{} of {} mutations (~{} bytes) executed in {} ms",
+                new Object[]{columnFamilyName, executedBatches, pendingMutations, pendingSizeInBytes,
+                        TimeUnit.NANOSECONDS.toMillis(duration)});
+
+        pendingMutations = 0;
+        pendingSizeInBytes = 0;
+    }
+
+    int getExecutedBatches() {
+        return executedBatches;
+    }
+
+    long getExecutedMutations() {
+        return executedMutations;
+    }
+
+    long getTotalExecutionTimeInNanos() {
+        return totalExecutionTimeInNanos;
+    }
+
+    private void added(long estimatedSizeInBytes) {
+        pendingMutations++;
+        pendingSizeInBytes += estimatedSizeInBytes;
+        if ((maxMutationsPerBatch > 0 && pendingMutations >= maxMutationsPerBatch)
+                || (maxBatchSizeInBytes > 0 && pendingSizeInBytes >= maxBatchSizeInBytes)) {
+            flush();
+        }
+    }
+
+    private long keySize(GenericType key) {
+        if (key != lastKey) {
+            lastKey = key;
+            lastKeySizeInBytes = serializedSize(key);
+        }
+        return lastKeySizeInBytes;
+    }
+
+    /**
+     * the name and the value of the column are already serialized by Hector, the bytes are only counted
+     */
+    private long serializedSize(HColumn<GenericType, GenericType> column) {
+        return remaining(column.getNameBytes()) + remaining(column.getValueBytes()) + COLUMN_OVERHEAD_IN_BYTES;
+    }
+
+    /**
+     * size in bytes of the serialized value, as sent to Cassandra. The value of a binary dataset is already
+     * serialized.
+     */
+    private long serializedSize(GenericType genericType) {
+        if (genericType == null) {
+            return 0;
+        }
+        return remaining(GenericTypeSerializer.get().toByteBuffer(genericType));
+    }
+
+    private static long remaining(ByteBuffer bytes) {
+        return bytes == null ? 0 : bytes.remaining();
+    }
+}
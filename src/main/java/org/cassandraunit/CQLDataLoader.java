@@ -1,12 +1,21 @@
 package org.cassandraunit;
 
 import com.datastax.driver.core.Cluster;
-import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Query;
 import com.datastax.driver.core.Session;
+import org.apache.commons.codec.binary.Hex;
 import org.cassandraunit.dataset.CQLDataSet;
+import org.cassandraunit.dataset.cql.AbstractCQLDataSet;
+import org.cassandraunit.exception.CassandraUnitException;
+import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
 /**
  * @author Marcin Szymaniuk
  * @author Jeremy Sevellec
@@ -21,49 +30,258 @@ public class CQLDataLoader {
         return session;
     }
 
+    private final Cluster cluster;
+
     private final Session session;
 
     public CQLDataLoader(String hostIp, int port) {
-        this.session = createSession(hostIp, port);
+        this.cluster = new Cluster.Builder().addContactPoints(hostIp).withPort(port).build();
+        this.session = cluster.connect();
     }
 
-    private Session createSession(String hostIp, int port) {
-        Cluster cluster =
-                new Cluster.Builder().addContactPoints(hostIp).withPort(port).build();
-        Session session = cluster.connect();
-        return session;
+
+    public void load(CQLDataSet dataSet) {
+        load(dataSet, new CQLLoadingOption());
+    }
+
+    public void load(CQLDataSet dataSet, CQLLoadingOption loadingOption) {
+        loadWithReport(dataSet, loadingOption);
     }
 
+    /**
+     * @return the metrics of the load, also summed up over JMX by the {@link LoadStatistics}
+     */
+    public LoadReport loadWithReport(CQLDataSet dataSet, CQLLoadingOption loadingOption) {
+        LoadReport report = new LoadReport(getKeyspaceName(dataSet), System.nanoTime());
 
-    public void load(CQLDataSet dataSet) {
+        forgetFingerprint(getKeyspaceName(dataSet));
+
+        if (restoreSnapshotIfExist(dataSet, loadingOption)) {
+            return report.finish(LoadReport.Outcome.RESTORED_FROM_SNAPSHOT);
+        }
 
-        initKeyspaceContext(session, dataSet);
+        long phaseStart = System.nanoTime();
+        CQLSchemaMigration schemaMigration = initKeyspaceContext(session, dataSet, loadingOption);
+        report.endPhase(LoadPhase.SCHEMA, phaseStart);
 
 
         log.debug("loading data");
-        for (String query : dataSet.getCQLStatements()) {
-            log.debug("executing : " + query );
-            session.execute(query);
+        PreparedStatementCache preparedStatementCache = null;
+        if (loadingOption.getPreparedStatementCacheSize() > 0) {
+            preparedStatementCache = new PreparedStatementCache(session, loadingOption.getPreparedStatementCacheSize());
+        }
+        phaseStart = System.nanoTime();
+        Iterator<String> statementIterator = getStatementIterator(dataSet);
+        try {
+            if (loadingOption.getMaxStatementsInFlight() > 1) {
+                CQLStatementPipeline pipeline = new CQLStatementPipeline(session,
+                        loadingOption.getMaxStatementsInFlight(), preparedStatementCache, report);
+                int index = 0;
+                while (statementIterator.hasNext()) {
+                    String query = statementIterator.next();
+                    phaseStart = report.endPhase(LoadPhase.PARSE, phaseStart);
+                    /* the skipped statements are counted too, the index is the one of the statement in the dataset */
+                    int statementIndex = index++;
+                    CQLSchemaMigration.Decision decision = decide(schemaMigration, query, report, phaseStart);
+                    if (decision.getDropStatement() != null) {
+                        /* a schema statement, executed once the statements in flight are done */
+                        pipeline.execute(statementIndex, decision.getDropStatement());
+                    }
+                    if (!decision.isSkipped()) {
+                        pipeline.execute(statementIndex, query);
+                    }
+                    phaseStart = System.nanoTime();
+                }
+                phaseStart = report.endPhase(LoadPhase.PARSE, phaseStart);
+                if (schemaMigration != null) {
+                    for (String dropStatement : schemaMigration.getRemainingTableDrops()) {
+                        pipeline.execute(index, dropStatement);
+                    }
+                }
+                pipeline.awaitAll();
+                report.endPhase(LoadPhase.DATA, phaseStart);
+            } else {
+                while (statementIterator.hasNext()) {
+                    String query = statementIterator.next();
+                    phaseStart = report.endPhase(LoadPhase.PARSE, phaseStart);
+                    CQLSchemaMigration.Decision decision = decide(schemaMigration, query, report, phaseStart);
+                    if (decision.getDropStatement() != null) {
+                        log.debug("executing : " + decision.getDropStatement());
+                        execute(decision.getDropStatement(), preparedStatementCache, report);
+                    }
+                    if (!decision.isSkipped()) {
+                        log.debug("executing : " + query );
+                        execute(query, preparedStatementCache, report);
+                    }
+                    phaseStart = System.nanoTime();
+                }
+                report.endPhase(LoadPhase.PARSE, phaseStart);
+                if (schemaMigration != null) {
+                    for (String dropStatement : schemaMigration.getRemainingTableDrops()) {
+                        log.debug("executing : " + dropStatement);
+                        execute(dropStatement, preparedStatementCache, report);
+                    }
+                }
+            }
+        } finally {
+            closeStatementIterator(statementIterator);
         }
 
         if (dataSet.getKeyspaceName() != null) {
             String useQuery = "use " + dataSet.getKeyspaceName();
             session.execute(useQuery);
         }
+
+        if (loadingOption.getSnapshotName() != null) {
+            takeSnapshot(getKeyspaceName(dataSet), loadingOption.getSnapshotName());
+        }
+
+        report.finish(LoadReport.Outcome.LOADED);
+        log.debug("{}", report);
+        return report;
+    }
+
+    /**
+     * @return the statements read one by one when the dataset can stream them, all the statements otherwise
+     */
+    private Iterator<String> getStatementIterator(CQLDataSet dataSet) {
+        if (dataSet instanceof AbstractCQLDataSet) {
+            return ((AbstractCQLDataSet) dataSet).getCQLStatementIterator();
+        }
+        return dataSet.getCQLStatements().iterator();
     }
 
+    /**
+     * closes the script of the dataset when the load stops before its last statement
+     */
+    private void closeStatementIterator(Iterator<String> statementIterator) {
+        if (statementIterator instanceof Closeable) {
+            try {
+                ((Closeable) statementIterator).close();
+            } catch (IOException e) {
+                log.warn("unable to close the statements of the dataset", e);
+            }
+        }
+    }
+
+    /**
+     * the keyspace is changed without the {@link DataLoader}, which must not keep it as loaded read only any more
+     */
+    private void forgetFingerprint(String keyspaceName) {
+        if (cluster.getMetadata().getKeyspace(DataLoader.FINGERPRINT_KEYSPACE) == null) {
+            return;
+        }
+        String deleteQuery = "DELETE FROM " + DataLoader.FINGERPRINT_KEYSPACE + "."
+                + DataLoader.FINGERPRINT_COLUMN_FAMILY + " WHERE key=0x"
+                + new String(Hex.encodeHex(keyspaceName.getBytes(Charset.forName("UTF-8"))));
+        log.debug("executing : " + deleteQuery);
+        session.execute(deleteQuery);
+    }
 
-    private void initKeyspaceContext(Session session, CQLDataSet dataSet) {
-        String keyspaceName = DEFAULT_KEYSPACE_NAME;
+    private boolean restoreSnapshotIfExist(CQLDataSet dataSet, CQLLoadingOption loadingOption) {
+        String keyspaceName = getKeyspaceName(dataSet);
+        String snapshotName = loadingOption.getSnapshotName();
+        if (snapshotName == null || !EmbeddedCassandraServerHelper.hasKeyspaceSnapshot(keyspaceName, snapshotName)
+                || !keyspaceExists(keyspaceName)) {
+            return false;
+        }
+        log.debug("restoring keyspace " + keyspaceName + " from snapshot " + snapshotName);
+        try {
+            EmbeddedCassandraServerHelper.restoreKeyspaceSnapshot(keyspaceName, snapshotName);
+        } catch (IOException e) {
+            throw new CassandraUnitException("Failed to restore snapshot " + snapshotName + " of keyspace "
+                    + keyspaceName, e);
+        }
+        String useQuery = "USE " + keyspaceName;
+        log.debug("executing : " + useQuery);
+        session.execute(useQuery);
+        return true;
+    }
+
+    private void takeSnapshot(String keyspaceName, String snapshotName) {
+        if (!keyspaceExists(keyspaceName)) {
+            log.warn("keyspace " + keyspaceName + " does not exist, no snapshot taken");
+            return;
+        }
+        log.debug("taking snapshot " + snapshotName + " of keyspace " + keyspaceName);
+        try {
+            EmbeddedCassandraServerHelper.snapshotKeyspace(keyspaceName, snapshotName);
+        } catch (IOException e) {
+            throw new CassandraUnitException("Failed to take snapshot " + snapshotName + " of keyspace "
+                    + keyspaceName, e);
+        }
+    }
+
+    private String getKeyspaceName(CQLDataSet dataSet) {
         if (dataSet.getKeyspaceName() != null) {
-            keyspaceName = dataSet.getKeyspaceName();
+            return dataSet.getKeyspaceName();
         }
+        return DEFAULT_KEYSPACE_NAME;
+    }
+
+    private boolean keyspaceExists(String keyspaceName) {
+        String selectQuery = "SELECT keyspace_name FROM system.schema_keyspaces where keyspace_name='" + keyspaceName + "'";
+        return session.execute(selectQuery).iterator().hasNext();
+    }
+
+
+    private void execute(String query, PreparedStatementCache preparedStatementCache, LoadReport report) {
+        boolean dataStatement = CQLStatementPipeline.isPipelined(query);
+        ColumnFamilyLoadReport tableReport = CQLStatementPipeline.getTableReport(report, query);
+        long start = System.nanoTime();
+        if (preparedStatementCache == null) {
+            session.execute(query);
+        } else if (dataStatement) {
+            Query boundQuery = preparedStatementCache.toQuery(query);
+            start = report.endPhase(LoadPhase.MAPPING, start);
+            session.execute(boundQuery);
+        } else {
+            /* the schema or the current keyspace may change */
+            preparedStatementCache.clear();
+            session.execute(query);
+        }
+        long latency = System.nanoTime() - start;
+        report.addPhaseTime(dataStatement ? LoadPhase.DATA : LoadPhase.SCHEMA, latency);
+        CQLStatementPipeline.recordStatement(report, tableReport, query, latency);
+    }
+
+    /**
+     * @return what to do with the statement, only the CREATE and USE statements are compared to the schema
+     */
+    private CQLSchemaMigration.Decision decide(CQLSchemaMigration schemaMigration, String query, LoadReport report,
+                                               long start) {
+        if (schemaMigration == null || !CQLSchemaMigration.isSchemaStatement(query)) {
+            return CQLSchemaMigration.Decision.EXECUTE;
+        }
+        CQLSchemaMigration.Decision decision = schemaMigration.decide(query);
+        report.endPhase(LoadPhase.SCHEMA, start);
+        if (decision.isSkipped()) {
+            log.debug("skipping : " + query);
+        }
+        return decision;
+    }
+
+    /**
+     * @return the migration of the existing keyspace, null if the keyspace is created
+     */
+    private CQLSchemaMigration initKeyspaceContext(Session session, CQLDataSet dataSet,
+                                                   CQLLoadingOption loadingOption) {
+        String keyspaceName = getKeyspaceName(dataSet);
 
         log.debug("initKeyspaceContext : keyspaceCreation=" + dataSet.isKeyspaceCreation() + ";keyspaceName=" + keyspaceName);
 
-        String selectQuery = "SELECT keyspace_name FROM system.schema_keyspaces where keyspace_name='" + keyspaceName + "'";
-        ResultSet keyspaceQueryResult = session.execute(selectQuery);
-        if (keyspaceQueryResult.iterator().hasNext()) {
+        if (keyspaceExists(keyspaceName)) {
+            EmbeddedCassandraServerHelper.forgetKeyspaceSnapshot(keyspaceName);
+            if (loadingOption.isMigrateSchema()) {
+                log.debug("migrating keyspace " + keyspaceName);
+                CQLSchemaMigration schemaMigration = new CQLSchemaMigration(session, keyspaceName);
+                if (dataSet.isKeyspaceCreation()) {
+                    String useQuery = "USE " + keyspaceName;
+                    log.debug("executing : " + useQuery);
+                    session.execute(useQuery);
+                }
+                return schemaMigration;
+            }
             String dropQuery = "DROP KEYSPACE " + keyspaceName;
             log.debug("executing : " + dropQuery);
             session.execute(dropQuery);
@@ -78,5 +296,6 @@ public class CQLDataLoader {
             log.debug("executing : " + useQuery);
             session.execute(useQuery);
         }
+        return null;
     }
 }
@@ -0,0 +1,84 @@
+package org.cassandraunit;
+
+/**
+ * Options of {@link CQLDataLoader}
+ */
+public class CQLLoadingOption {
+
+    private int maxStatementsInFlight = 1;
+    private int preparedStatementCacheSize = 0;
+    private String snapshotName = null;
+    private boolean migrateSchema = false;
+
+    public int getMaxStatementsInFlight() {
+        return maxStatementsInFlight;
+    }
+
+    /**
+     * send the INSERT, UPDATE, DELETE and BATCH statements asynchronously, with at most this number of statements
+     * waiting for their result. Any other statement (CREATE, ALTER, DROP, USE...) waits for all the previous
+     * statements and is executed alone, so the schema is always in place before the data are written. An UPDATE or
+     * a DELETE waits for the previous writes of its table, the INSERT and BATCH statements must write different rows
+     * as they may be applied in any order. The loading stops at the first failed statement.
+     *
+     * @param maxStatementsInFlight number of statements sent without waiting for their result, 1 means the
+     *                              statements are executed one after the other
+     */
+    public void setMaxStatementsInFlight(int maxStatementsInFlight) {
+        if (maxStatementsInFlight < 1) {
+            throw new IllegalArgumentException("Max statements in flight must be greater than 0");
+        }
+        this.maxStatementsInFlight = maxStatementsInFlight;
+    }
+
+    public int getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    /**
+     * send the INSERT statements which only differ by their literal values as bound statements : each INSERT shape
+     * seen twice is prepared once and kept in a LRU cache of this size. The cache is cleared by any statement which
+     * is not an INSERT, UPDATE, DELETE or BATCH as it may change the schema or the current keyspace.
+     *
+     * @param preparedStatementCacheSize number of prepared INSERT shapes kept, 0 means the statements are sent as
+     *                                   they are written in the dataset
+     */
+    public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+        if (preparedStatementCacheSize < 0) {
+            throw new IllegalArgumentException("Prepared statement cache size must be greater than or equal to 0");
+        }
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+    }
+
+    public String getSnapshotName() {
+        return snapshotName;
+    }
+
+    /**
+     * reset the keyspace of the dataset from a snapshot instead of executing the statements again.
+     * The first load takes a snapshot of the keyspace under this name, the next loads with the same name only
+     * truncate its tables and import the SSTables of the snapshot. Only available with the embedded Cassandra, the
+     * tests must not change the schema of the keyspace.
+     *
+     * @param snapshotName name of the snapshot, null means the statements are executed every time, on a keyspace
+     *                     dropped first or reused with the fewest schema changes, see {@link #setMigrateSchema}
+     */
+    public void setSnapshotName(String snapshotName) {
+        this.snapshotName = snapshotName;
+    }
+
+    public boolean isMigrateSchema() {
+        return migrateSchema;
+    }
+
+    /**
+     * keep the keyspace of the dataset when it already exists instead of dropping it : its tables are truncated and
+     * the CREATE TABLE and CREATE INDEX statements matching the live schema are skipped. A table whose columns
+     * changed is dropped and created again, a table the dataset does not create any more is dropped.
+     *
+     * @param migrateSchema true to keep the existing schema, false means the keyspace is dropped every time
+     */
+    public void setMigrateSchema(boolean migrateSchema) {
+        this.migrateSchema = migrateSchema;
+    }
+}
@@ -0,0 +1,447 @@
+package org.cassandraunit;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads a CQL dataset again into an existing keyspace without dropping it : the tables of the keyspace are truncated
+ * and the CREATE KEYSPACE, CREATE TABLE and CREATE INDEX statements which match the live schema are skipped. A table
+ * whose columns changed is dropped before being created again, the tables the dataset does not create any more are
+ * dropped at the end of the load. The table options (WITH ...) are not compared.
+ * <p/>
+ * The migration only decides, the drops are executed by the loader as any other schema statement, once the
+ * statements in flight are done.
+ */
+class CQLSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(CQLSchemaMigration.class);
+
+    private static final String NAME = "(\"(?:[^\"]|\"\")+\"|\\w+)";
+    private static final Pattern USE = Pattern.compile("^\\s*USE\\s+" + NAME + "\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_KEYSPACE = Pattern.compile("^\\s*CREATE\\s+(?:KEYSPACE|SCHEMA)\\s+" + NAME
+            + "\\s", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_TABLE = Pattern.compile("^\\s*CREATE\\s+(?:TABLE|COLUMNFAMILY)\\s+(?:" + NAME
+            + "\\s*\\.\\s*)?" + NAME + "\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_INDEX = Pattern.compile("^\\s*CREATE\\s+(?:CUSTOM\\s+)?INDEX\\s+(?:"
+            + NAME + "\\s+)?ON\\s+(?:" + NAME + "\\s*\\.\\s*)?" + NAME + "\\s*\\(\\s*" + NAME + "\\s*\\)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern PRIMARY_KEY_DEFINITION = Pattern.compile("^PRIMARY\\s+KEY\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern PRIMARY_KEY = Pattern.compile("\\s+PRIMARY\\s+KEY\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLUSTERING_ORDER = Pattern.compile("CLUSTERING\\s+ORDER\\s+BY\\s*\\(([^)]*)\\)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Map<String, String> CQL_TYPES = new HashMap<String, String>();
+
+    static {
+        CQL_TYPES.put("ascii", "AsciiType");
+        CQL_TYPES.put("bigint", "LongType");
+        CQL_TYPES.put("blob", "BytesType");
+        CQL_TYPES.put("boolean", "BooleanType");
+        CQL_TYPES.put("counter", "CounterColumnType");
+        CQL_TYPES.put("decimal", "DecimalType");
+        CQL_TYPES.put("double", "DoubleType");
+        CQL_TYPES.put("float", "FloatType");
+        CQL_TYPES.put("inet", "InetAddressType");
+        CQL_TYPES.put("int", "Int32Type");
+        CQL_TYPES.put("text", "UTF8Type");
+        CQL_TYPES.put("timestamp", "DateType");
+        CQL_TYPES.put("timeuuid", "TimeUUIDType");
+        CQL_TYPES.put("uuid", "UUIDType");
+        CQL_TYPES.put("varchar", "UTF8Type");
+        CQL_TYPES.put("varint", "IntegerType");
+    }
+
+    private final Session session;
+    private final String keyspaceName;
+
+    private final Map<String, TableSchema> existingTables;
+    /* the existing tables matching a CREATE TABLE statement of the dataset, with their indexed columns */
+    private final Map<String, Set<String>> keptTables = new HashMap<String, Set<String>>();
+    private String currentKeyspaceName;
+
+    /**
+     * reads the schema of the existing keyspace and truncates its tables
+     */
+    CQLSchemaMigration(Session session, String keyspaceName) {
+        this.session = session;
+        this.keyspaceName = keyspaceName;
+        this.currentKeyspaceName = keyspaceName;
+        this.existingTables = readTables();
+        for (String tableName : existingTables.keySet()) {
+            execute("TRUNCATE " + quote(keyspaceName) + "." + quote(tableName));
+        }
+    }
+
+    /**
+     * @return whether the statement may declare the schema, a CREATE or a USE statement
+     */
+    static boolean isSchemaStatement(String statement) {
+        String trimmedStatement = statement.trim();
+        return trimmedStatement.regionMatches(true, 0, "CREATE", 0, 6)
+                || trimmedStatement.regionMatches(true, 0, "USE", 0, 3);
+    }
+
+    /**
+     * decides what to do with a statement, without executing anything
+     *
+     * @return {@link Decision#SKIP} if the statement declares the keyspace, a table or an index which already exists
+     * as it is declared, a decision with the statement dropping the table if the statement declares an existing
+     * table which differs, {@link Decision#EXECUTE} otherwise
+     */
+    Decision decide(String statement) {
+        if (!isSchemaStatement(statement)) {
+            return Decision.EXECUTE;
+        }
+        Matcher matcher = USE.matcher(statement);
+        if (matcher.find()) {
+            currentKeyspaceName = unquote(matcher.group(1));
+            return Decision.EXECUTE;
+        }
+        matcher = CREATE_KEYSPACE.matcher(statement);
+        if (matcher.find()) {
+            return keyspaceName.equals(unquote(matcher.group(1))) ? Decision.SKIP : Decision.EXECUTE;
+        }
+
+        matcher = CREATE_TABLE.matcher(statement);
+        if (matcher.find()) {
+            if (!isInKeyspace(matcher.group(1))) {
+                return Decision.EXECUTE;
+            }
+            String tableName = unquote(matcher.group(2));
+            TableSchema existingTable = existingTables.remove(tableName);
+            if (existingTable == null) {
+                return Decision.EXECUTE;
+            }
+            if (existingTable.sameColumns(parseCreateTable(statement))) {
+                log.debug("table " + tableName + " is up to date");
+                keptTables.put(tableName, existingTable.indexedColumns);
+                return Decision.SKIP;
+            }
+            log.debug("table " + tableName + " changed");
+            return new Decision(false, dropTableStatement(tableName));
+        }
+
+        matcher = CREATE_INDEX.matcher(statement);
+        if (matcher.find() && isInKeyspace(matcher.group(2))) {
+            Set<String> indexedColumns = keptTables.get(unquote(matcher.group(3)));
+            if (indexedColumns != null && indexedColumns.contains(unquote(matcher.group(4)))) {
+                return Decision.SKIP;
+            }
+        }
+        return Decision.EXECUTE;
+    }
+
+    /**
+     * @return the statements dropping the existing tables the dataset did not create
+     */
+    List<String> getRemainingTableDrops() {
+        List<String> dropStatements = new ArrayList<String>();
+        for (String tableName : existingTables.keySet()) {
+            dropStatements.add(dropTableStatement(tableName));
+        }
+        existingTables.clear();
+        return dropStatements;
+    }
+
+    private String dropTableStatement(String tableName) {
+        return "DROP TABLE " + quote(keyspaceName) + "." + quote(tableName);
+    }
+
+    private boolean isInKeyspace(String statementKeyspaceName) {
+        return keyspaceName.equals(statementKeyspaceName == null ? currentKeyspaceName
+                : unquote(statementKeyspaceName));
+    }
+
+    private void execute(String query) {
+        log.debug("executing : " + query);
+        session.execute(query);
+    }
+
+    private Map<String, TableSchema> readTables() {
+        Map<String, TableSchema> tables = new LinkedHashMap<String, TableSchema>();
+        for (Row row : session.execute("SELECT columnfamily_name, key_aliases, column_aliases, value_alias, "
+                + "key_validator, comparator, default_validator FROM system.schema_columnfamilies "
+                + "WHERE keyspace_name='" + keyspaceName + "'")) {
+            TableSchema table = new TableSchema();
+            List<String> keyTypes = splitComposite(row.getString("key_validator"));
+            List<String> keyNames = parseAliases(row.getString("key_aliases"));
+            for (int i = 0; i < keyNames.size() && i < keyTypes.size(); i++) {
+                table.primaryKey.put(keyNames.get(i), keyTypes.get(i));
+            }
+            List<String> clusteringTypes = splitComposite(row.getString("comparator"));
+            List<String> clusteringNames = parseAliases(row.getString("column_aliases"));
+            for (int i = 0; i < clusteringNames.size() && i < clusteringTypes.size(); i++) {
+                table.primaryKey.put(clusteringNames.get(i), clusteringTypes.get(i));
+            }
+            if (StringUtils.isNotEmpty(row.getString("value_alias"))) {
+                table.columns.put(row.getString("value_alias"),
+                        SchemaPlanner.normalizeType(row.getString("default_validator")));
+            }
+            tables.put(row.getString("columnfamily_name"), table);
+        }
+        for (Row row : session.execute("SELECT columnfamily_name, column_name, validator, index_name "
+                + "FROM system.schema_columns WHERE keyspace_name='" + keyspaceName + "'")) {
+            TableSchema table = tables.get(row.getString("columnfamily_name"));
+            String columnName = row.getString("column_name");
+            if (table == null) {
+                continue;
+            }
+            if (!table.primaryKey.containsKey(columnName)) {
+                table.columns.put(columnName, SchemaPlanner.normalizeType(row.getString("validator")));
+            }
+            if (row.getString("index_name") != null) {
+                table.indexedColumns.add(columnName);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * @return the columns of a CREATE TABLE statement, null if they can not be read
+     */
+    static TableSchema parseCreateTable(String statement) {
+        int start = statement.indexOf('(');
+        int end = findClosingParenthesis(statement, start);
+        if (start < 0 || end < 0) {
+            return null;
+        }
+
+        Map<String, String> columnTypes = new LinkedHashMap<String, String>();
+        List<String> primaryKey = new ArrayList<String>();
+        for (String definition : splitTopLevel(statement.substring(start + 1, end))) {
+            if (PRIMARY_KEY_DEFINITION.matcher(definition).find()) {
+                int keyStart = definition.indexOf('(');
+                int keyEnd = findClosingParenthesis(definition, keyStart);
+                if (keyStart < 0 || keyEnd < 0) {
+                    return null;
+                }
+                for (String keyPart : splitTopLevel(definition.substring(keyStart + 1, keyEnd))) {
+                    if (keyPart.startsWith("(")) {
+                        for (String partitionKeyPart : splitTopLevel(keyPart.substring(1, keyPart.length() - 1))) {
+                            primaryKey.add(unquote(partitionKeyPart));
+                        }
+                    } else {
+                        primaryKey.add(unquote(keyPart));
+                    }
+                }
+                continue;
+            }
+            Matcher primaryKeyMatcher = PRIMARY_KEY.matcher(definition);
+            boolean isPrimaryKey = primaryKeyMatcher.find();
+            if (isPrimaryKey) {
+                definition = definition.substring(0, primaryKeyMatcher.start());
+            }
+            String[] nameAndType = definition.split("\\s+", 2);
+            if (nameAndType.length < 2) {
+                return null;
+            }
+            String columnName = unquote(nameAndType[0]);
+            String columnType = toMarshalType(nameAndType[1]);
+            if (columnType == null) {
+                return null;
+            }
+            columnTypes.put(columnName, columnType);
+            if (isPrimaryKey) {
+                primaryKey.add(columnName);
+            }
+        }
+
+        Set<String> reversedColumns = new HashSet<String>();
+        Matcher clusteringOrder = CLUSTERING_ORDER.matcher(statement.substring(end));
+        if (clusteringOrder.find()) {
+            for (String ordering : splitTopLevel(clusteringOrder.group(1))) {
+                if (ordering.toUpperCase().endsWith(" DESC")) {
+                    reversedColumns.add(unquote(ordering.substring(0, ordering.length() - 5).trim()));
+                }
+            }
+        }
+
+        TableSchema table = new TableSchema();
+        for (String columnName : primaryKey) {
+            String columnType = columnTypes.remove(columnName);
+            if (columnType == null) {
+                return null;
+            }
+            table.primaryKey.put(columnName, reversedColumns.contains(columnName) ? "ReversedType(" + columnType + ")"
+                    : columnType);
+        }
+        table.columns.putAll(columnTypes);
+        return table;
+    }
+
+    /**
+     * @return the name of the Cassandra type of a CQL type, without its package, null if it is unknown
+     */
+    static String toMarshalType(String cqlType) {
+        String type = StringUtils.deleteWhitespace(cqlType).toLowerCase();
+        int parametersStart = type.indexOf('<');
+        if (parametersStart < 0) {
+            return CQL_TYPES.get(type);
+        }
+        if (!type.endsWith(">")) {
+            return null;
+        }
+        String collection = type.substring(0, parametersStart);
+        String[] parameters = type.substring(parametersStart + 1, type.length() - 1).split(",");
+        StringBuilder marshalType = new StringBuilder();
+        if ("list".equals(collection) && parameters.length == 1) {
+            marshalType.append("ListType(");
+        } else if ("set".equals(collection) && parameters.length == 1) {
+            marshalType.append("SetType(");
+        } else if ("map".equals(collection) && parameters.length == 2) {
+            marshalType.append("MapType(");
+        } else {
+            return null;
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            String parameterType = CQL_TYPES.get(parameters[i]);
+            if (parameterType == null) {
+                return null;
+            }
+            marshalType.append(i == 0 ? "" : ",").append(parameterType);
+        }
+        return marshalType.append(")").toString();
+    }
+
+    /**
+     * @return the components of a CompositeType, or the type itself, without their package
+     */
+    private static List<String> splitComposite(String type) {
+        String normalizedType = SchemaPlanner.normalizeType(type);
+        if (normalizedType.startsWith("CompositeType(") && normalizedType.endsWith(")")) {
+            return splitTopLevel(normalizedType.substring("CompositeType(".length(), normalizedType.length() - 1));
+        }
+        List<String> types = new ArrayList<String>();
+        types.add(normalizedType);
+        return types;
+    }
+
+    /**
+     * @param aliases JSON array of names, as ["id","name"]
+     */
+    private static List<String> parseAliases(String aliases) {
+        List<String> names = new ArrayList<String>();
+        String content = StringUtils.strip(StringUtils.defaultString(aliases), "[] ");
+        if (content.length() > 0) {
+            for (String name : content.split(",")) {
+                names.add(StringUtils.strip(name, "\" "));
+            }
+        }
+        return names;
+    }
+
+    private static int findClosingParenthesis(String text, int openingIndex) {
+        if (openingIndex < 0) {
+            return -1;
+        }
+        int depth = 0;
+        for (int i = openingIndex; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the parts separated by the commas which are not between parentheses or angle brackets, trimmed
+     */
+    private static List<String> splitTopLevel(String text) {
+        List<String> parts = new ArrayList<String>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == '<') {
+                depth++;
+            } else if (c == ')' || c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(text.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        String lastPart = text.substring(start).trim();
+        if (lastPart.length() > 0) {
+            parts.add(lastPart);
+        }
+        return parts;
+    }
+
+    /**
+     * @return the name as it is stored in the schema : in lower case if it is not quoted
+     */
+    private static String unquote(String name) {
+        if (name.startsWith("\"") && name.endsWith("\"") && name.length() > 1) {
+            return name.substring(1, name.length() - 1).replace("\"\"", "\"");
+        }
+        return name.toLowerCase();
+    }
+
+    private static String quote(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * what to do with a statement of the dataset
+     */
+    static final class Decision {
+
+        static final Decision EXECUTE = new Decision(false, null);
+        static final Decision SKIP = new Decision(true, null);
+
+        private final boolean skipped;
+        private final String dropStatement;
+
+        private Decision(boolean skipped, String dropStatement) {
+            this.skipped = skipped;
+            this.dropStatement = dropStatement;
+        }
+
+        /**
+         * @return whether the statement must not be executed
+         */
+        boolean isSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return the statement to execute before the statement, null if none
+         */
+        String getDropStatement() {
+            return dropStatement;
+        }
+    }
+
+    static class TableSchema {
+
+        /* the partition key then the clustering columns, with their types */
+        final Map<String, String> primaryKey = new LinkedHashMap<String, String>();
+        final Map<String, String> columns = new HashMap<String, String>();
+        final Set<String> indexedColumns = new HashSet<String>();
+
+        boolean sameColumns(TableSchema wantedTable) {
+            return wantedTable != null && new ArrayList<Map.Entry<String, String>>(primaryKey.entrySet()).equals(
+                    new ArrayList<Map.Entry<String, String>>(wantedTable.primaryKey.entrySet()))
+                    && columns.equals(wantedTable.columns);
+        }
+    }
+}
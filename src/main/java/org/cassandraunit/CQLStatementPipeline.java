@@ -0,0 +1,277 @@
+package org.cassandraunit;
+
+import com.datastax.driver.core.Query;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import org.cassandraunit.exception.CassandraUnitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Executes the statements of a CQL dataset keeping a bounded number of data statements in flight. Any other
+ * statement is an ordering barrier : the statements in flight are awaited before it is executed synchronously.
+ * An UPDATE or a DELETE waits for the statements in flight which write its table or an unknown table (a batch), so
+ * it is applied after the rows it changes are inserted. The INSERT and BATCH statements are not ordered between them,
+ * they must write different rows. No statement is sent any more once a statement in flight failed.
+ */
+class CQLStatementPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(CQLStatementPipeline.class);
+
+    private static final String[] PIPELINED_STATEMENT_KEYWORDS = {"INSERT", "UPDATE", "DELETE", "BEGIN"};
+    private static final String[] ORDERED_STATEMENT_KEYWORDS = {"UPDATE", "DELETE"};
+    private static final String BATCH_STATEMENT_KEYWORD = "BEGIN";
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    /* runs the latency recording in the thread completing the statement */
+    private static final Executor CALLING_THREAD_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final Session session;
+    private final int maxStatementsInFlight;
+    private final PreparedStatementCache preparedStatementCache;
+    private final LoadReport loadReport;
+
+    private final LinkedList<InFlightStatement> inFlightStatements = new LinkedList<InFlightStatement>();
+    private final List<String> errors = new ArrayList<String>();
+    private Throwable firstError = null;
+
+    /* set by the thread completing a failed statement, checked before sending the next one */
+    private volatile boolean failed = false;
+
+    /**
+     * @param preparedStatementCache cache used to bind the INSERT statements, may be null
+     * @param loadReport             report in which each statement is recorded
+     */
+    CQLStatementPipeline(Session session, int maxStatementsInFlight, PreparedStatementCache preparedStatementCache,
+                         LoadReport loadReport) {
+        this.session = session;
+        this.maxStatementsInFlight = maxStatementsInFlight;
+        this.preparedStatementCache = preparedStatementCache;
+        this.loadReport = loadReport;
+    }
+
+    /**
+     * @param index     index of the statement in the dataset
+     * @param statement CQL statement
+     */
+    void execute(int index, final String statement) {
+        long phaseStart = System.nanoTime();
+        if (isPipelined(statement)) {
+            final String tableName = getUnqualifiedTableName(statement);
+            if (startsWithAny(statement, ORDERED_STATEMENT_KEYWORDS)) {
+                awaitWritesOfTable(tableName);
+            }
+            if (inFlightStatements.size() >= maxStatementsInFlight) {
+                await(inFlightStatements.removeFirst());
+            }
+            if (failed || !errors.isEmpty()) {
+                /* throws the errors once the statements already sent are done */
+                awaitAll();
+            }
+            log.debug("sending : " + statement);
+            ResultSetFuture future;
+            final long sendingStart;
+            if (preparedStatementCache != null) {
+                phaseStart = loadReport.endPhase(LoadPhase.DATA, phaseStart);
+                Query query = preparedStatementCache.toQuery(statement);
+                phaseStart = loadReport.endPhase(LoadPhase.MAPPING, phaseStart);
+                sendingStart = phaseStart;
+                future = session.executeAsync(query);
+            } else {
+                sendingStart = System.nanoTime();
+                future = session.executeAsync(statement);
+            }
+            final ColumnFamilyLoadReport tableReport = getTableReport(loadReport, statement);
+            final ResultSetFuture sentFuture = future;
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    recordStatement(loadReport, tableReport, statement, System.nanoTime() - sendingStart);
+                    try {
+                        sentFuture.getUninterruptibly();
+                    } catch (RuntimeException e) {
+                        failed = true;
+                    }
+                }
+            }, CALLING_THREAD_EXECUTOR);
+            inFlightStatements.add(new InFlightStatement(index, statement, tableName, future));
+            loadReport.endPhase(LoadPhase.DATA, phaseStart);
+        } else {
+            awaitAll();
+            if (preparedStatementCache != null) {
+                preparedStatementCache.clear();
+            }
+            phaseStart = loadReport.endPhase(LoadPhase.DATA, phaseStart);
+            log.debug("executing : " + statement);
+            try {
+                session.execute(statement);
+            } catch (RuntimeException e) {
+                throw new CassandraUnitException("statement " + index + " failed : " + statement, e);
+            }
+            long latency = System.nanoTime() - phaseStart;
+            loadReport.addPhaseTime(LoadPhase.SCHEMA, latency);
+            recordStatement(loadReport, null, statement, latency);
+        }
+    }
+
+    /**
+     * wait for the statements still in flight
+     *
+     * @throws CassandraUnitException if one of the pipelined statements failed
+     */
+    void awaitAll() {
+        while (!inFlightStatements.isEmpty()) {
+            await(inFlightStatements.removeFirst());
+        }
+        if (!errors.isEmpty()) {
+            StringBuilder message = new StringBuilder(errors.size() + " statement(s) failed :");
+            for (int i = 0; i < errors.size() && i < MAX_REPORTED_ERRORS; i++) {
+                message.append("\n").append(errors.get(i));
+            }
+            if (errors.size() > MAX_REPORTED_ERRORS) {
+                message.append("\n...");
+            }
+            throw new CassandraUnitException(message.toString(), firstError);
+        }
+    }
+
+    /**
+     * wait for the statements in flight which write this table or an unknown table
+     */
+    private void awaitWritesOfTable(String tableName) {
+        Iterator<InFlightStatement> iterator = inFlightStatements.iterator();
+        while (iterator.hasNext()) {
+            InFlightStatement inFlightStatement = iterator.next();
+            if (inFlightStatement.tableName == null || inFlightStatement.tableName.equals(tableName)) {
+                iterator.remove();
+                await(inFlightStatement);
+            }
+        }
+    }
+
+    private void await(InFlightStatement inFlightStatement) {
+        try {
+            inFlightStatement.future.getUninterruptibly();
+        } catch (RuntimeException e) {
+            errors.add("statement " + inFlightStatement.index + " : " + inFlightStatement.statement + " -> "
+                    + e.getMessage());
+            if (firstError == null) {
+                firstError = e;
+            }
+        }
+    }
+
+    /**
+     * @return the report of the table written by the statement, null if it is not an INSERT, UPDATE or DELETE
+     */
+    static ColumnFamilyLoadReport getTableReport(LoadReport loadReport, String statement) {
+        String tableName = getTableName(statement);
+        if (tableName == null) {
+            return null;
+        }
+        ColumnFamilyLoadReport tableReport = loadReport.getOrCreateColumnFamilyReport(tableName);
+        tableReport.addRows(1, 0);
+        return tableReport;
+    }
+
+    /**
+     * @param tableReport table written by the statement, null if it is not an INSERT, UPDATE or DELETE
+     */
+    static void recordStatement(LoadReport loadReport, ColumnFamilyLoadReport tableReport, String statement,
+                                long latencyInNanos) {
+        boolean batch = statement.trim().regionMatches(true, 0, BATCH_STATEMENT_KEYWORD, 0,
+                BATCH_STATEMENT_KEYWORD.length());
+        loadReport.addRequest(tableReport, statement.length(), latencyInNanos, batch);
+    }
+
+    /**
+     * @return the table written by an INSERT, UPDATE or DELETE statement, as it is written in the statement but in
+     * lower case if it is not quoted, null for any other statement
+     */
+    static String getTableName(String statement) {
+        String keyword = null;
+        String previousWord = null;
+        int wordIndex = 0;
+        int position = 0;
+        while (true) {
+            int start = position;
+            while (start < statement.length() && isWordSeparator(statement.charAt(start))) {
+                start++;
+            }
+            if (start == statement.length()) {
+                return null;
+            }
+            int end = start;
+            while (end < statement.length() && !isWordSeparator(statement.charAt(end))) {
+                end++;
+            }
+            String word = statement.substring(start, end);
+            if (wordIndex == 0) {
+                keyword = word.toUpperCase();
+                if (!"INSERT".equals(keyword) && !"UPDATE".equals(keyword) && !"DELETE".equals(keyword)) {
+                    return null;
+                }
+            } else if (("INSERT".equals(keyword) && wordIndex == 2) || ("UPDATE".equals(keyword) && wordIndex == 1)
+                    || ("DELETE".equals(keyword) && "FROM".equalsIgnoreCase(previousWord))) {
+                return word.startsWith("\"") ? word : word.toLowerCase();
+            }
+            previousWord = word;
+            wordIndex++;
+            position = end;
+        }
+    }
+
+    /**
+     * @return the table written by the statement without its keyspace, null if it is not an INSERT, UPDATE or DELETE
+     */
+    private static String getUnqualifiedTableName(String statement) {
+        String tableName = getTableName(statement);
+        if (tableName == null || tableName.startsWith("\"")) {
+            return tableName;
+        }
+        return tableName.substring(tableName.lastIndexOf('.') + 1);
+    }
+
+    private static boolean isWordSeparator(char c) {
+        return Character.isWhitespace(c) || c == '(' || c == ')' || c == ',' || c == ';';
+    }
+
+    static boolean isPipelined(String statement) {
+        return startsWithAny(statement, PIPELINED_STATEMENT_KEYWORDS);
+    }
+
+    private static boolean startsWithAny(String statement, String[] keywords) {
+        String trimmedStatement = statement.trim();
+        for (String keyword : keywords) {
+            if (trimmedStatement.regionMatches(true, 0, keyword, 0, keyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class InFlightStatement {
+        private final int index;
+        private final String statement;
+        private final String tableName;
+        private final ResultSetFuture future;
+
+        private InFlightStatement(int index, String statement, String tableName, ResultSetFuture future) {
+            this.index = index;
+            this.statement = statement;
+            this.tableName = tableName;
+            this.future = future;
+        }
+    }
+}
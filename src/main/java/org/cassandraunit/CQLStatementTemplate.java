@@ -0,0 +1,156 @@
+package org.cassandraunit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shape of an <code>INSERT ... VALUES (...)</code> statement whose values are all literals : the statement with a
+ * bind marker in place of each value, plus the literals as they are written in the statement.
+ */
+class CQLStatementTemplate {
+
+    private static final String INSERT_KEYWORD = "INSERT";
+    private static final String VALUES_KEYWORD = "VALUES";
+
+    private final String template;
+    private final List<String> literals;
+
+    private CQLStatementTemplate(String template, List<String> literals) {
+        this.template = template;
+        this.literals = literals;
+    }
+
+    /**
+     * @return the statement with a <code>?</code> in place of each value
+     */
+    String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the values of the statement, strings are still quoted
+     */
+    List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * @param statement a CQL statement
+     * @return the template of the statement or null if it is not an INSERT with literal values only
+     */
+    static CQLStatementTemplate parse(String statement) {
+        String trimmedStatement = statement.trim();
+        if (!trimmedStatement.regionMatches(true, 0, INSERT_KEYWORD, 0, INSERT_KEYWORD.length())) {
+            return null;
+        }
+
+        int valuesKeywordIndex = indexOfKeyword(trimmedStatement, VALUES_KEYWORD);
+        if (valuesKeywordIndex < 0) {
+            return null;
+        }
+        int openingParenthesisIndex = skipWhitespaces(trimmedStatement, valuesKeywordIndex + VALUES_KEYWORD.length());
+        if (openingParenthesisIndex >= trimmedStatement.length()
+                || trimmedStatement.charAt(openingParenthesisIndex) != '(') {
+            return null;
+        }
+
+        List<String> literals = new ArrayList<String>();
+        int index = openingParenthesisIndex + 1;
+        while (true) {
+            index = skipWhitespaces(trimmedStatement, index);
+            int literalEnd = endOfLiteral(trimmedStatement, index);
+            if (literalEnd < 0) {
+                return null;
+            }
+            literals.add(trimmedStatement.substring(index, literalEnd));
+            index = skipWhitespaces(trimmedStatement, literalEnd);
+            if (index >= trimmedStatement.length()) {
+                return null;
+            }
+            char separator = trimmedStatement.charAt(index++);
+            if (separator == ')') {
+                break;
+            } else if (separator != ',') {
+                return null;
+            }
+        }
+
+        StringBuilder template = new StringBuilder(trimmedStatement.length());
+        template.append(trimmedStatement, 0, openingParenthesisIndex + 1);
+        for (int i = 0; i < literals.size(); i++) {
+            template.append(i == 0 ? "?" : ",?");
+        }
+        template.append(')').append(trimmedStatement, index, trimmedStatement.length());
+        return new CQLStatementTemplate(template.toString(), Collections.unmodifiableList(literals));
+    }
+
+    /**
+     * @return index of the keyword when it appears as a whole word outside of a string literal, -1 otherwise
+     */
+    private static int indexOfKeyword(String statement, String keyword) {
+        boolean inString = false;
+        for (int i = 0; i < statement.length(); i++) {
+            char c = statement.charAt(i);
+            if (c == '\'') {
+                inString = !inString;
+            } else if (!inString && statement.regionMatches(true, i, keyword, 0, keyword.length())
+                    && (i == 0 || !Character.isLetterOrDigit(statement.charAt(i - 1)))
+                    && (i + keyword.length() == statement.length()
+                    || !Character.isLetterOrDigit(statement.charAt(i + keyword.length())))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index following the literal starting at the given index, -1 if there is no literal there
+     */
+    private static int endOfLiteral(String statement, int start) {
+        if (start >= statement.length()) {
+            return -1;
+        }
+        if (statement.charAt(start) == '\'') {
+            int i = start + 1;
+            while (i < statement.length()) {
+                if (statement.charAt(i) == '\'') {
+                    if (i + 1 < statement.length() && statement.charAt(i + 1) == '\'') {
+                        /* escaped quote */
+                        i += 2;
+                        continue;
+                    }
+                    return i + 1;
+                }
+                i++;
+            }
+            return -1;
+        }
+
+        /* constant : number, uuid, blob or boolean */
+        int i = start;
+        while (i < statement.length()) {
+            char c = statement.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (i == start) {
+            return -1;
+        }
+        /* a function call like now() is not a literal */
+        if (skipWhitespaces(statement, i) < statement.length() && statement.charAt(skipWhitespaces(statement, i)) == '(') {
+            return -1;
+        }
+        return i;
+    }
+
+    private static int skipWhitespaces(String statement, int index) {
+        while (index < statement.length() && Character.isWhitespace(statement.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
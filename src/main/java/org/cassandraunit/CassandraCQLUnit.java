@@ -11,11 +11,14 @@ import org.slf4j.LoggerFactory;
  */
 public class CassandraCQLUnit extends BaseCassandraUnit {
     private CQLDataSet dataSet;
+    private CQLLoadingOption loadingOption = new CQLLoadingOption();
 
     private static final Logger log = LoggerFactory.getLogger(CassandraCQLUnit.class);
     private String hostIp = "127.0.0.1";
     private int port = 9142;
     public Session session;
+    /* metrics of the load of the dataset */
+    public LoadReport loadReport;
 
     public CassandraCQLUnit(CQLDataSet dataSet) {
         this.dataSet = dataSet;
@@ -33,9 +36,14 @@ public class CassandraCQLUnit extends BaseCassandraUnit {
         this.port = port;
     }
 
+    public CassandraCQLUnit(CQLDataSet dataSet, CQLLoadingOption loadingOption) {
+        this(dataSet);
+        this.loadingOption = loadingOption;
+    }
+
     protected void load() {
         CQLDataLoader dataLoader = new CQLDataLoader(hostIp, port);
-        dataLoader.load(dataSet);
+        loadReport = dataLoader.loadWithReport(dataSet, loadingOption);
         session = dataLoader.getSession();
     }
 
@@ -8,7 +8,10 @@ import org.cassandraunit.dataset.DataSet;
 public class CassandraUnit extends BaseCassandraUnit  {
     public Cluster cluster;
     public Keyspace keyspace;
+    /* metrics of the load of the dataset */
+    public LoadReport loadReport;
     private DataSet dataSet;
+    private LoadingOption loadingOption = new LoadingOption();
 
     public static String clusterName = "TestCluster";
     public static String host = "localhost:9171";
@@ -16,6 +19,16 @@ public class CassandraUnit extends BaseCassandraUnit  {
     public CassandraUnit(DataSet dataSet) {
         this.dataSet = dataSet;
     }
+
+    /**
+     * @param loadingOption options of the loading, {@link LoadingOption#setReadOnly(boolean)} keeping the keyspace
+     *                      loaded by a previous test with the same dataset
+     */
+    public CassandraUnit(DataSet dataSet, LoadingOption loadingOption) {
+        this(dataSet);
+        this.loadingOption = loadingOption;
+    }
+
     public CassandraUnit(DataSet dataSet, String configurationFileName) {
     	this(dataSet);
     	this.configurationFileName = configurationFileName;
@@ -29,7 +42,7 @@ public class CassandraUnit extends BaseCassandraUnit  {
     @Override
     protected void load() {
         DataLoader dataLoader = new DataLoader(clusterName, host);
-        dataLoader.load(dataSet);
+        loadReport = dataLoader.loadWithReport(dataSet, loadingOption);
 
         /* get hector client object to query data in your test */
         cluster = HFactory.getOrCreateCluster(clusterName, host);
@@ -0,0 +1,71 @@
+package org.cassandraunit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What was written into one column family, or one CQL table, during a load. With a CQL dataset, the rows are the
+ * INSERT, UPDATE and DELETE statements of the table, the columns are not counted and the BATCH statements are only
+ * counted in the {@link LoadReport}.
+ */
+public class ColumnFamilyLoadReport {
+
+    private final String name;
+
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong columns = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    ColumnFamilyLoadReport(String name) {
+        this.name = name;
+    }
+
+    void addRows(long addedRows, long addedColumns) {
+        rows.addAndGet(addedRows);
+        columns.addAndGet(addedColumns);
+    }
+
+    void addRequest(long sizeInBytes, long latencyInNanos) {
+        bytes.addAndGet(sizeInBytes);
+        latencies.record(latencyInNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    /**
+     * @return the columns, the columns of the super columns included
+     */
+    public long getColumns() {
+        return columns.get();
+    }
+
+    /**
+     * @return the estimated size of the mutations, or the size of the CQL statements
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * @return the number of batch_mutate calls, or of CQL statements
+     */
+    public long getRequests() {
+        return latencies.getCount();
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        return name + " : " + getRows() + " rows, " + getColumns() + " columns, " + getBytes() + " bytes, "
+                + latencies;
+    }
+}
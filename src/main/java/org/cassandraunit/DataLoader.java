@@ -2,6 +2,7 @@ package org.cassandraunit;
 
 import me.prettyprint.cassandra.model.BasicColumnDefinition;
 import me.prettyprint.cassandra.serializers.LongSerializer;
+import me.prettyprint.cassandra.serializers.StringSerializer;
 import me.prettyprint.hector.api.Cluster;
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.beans.HColumn;
@@ -13,27 +14,44 @@ import me.prettyprint.hector.api.ddl.ColumnFamilyDefinition;
 import me.prettyprint.hector.api.ddl.ColumnType;
 import me.prettyprint.hector.api.ddl.ComparatorType;
 import me.prettyprint.hector.api.ddl.KeyspaceDefinition;
+import me.prettyprint.hector.api.exceptions.HInvalidRequestException;
 import me.prettyprint.hector.api.factory.HFactory;
-import me.prettyprint.hector.api.mutation.Mutator;
 import org.apache.commons.lang.StringUtils;
 import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.exception.CassandraUnitException;
 import org.cassandraunit.model.ColumnFamilyModel;
 import org.cassandraunit.model.ColumnMetadataModel;
 import org.cassandraunit.model.ColumnModel;
 import org.cassandraunit.model.CompactionStrategyOptionModel;
 import org.cassandraunit.model.KeyspaceModel;
 import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.StrategyModel;
 import org.cassandraunit.model.SuperColumnModel;
 import org.cassandraunit.serializer.GenericTypeSerializer;
 import org.cassandraunit.type.GenericType;
 import org.cassandraunit.type.GenericTypeEnum;
+import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Jeremy Sevellec
@@ -44,6 +62,17 @@ public class DataLoader {
 
     private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
 
+    private static final int DEFAULT_STREAMING_MUTATIONS_PER_BATCH = 1000;
+
+    /* fingerprints of the datasets loaded read only, by keyspace name */
+    static final String FINGERPRINT_KEYSPACE = "cassandraunit";
+    static final String FINGERPRINT_COLUMN_FAMILY = "loaded_datasets";
+    static final String FINGERPRINT_COLUMN = "fingerprint";
+
+    /* whether the keyspace of the fingerprints exists, by cluster name, described once and set when it is created */
+    private static final ConcurrentMap<String, Boolean> fingerprintKeyspaceExists =
+            new ConcurrentHashMap<String, Boolean>();
+
     public DataLoader(String clusterName, String host) {
         super();
         cluster = HFactory.getOrCreateCluster(clusterName, host);
@@ -58,20 +87,162 @@ public class DataLoader {
     }
 
     public void load(DataSet dataSet, LoadingOption loadingOption) {
-        KeyspaceModel dataSetKeyspace = dataSet.getKeyspace();
+        loadWithReport(dataSet, loadingOption);
+    }
 
-        dropKeyspaceIfExist(dataSetKeyspace.getName());
+    /**
+     * @return the metrics of the load, also summed up over JMX by the {@link LoadStatistics}
+     */
+    public LoadReport loadWithReport(DataSet dataSet, LoadingOption loadingOption) {
+        long start = System.nanoTime();
+        KeyspaceModel dataSetKeyspace = dataSet.getKeyspace();
+        LoadReport report = new LoadReport(dataSetKeyspace.getName(), start);
+        report.endPhase(LoadPhase.PARSE, start);
+
+        String fingerprint = null;
+        if (loadingOption.isReadOnly()) {
+            fingerprint = DataSetFingerprint.of(dataSet, loadingOption);
+            if (isKeyspaceLoadedWithFingerprint(dataSetKeyspace.getName(), fingerprint)) {
+                log.info("keyspace {} already loaded with the same dataset, not reloaded", dataSetKeyspace.getName());
+                return report.finish(LoadReport.Outcome.ALREADY_LOADED);
+            }
+        }
+        forgetFingerprint(dataSetKeyspace.getName());
 
-        KeyspaceDefinition keyspaceDefinition = createKeyspaceDefinition(dataSet, loadingOption);
+        if (restoreSnapshotIfExist(dataSetKeyspace.getName(), loadingOption)) {
+            recordFingerprint(dataSetKeyspace.getName(), fingerprint);
+            return report.finish(LoadReport.Outcome.RESTORED_FROM_SNAPSHOT);
+        }
 
-        cluster.addKeyspace(keyspaceDefinition, true);
+        long phaseStart = System.nanoTime();
+        if (loadingOption.isMigrateSchema()) {
+            KeyspaceDefinition keyspaceDefinition = createKeyspaceDefinition(dataSet, loadingOption);
+            phaseStart = report.endPhase(LoadPhase.MAPPING, phaseStart);
+            KeyspaceDefinition existingKeyspace = cluster.describeKeyspace(keyspaceDefinition.getName());
+            if (existingKeyspace != null) {
+                log.info("migrating existing keyspace : {}", keyspaceDefinition.getName());
+                EmbeddedCassandraServerHelper.forgetKeyspaceSnapshot(keyspaceDefinition.getName());
+            } else {
+                log.info("creating keyspace : {}", keyspaceDefinition.getName());
+            }
+            new SchemaPlanner(cluster).apply(dataSet.getColumnFamilies(), keyspaceDefinition, existingKeyspace);
+        } else {
+            dropKeyspaceIfExist(dataSetKeyspace.getName());
+            phaseStart = report.endPhase(LoadPhase.SCHEMA, phaseStart);
+            KeyspaceDefinition keyspaceDefinition = createKeyspaceDefinition(dataSet, loadingOption);
+            phaseStart = report.endPhase(LoadPhase.MAPPING, phaseStart);
+            cluster.addKeyspace(keyspaceDefinition, true);
+            log.info("creating keyspace : {}", keyspaceDefinition.getName());
+        }
+        report.endPhase(LoadPhase.SCHEMA, phaseStart);
 
-        log.info("creating keyspace : {}", keyspaceDefinition.getName());
         Keyspace keyspace = HFactory.createKeyspace(dataSet.getKeyspace().getName(), cluster);
 
         if (!loadingOption.isOnlySchema()) {
-            log.info("loading data into keyspace : {}", keyspaceDefinition.getName());
-            loadData(dataSet, keyspace);
+            log.info("loading data into keyspace : {}", dataSetKeyspace.getName());
+            loadData(dataSet, keyspace, loadingOption, report);
+        }
+
+        if (loadingOption.getSnapshotName() != null) {
+            takeSnapshot(dataSetKeyspace.getName(), loadingOption.getSnapshotName());
+        }
+
+        recordFingerprint(dataSetKeyspace.getName(), fingerprint);
+        report.finish(LoadReport.Outcome.LOADED);
+        log.debug("{}", report);
+        return report;
+    }
+
+    private void dropKeyspaceIfExist(String keyspaceName) {
+        KeyspaceDefinition existedKeyspace = cluster.describeKeyspace(keyspaceName);
+        if (existedKeyspace != null) {
+            log.info("dropping existing keyspace : {}", existedKeyspace.getName());
+            EmbeddedCassandraServerHelper.forgetKeyspaceSnapshot(keyspaceName);
+            cluster.dropKeyspace(keyspaceName, true);
+        }
+    }
+
+    private boolean isKeyspaceLoadedWithFingerprint(String keyspaceName, String fingerprint) {
+        if (cluster.describeKeyspace(keyspaceName) == null || !describeFingerprintKeyspace()) {
+            return false;
+        }
+        HColumn<String, String> loadedFingerprint = HFactory.createStringColumnQuery(getFingerprintKeyspace())
+                .setColumnFamily(FINGERPRINT_COLUMN_FAMILY).setKey(keyspaceName).setName(FINGERPRINT_COLUMN)
+                .execute().get();
+        return loadedFingerprint != null && fingerprint.equals(loadedFingerprint.getValue());
+    }
+
+    /**
+     * the fingerprint is forgotten before the keyspace is changed, a failed load leaves no fingerprint. The keyspace
+     * of the fingerprints is only described by the first load of the cluster.
+     */
+    private void forgetFingerprint(String keyspaceName) {
+        Boolean exists = fingerprintKeyspaceExists.get(cluster.getName());
+        if (exists == null) {
+            exists = describeFingerprintKeyspace();
+        }
+        if (!exists) {
+            return;
+        }
+        try {
+            HFactory.createMutator(getFingerprintKeyspace(), StringSerializer.get()).delete(keyspaceName,
+                    FINGERPRINT_COLUMN_FAMILY, FINGERPRINT_COLUMN, StringSerializer.get());
+        } catch (HInvalidRequestException e) {
+            /* dropped since, with all the keyspaces of the embedded Cassandra */
+            if (describeFingerprintKeyspace()) {
+                throw e;
+            }
+        }
+    }
+
+    private boolean describeFingerprintKeyspace() {
+        boolean exists = cluster.describeKeyspace(FINGERPRINT_KEYSPACE) != null;
+        fingerprintKeyspaceExists.put(cluster.getName(), exists);
+        return exists;
+    }
+
+    private void recordFingerprint(String keyspaceName, String fingerprint) {
+        if (fingerprint == null) {
+            return;
+        }
+        if (!describeFingerprintKeyspace()) {
+            ColumnFamilyDefinition columnFamilyDefinition = HFactory.createColumnFamilyDefinition(
+                    FINGERPRINT_KEYSPACE, FINGERPRINT_COLUMN_FAMILY, ComparatorType.UTF8TYPE);
+            cluster.addKeyspace(HFactory.createKeyspaceDefinition(FINGERPRINT_KEYSPACE,
+                    StrategyModel.SIMPLE_STRATEGY.value(), 1, Arrays.asList(columnFamilyDefinition)), true);
+            fingerprintKeyspaceExists.put(cluster.getName(), true);
+        }
+        HFactory.createMutator(getFingerprintKeyspace(), StringSerializer.get()).insert(keyspaceName,
+                FINGERPRINT_COLUMN_FAMILY, HFactory.createStringColumn(FINGERPRINT_COLUMN, fingerprint));
+    }
+
+    private Keyspace getFingerprintKeyspace() {
+        return HFactory.createKeyspace(FINGERPRINT_KEYSPACE, cluster);
+    }
+
+    private boolean restoreSnapshotIfExist(String keyspaceName, LoadingOption loadingOption) {
+        String snapshotName = loadingOption.getSnapshotName();
+        if (snapshotName == null || !EmbeddedCassandraServerHelper.hasKeyspaceSnapshot(keyspaceName, snapshotName)
+                || cluster.describeKeyspace(keyspaceName) == null) {
+            return false;
+        }
+        log.info("restoring keyspace {} from snapshot {}", keyspaceName, snapshotName);
+        try {
+            EmbeddedCassandraServerHelper.restoreKeyspaceSnapshot(keyspaceName, snapshotName);
+        } catch (IOException e) {
+            throw new CassandraUnitException("Failed to restore snapshot " + snapshotName + " of keyspace "
+                    + keyspaceName, e);
+        }
+        return true;
+    }
+
+    private void takeSnapshot(String keyspaceName, String snapshotName) {
+        log.info("taking snapshot {} of keyspace {}", snapshotName, keyspaceName);
+        try {
+            EmbeddedCassandraServerHelper.snapshotKeyspace(keyspaceName, snapshotName);
+        } catch (IOException e) {
+            throw new CassandraUnitException("Failed to take snapshot " + snapshotName + " of keyspace "
+                    + keyspaceName, e);
         }
     }
 
@@ -99,24 +270,151 @@ public class DataLoader {
         return keyspaceDefinition;
     }
 
-    private void dropKeyspaceIfExist(String keyspaceName) {
-        KeyspaceDefinition existedKeyspace = cluster.describeKeyspace(keyspaceName);
-        if (existedKeyspace != null) {
-            log.info("dropping existing keyspace : {}", existedKeyspace.getName());
-            cluster.dropKeyspace(keyspaceName, true);
+    private void loadData(DataSet dataSet, Keyspace keyspace, LoadingOption loadingOption, LoadReport report) {
+        if (loadingOption.getThreadCount() > 1) {
+            loadDataConcurrently(dataSet, keyspace, loadingOption, report);
+        } else {
+            for (ColumnFamilyModel columnFamily : dataSet.getColumnFamilies()) {
+                loadColumnFamilyData(columnFamily, columnFamily.getRowIterable().iterator(), keyspace, loadingOption,
+                        report);
+            }
         }
     }
 
-    private void loadData(DataSet dataSet, Keyspace keyspace) {
-        for (ColumnFamilyModel columnFamily : dataSet.getColumnFamilies()) {
-            loadColumnFamilyData(columnFamily, keyspace);
+    /**
+     * the mutations of lazy rows are always flushed in bounded batches, otherwise the whole column family would be
+     * held by the mutator
+     */
+    private int getMaxMutationsPerBatch(ColumnFamilyModel columnFamily, LoadingOption loadingOption) {
+        if (columnFamily.hasLazyRows() && loadingOption.getMaxMutationsPerBatch() == 0
+                && loadingOption.getMaxBatchSizeInBytes() == 0) {
+            return DEFAULT_STREAMING_MUTATIONS_PER_BATCH;
+        }
+        return loadingOption.getMaxMutationsPerBatch();
+    }
+
+    private void loadDataConcurrently(DataSet dataSet, Keyspace keyspace, LoadingOption loadingOption,
+                                      LoadReport report) {
+        ExecutorService executor = Executors.newFixedThreadPool(loadingOption.getThreadCount());
+        CompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
+        /* bounds the lazy rows read ahead of the loading threads */
+        Semaphore bufferedRowRanges = new Semaphore(loadingOption.getThreadCount() * 2);
+        int submittedTasks = 0;
+        int completedTasks = 0;
+        try {
+            for (ColumnFamilyModel columnFamily : dataSet.getColumnFamilies()) {
+                /* the column families are reported in the order of the dataset */
+                report.getOrCreateColumnFamilyReport(columnFamily.getName());
+                if (!columnFamily.hasLazyRows()) {
+                    for (List<RowModel> rows : splitRows(columnFamily.getRows(), loadingOption.getRowsPerTask())) {
+                        submitLoadingTask(completionService, columnFamily, rows, keyspace, loadingOption, report,
+                                null);
+                        submittedTasks++;
+                    }
+                } else if (loadingOption.getRowsPerTask() == 0) {
+                    submitLoadingTask(completionService, columnFamily, columnFamily.getRowIterable(), keyspace,
+                            loadingOption, report, null);
+                    submittedTasks++;
+                } else {
+                    Iterator<RowModel> rowIterator = columnFamily.getRowIterable().iterator();
+                    while (rowIterator.hasNext()) {
+                        long parseStart = System.nanoTime();
+                        List<RowModel> rows = new ArrayList<RowModel>(loadingOption.getRowsPerTask());
+                        while (rows.size() < loadingOption.getRowsPerTask() && rowIterator.hasNext()) {
+                            rows.add(rowIterator.next());
+                        }
+                        report.endPhase(LoadPhase.PARSE, parseStart);
+                        bufferedRowRanges.acquire();
+                        submitLoadingTask(completionService, columnFamily, rows, keyspace, loadingOption, report,
+                                bufferedRowRanges);
+                        submittedTasks++;
+                        completedTasks += checkCompletedTasks(completionService);
+                    }
+                }
+            }
+            log.debug("{} loading tasks submitted to {} threads", submittedTasks, loadingOption.getThreadCount());
+
+            /* wait for every task but stop at the first failure */
+            for (int i = completedTasks; i < submittedTasks; i++) {
+                completionService.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw new CassandraUnitException("Failed to load data", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CassandraUnitException("Interrupted while loading data", e);
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
+    /**
+     * @param permit released when the task is done, if not null
+     */
+    private void submitLoadingTask(CompletionService<Void> completionService, final ColumnFamilyModel columnFamily,
+                                   final Iterable<RowModel> rows, final Keyspace keyspace,
+                                   final LoadingOption loadingOption, final LoadReport report,
+                                   final Semaphore permit) {
+        completionService.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    loadColumnFamilyData(columnFamily, rows.iterator(), keyspace, loadingOption, report);
+                    return null;
+                } finally {
+                    if (permit != null) {
+                        permit.release();
+                    }
+                }
+            }
+        });
     }
 
-    private void loadColumnFamilyData(ColumnFamilyModel columnFamily, Keyspace keyspace) {
-        Mutator<GenericType> mutator = HFactory.createMutator(keyspace, GenericTypeSerializer.get());
-        for (RowModel row : columnFamily.getRows()) {
+    /**
+     * @return the number of tasks already done, the first failed one stopping the loading
+     */
+    private int checkCompletedTasks(CompletionService<Void> completionService) throws ExecutionException,
+            InterruptedException {
+        int completedTasks = 0;
+        Future<Void> completedTask;
+        while ((completedTask = completionService.poll()) != null) {
+            completedTask.get();
+            completedTasks++;
+        }
+        return completedTasks;
+    }
+
+    private List<List<RowModel>> splitRows(List<RowModel> rows, int rowsPerTask) {
+        List<List<RowModel>> rowRanges = new ArrayList<List<RowModel>>();
+        if (rowsPerTask == 0 || rows.size() <= rowsPerTask) {
+            if (!rows.isEmpty()) {
+                rowRanges.add(rows);
+            }
+            return rowRanges;
+        }
+        for (int from = 0; from < rows.size(); from += rowsPerTask) {
+            rowRanges.add(rows.subList(from, Math.min(from + rowsPerTask, rows.size())));
+        }
+        return rowRanges;
+    }
+
+    /**
+     * the time spent reading the rows is parsing time, the time spent creating the mutations is mapping time
+     */
+    private void loadColumnFamilyData(ColumnFamilyModel columnFamily, Iterator<RowModel> rows, Keyspace keyspace,
+                                      LoadingOption loadingOption, LoadReport report) {
+        BatchingMutator mutator = new BatchingMutator(keyspace, columnFamily.getName(),
+                getMaxMutationsPerBatch(columnFamily, loadingOption), loadingOption.getMaxBatchSizeInBytes(), report);
+        long rowCount = 0;
+        long columnCount = 0;
+        long parseTime = 0;
+        long mappingTime = 0;
+        long parseStart = System.nanoTime();
+        while (rows.hasNext()) {
+            RowModel row = rows.next();
+            long mappingStart = System.nanoTime();
+            parseTime += mappingStart - parseStart;
+            long executionTime = mutator.getTotalExecutionTimeInNanos();
             switch (columnFamily.getType()) {
                 case STANDARD:
                     loadStandardColumnFamilyData(columnFamily, mutator, row);
@@ -127,38 +425,58 @@ public class DataLoader {
                 default:
                     break;
             }
-
+            rowCount++;
+            columnCount += countColumns(row);
+            parseStart = System.nanoTime();
+            /* the batches executed while adding the mutations are data loading time */
+            mappingTime += parseStart - mappingStart - (mutator.getTotalExecutionTimeInNanos() - executionTime);
         }
-        mutator.execute();
+        parseTime += System.nanoTime() - parseStart;
+        mutator.flush();
+
+        report.addPhaseTime(LoadPhase.PARSE, parseTime);
+        report.addPhaseTime(LoadPhase.MAPPING, mappingTime);
+        report.addPhaseTime(LoadPhase.DATA, mutator.getTotalExecutionTimeInNanos());
+        report.getOrCreateColumnFamilyReport(columnFamily.getName()).addRows(rowCount, columnCount);
+        log.debug("column family {} : {} mutations loaded in {} batches ({} ms)", new Object[]{columnFamily.getName(),
+                mutator.getExecutedMutations(), mutator.getExecutedBatches(),
+                TimeUnit.NANOSECONDS.toMillis(mutator.getTotalExecutionTimeInNanos())});
+    }
 
+    private long countColumns(RowModel row) {
+        long columnCount = row.getColumns().size();
+        for (SuperColumnModel superColumn : row.getSuperColumns()) {
+            columnCount += superColumn.getColumns().size();
+        }
+        return columnCount;
     }
 
-    private void loadSuperColumnFamilyData(ColumnFamilyModel columnFamily, Mutator<GenericType> mutator, RowModel row) {
+    private void loadSuperColumnFamilyData(ColumnFamilyModel columnFamily, BatchingMutator mutator, RowModel row) {
         if (columnFamily.isCounter()) {
             for (SuperColumnModel superColumnModel : row.getSuperColumns()) {
                 HCounterSuperColumn<GenericType, GenericType> superCounterColumn = HFactory.createCounterSuperColumn(
                         superColumnModel.getName(), createHCounterColumnList(superColumnModel.getColumns()),
                         GenericTypeSerializer.get(), GenericTypeSerializer.get());
-                mutator.addCounter(row.getKey(), columnFamily.getName(), superCounterColumn);
+                mutator.addCounter(row.getKey(), superCounterColumn);
             }
         } else {
             for (SuperColumnModel superColumnModel : row.getSuperColumns()) {
                 HSuperColumn<GenericType, GenericType, GenericType> superColumn = HFactory.createSuperColumn(
                         superColumnModel.getName(), createHColumnList(superColumnModel.getColumns()),
                         GenericTypeSerializer.get(), GenericTypeSerializer.get(), GenericTypeSerializer.get());
-                mutator.addInsertion(row.getKey(), columnFamily.getName(), superColumn);
+                mutator.addInsertion(row.getKey(), superColumn);
             }
         }
     }
 
-    private void loadStandardColumnFamilyData(ColumnFamilyModel columnFamily, Mutator<GenericType> mutator, RowModel row) {
+    private void loadStandardColumnFamilyData(ColumnFamilyModel columnFamily, BatchingMutator mutator, RowModel row) {
         if (columnFamily.isCounter()) {
             for (HCounterColumn<GenericType> hCounterColumn : createHCounterColumnList(row.getColumns())) {
-                mutator.addCounter(row.getKey(), columnFamily.getName(), hCounterColumn);
+                mutator.addCounter(row.getKey(), hCounterColumn);
             }
         } else {
             for (HColumn<GenericType, GenericType> hColumn : createHColumnList(row.getColumns())) {
-                mutator.addInsertion(row.getKey(), columnFamily.getName(), hColumn);
+                mutator.addInsertion(row.getKey(), hColumn);
             }
         }
     }
@@ -0,0 +1,192 @@
+package org.cassandraunit;
+
+import me.prettyprint.hector.api.ddl.ComparatorType;
+import org.cassandraunit.dataset.ContentDataSet;
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnMetadataModel;
+import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.CompactionStrategyOptionModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.SuperColumnModel;
+import org.cassandraunit.serializer.GenericTypeSerializer;
+import org.cassandraunit.type.GenericType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * SHA-1 of what a dataset loads : the keyspace, the schema of its column families and the serialized rows, with the
+ * loading options changing the loaded keyspace. Two datasets with the same fingerprint load the same keyspace. The
+ * rows of a {@link ContentDataSet} are not read : its content is hashed as is, with the class reading it.
+ */
+final class DataSetFingerprint {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final MessageDigest digest;
+
+    private DataSetFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String of(DataSet dataSet, LoadingOption loadingOption) {
+        DataSetFingerprint fingerprint = new DataSetFingerprint();
+        fingerprint.update(dataSet.getKeyspace(), loadingOption);
+        if (dataSet instanceof ContentDataSet) {
+            fingerprint.update(dataSet.getClass().getName());
+            fingerprint.updateContent(((ContentDataSet) dataSet).openContent());
+        } else {
+            fingerprint.updateColumnFamilies(dataSet.getKeyspace(), loadingOption);
+        }
+        return fingerprint.toHex();
+    }
+
+    private void update(KeyspaceModel keyspace, LoadingOption loadingOption) {
+        update(keyspace.getName());
+        update(loadingOption.isOverrideReplicationFactor() ? loadingOption.getReplicationFactor()
+                : keyspace.getReplicationFactor());
+        update(loadingOption.isOverrideStrategy() ? loadingOption.getStrategy() : keyspace.getStrategy());
+        update(loadingOption.isOnlySchema());
+    }
+
+    /**
+     * @param content read and closed
+     */
+    private void updateContent(InputStream content) {
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } finally {
+            try {
+                content.close();
+            } catch (IOException e) {
+                /* nothing more can be done */
+            }
+        }
+    }
+
+    private void updateColumnFamilies(KeyspaceModel keyspace, LoadingOption loadingOption) {
+        update(keyspace.getColumnFamilies().size());
+        for (ColumnFamilyModel columnFamily : keyspace.getColumnFamilies()) {
+            updateSchema(columnFamily);
+            if (!loadingOption.isOnlySchema()) {
+                for (RowModel row : columnFamily.getRowIterable()) {
+                    update(row);
+                }
+            }
+            /* end of the rows of the column family */
+            update(-1);
+        }
+    }
+
+    private void updateSchema(ColumnFamilyModel columnFamily) {
+        update(columnFamily.getName());
+        update(columnFamily.getType());
+        updateType(columnFamily.getKeyType());
+        update(columnFamily.getKeyTypeAlias());
+        updateType(columnFamily.getComparatorType());
+        update(columnFamily.getComparatorTypeAlias());
+        updateType(columnFamily.getSubComparatorType());
+        updateType(columnFamily.getDefaultColumnValueType());
+        update(columnFamily.getComment());
+        update(columnFamily.getCompactionStrategy());
+        List<CompactionStrategyOptionModel> compactionStrategyOptions = columnFamily.getCompactionStrategyOptions();
+        if (compactionStrategyOptions != null) {
+            update(compactionStrategyOptions.size());
+            for (CompactionStrategyOptionModel compactionStrategyOption : compactionStrategyOptions) {
+                update(compactionStrategyOption.getName());
+                update(compactionStrategyOption.getValue());
+            }
+        }
+        update(columnFamily.getGcGraceSeconds());
+        update(columnFamily.getMaxCompactionThreshold());
+        update(columnFamily.getMinCompactionThreshold());
+        update(columnFamily.getReadRepairChance());
+        update(columnFamily.getReplicationOnWrite());
+        update(columnFamily.getColumnsMetadata().size());
+        for (ColumnMetadataModel columnMetadata : columnFamily.getColumnsMetadata()) {
+            update(columnMetadata.getColumnName());
+            updateType(columnMetadata.getValidationClass());
+            update(columnMetadata.getColumnIndexType());
+            update(columnMetadata.getIndexName());
+        }
+    }
+
+    private void updateType(ComparatorType type) {
+        update(type == null ? null : type.getClassName());
+    }
+
+    private void update(RowModel row) {
+        update(row.getKey());
+        update(row.getSuperColumns().size());
+        for (SuperColumnModel superColumn : row.getSuperColumns()) {
+            update(superColumn.getName());
+            update(superColumn.getColumns());
+        }
+        update(row.getColumns());
+    }
+
+    private void update(List<ColumnModel> columns) {
+        update(columns.size());
+        for (ColumnModel column : columns) {
+            update(column.getName());
+            update(column.getValue());
+            update(column.getTimestamp());
+        }
+    }
+
+    private void update(GenericType genericType) {
+        if (genericType == null) {
+            update(-1);
+            return;
+        }
+        ByteBuffer serializedValue = GenericTypeSerializer.get().toByteBuffer(genericType);
+        update(serializedValue.remaining());
+        digest.update(serializedValue);
+    }
+
+    private void update(Object value) {
+        if (value == null) {
+            update(-1);
+            return;
+        }
+        byte[] bytes = value.toString().getBytes(UTF8);
+        update(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void update(int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    private String toHex() {
+        byte[] bytes = digest.digest();
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
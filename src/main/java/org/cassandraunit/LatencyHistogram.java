@@ -0,0 +1,74 @@
+package org.cassandraunit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe histogram of the latencies of the requests of a load, in buckets of powers of 2 microseconds : the
+ * percentiles are the upper bounds of their buckets, at most twice the exact value.
+ */
+public class LatencyHistogram {
+
+    /* the last bucket holds the latencies of more than 2^38 microseconds, about 3 days */
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalInNanos = new AtomicLong();
+    private final AtomicLong maxInNanos = new AtomicLong();
+
+    void record(long latencyInNanos) {
+        long latencyInMicros = latencyInNanos / 1000;
+        /* bucket b holds the latencies from 2^(b-1) included to 2^b excluded */
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(latencyInMicros));
+        bucketCounts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalInNanos.addAndGet(latencyInNanos);
+        long max;
+        while (latencyInNanos > (max = maxInNanos.get()) && !maxInNanos.compareAndSet(max, latencyInNanos)) {
+            /* updated by another thread, compare again */
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMeanInMicros() {
+        long currentCount = count.get();
+        return currentCount == 0 ? 0 : totalInNanos.get() / currentCount / 1000;
+    }
+
+    public long getMaxInMicros() {
+        return maxInNanos.get() / 1000;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the latency of the given percentage of the requests, 0 if there is none
+     */
+    public long getPercentileInMicros(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100 : " + percentile);
+        }
+        long currentCount = count.get();
+        if (currentCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(currentCount * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += bucketCounts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(1L << bucket, getMaxInMicros());
+            }
+        }
+        return getMaxInMicros();
+    }
+
+    @Override
+    public String toString() {
+        return getCount() + " requests, mean " + getMeanInMicros() + " us, p50 " + getPercentileInMicros(50)
+                + " us, p99 " + getPercentileInMicros(99) + " us, max " + getMaxInMicros() + " us";
+    }
+}
@@ -0,0 +1,24 @@
+package org.cassandraunit;
+
+/**
+ * Phases of the loading of a dataset, timed in the {@link LoadReport}.
+ */
+public enum LoadPhase {
+    /**
+     * reading the dataset : its keyspace, the rows of a streaming dataset or the statements of a CQL dataset
+     */
+    PARSE,
+    /**
+     * mapping the dataset to the keyspace definition and the mutations, or binding the CQL statements
+     */
+    MAPPING,
+    /**
+     * dropping and creating the keyspace, or reusing an existing one with the fewest schema changes when the schema
+     * is migrated, executing the CQL statements other than INSERT, UPDATE, DELETE and BATCH
+     */
+    SCHEMA,
+    /**
+     * writing the data
+     */
+    DATA
+}
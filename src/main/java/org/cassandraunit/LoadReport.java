@@ -0,0 +1,200 @@
+package org.cassandraunit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics of the loading of a dataset by the {@link DataLoader} or the {@link CQLDataLoader} : the time spent in each
+ * {@link LoadPhase}, what was written into each column family and the latencies of the requests sent to Cassandra.
+ * The loads are also summed up over JMX by the {@link LoadStatistics}.
+ * <p/>
+ * The time of a phase is summed over the loading threads, the phases of a concurrent load may last longer than the
+ * load itself.
+ */
+public class LoadReport {
+
+    public enum Outcome {
+        /**
+         * the keyspace was created and the data written
+         */
+        LOADED,
+        /**
+         * the keyspace was restored from the snapshot of the loading option
+         */
+        RESTORED_FROM_SNAPSHOT,
+        /**
+         * the keyspace was already loaded read only from the same dataset
+         */
+        ALREADY_LOADED
+    }
+
+    private final String keyspaceName;
+    private final long startInNanos;
+    private volatile long durationInNanos = -1;
+    private volatile Outcome outcome;
+
+    private final AtomicLongArray phaseTimesInNanos = new AtomicLongArray(LoadPhase.values().length);
+    private final Map<String, ColumnFamilyLoadReport> columnFamilies =
+            new LinkedHashMap<String, ColumnFamilyLoadReport>();
+    private final AtomicLong batches = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * @param startInNanos {@link System#nanoTime()} when the load started
+     */
+    LoadReport(String keyspaceName, long startInNanos) {
+        this.keyspaceName = keyspaceName;
+        this.startInNanos = startInNanos;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} at the end of the phase, the start of the next one
+     */
+    long endPhase(LoadPhase phase, long phaseStartInNanos) {
+        long now = System.nanoTime();
+        addPhaseTime(phase, now - phaseStartInNanos);
+        return now;
+    }
+
+    void addPhaseTime(LoadPhase phase, long timeInNanos) {
+        phaseTimesInNanos.addAndGet(phase.ordinal(), timeInNanos);
+    }
+
+    synchronized ColumnFamilyLoadReport getOrCreateColumnFamilyReport(String columnFamilyName) {
+        ColumnFamilyLoadReport columnFamilyReport = columnFamilies.get(columnFamilyName);
+        if (columnFamilyReport == null) {
+            columnFamilyReport = new ColumnFamilyLoadReport(columnFamilyName);
+            columnFamilies.put(columnFamilyName, columnFamilyReport);
+        }
+        return columnFamilyReport;
+    }
+
+    /**
+     * @param columnFamilyReport column family written by the request, null if unknown
+     * @param batch              whether the request is a batch of mutations or a BATCH statement
+     */
+    void addRequest(ColumnFamilyLoadReport columnFamilyReport, long sizeInBytes, long latencyInNanos, boolean batch) {
+        if (columnFamilyReport != null) {
+            columnFamilyReport.addRequest(sizeInBytes, latencyInNanos);
+        }
+        if (batch) {
+            batches.incrementAndGet();
+        }
+        latencies.record(latencyInNanos);
+    }
+
+    /**
+     * ends the load and records it in the {@link LoadStatistics}
+     *
+     * @return this report
+     */
+    LoadReport finish(Outcome loadOutcome) {
+        durationInNanos = System.nanoTime() - startInNanos;
+        outcome = loadOutcome;
+        LoadStatistics.get().record(this);
+        return this;
+    }
+
+    public String getKeyspaceName() {
+        return keyspaceName;
+    }
+
+    /**
+     * @return how the load ended, null while it is not ended
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return the wall clock time of the load, -1 while it is not ended
+     */
+    public long getDurationInMs() {
+        return durationInNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(durationInNanos);
+    }
+
+    public long getPhaseTimeInMs(LoadPhase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseTimesInNanos.get(phase.ordinal()));
+    }
+
+    /**
+     * @return the column families written, in the order of the load
+     */
+    public synchronized List<ColumnFamilyLoadReport> getColumnFamilyReports() {
+        return new ArrayList<ColumnFamilyLoadReport>(columnFamilies.values());
+    }
+
+    /**
+     * @return the report of the column family, null if nothing was written into it
+     */
+    public synchronized ColumnFamilyLoadReport getColumnFamilyReport(String columnFamilyName) {
+        return columnFamilies.get(columnFamilyName);
+    }
+
+    public long getRows() {
+        long rows = 0;
+        for (ColumnFamilyLoadReport columnFamilyReport : getColumnFamilyReports()) {
+            rows += columnFamilyReport.getRows();
+        }
+        return rows;
+    }
+
+    public long getColumns() {
+        long columns = 0;
+        for (ColumnFamilyLoadReport columnFamilyReport : getColumnFamilyReports()) {
+            columns += columnFamilyReport.getColumns();
+        }
+        return columns;
+    }
+
+    public long getBytes() {
+        long bytes = 0;
+        for (ColumnFamilyLoadReport columnFamilyReport : getColumnFamilyReports()) {
+            bytes += columnFamilyReport.getBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of batch_mutate calls, or of CQL statements, the schema statements included
+     */
+    public long getRequests() {
+        return latencies.getCount();
+    }
+
+    /**
+     * @return the number of batch_mutate calls, or of CQL BATCH statements
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * @return the latencies of all the requests
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("keyspace ").append(keyspaceName).append(" ")
+                .append(outcome == null ? "loading" : outcome.name().toLowerCase().replace('_', ' '))
+                .append(" in ").append(getDurationInMs()).append(" ms (");
+        for (LoadPhase phase : LoadPhase.values()) {
+            report.append(phase == LoadPhase.PARSE ? "" : ", ").append(phase.name().toLowerCase()).append(" ")
+                    .append(getPhaseTimeInMs(phase)).append(" ms");
+        }
+        report.append(") : ").append(getRows()).append(" rows, ").append(getColumns()).append(" columns, ")
+                .append(getBytes()).append(" bytes, ").append(getBatches()).append(" batches, ").append(latencies);
+        for (ColumnFamilyLoadReport columnFamilyReport : getColumnFamilyReports()) {
+            report.append("\n  ").append(columnFamilyReport);
+        }
+        return report.toString();
+    }
+}
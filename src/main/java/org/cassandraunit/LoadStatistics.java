@@ -0,0 +1,104 @@
+package org.cassandraunit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sums up the {@link LoadReport} of every load of the JVM, to find the slowest datasets of a test suite. Registered
+ * over JMX when first used.
+ */
+public class LoadStatistics implements LoadStatisticsMBean {
+
+    public static final String OBJECT_NAME = "org.cassandraunit:type=LoadStatistics";
+
+    private static final Logger log = LoggerFactory.getLogger(LoadStatistics.class);
+
+    private static final int SLOWEST_LOADS = 10;
+
+    private static final LoadStatistics instance = register(new LoadStatistics());
+
+    private long loadCount = 0;
+    private long totalLoadTimeInMs = 0;
+    private LoadReport lastLoad = null;
+    /* the slowest first */
+    private final List<LoadReport> slowestLoads = new ArrayList<LoadReport>();
+
+    private LoadStatistics() {
+    }
+
+    public static LoadStatistics get() {
+        return instance;
+    }
+
+    private static LoadStatistics register(LoadStatistics loadStatistics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(loadStatistics, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            /* already registered by another class loader */
+            log.warn("load statistics not registered over JMX : {}", e.getMessage());
+        }
+        return loadStatistics;
+    }
+
+    synchronized void record(LoadReport loadReport) {
+        loadCount++;
+        totalLoadTimeInMs += loadReport.getDurationInMs();
+        lastLoad = loadReport;
+
+        int index = slowestLoads.size();
+        while (index > 0 && slowestLoads.get(index - 1).getDurationInMs() < loadReport.getDurationInMs()) {
+            index--;
+        }
+        if (index < SLOWEST_LOADS) {
+            slowestLoads.add(index, loadReport);
+            if (slowestLoads.size() > SLOWEST_LOADS) {
+                slowestLoads.remove(SLOWEST_LOADS);
+            }
+        }
+    }
+
+    @Override
+    public synchronized long getLoadCount() {
+        return loadCount;
+    }
+
+    @Override
+    public synchronized long getTotalLoadTimeInMs() {
+        return totalLoadTimeInMs;
+    }
+
+    @Override
+    public synchronized String getLastLoad() {
+        return lastLoad == null ? null : lastLoad.toString();
+    }
+
+    @Override
+    public synchronized String[] getSlowestLoads() {
+        String[] loads = new String[slowestLoads.size()];
+        for (int i = 0; i < loads.length; i++) {
+            loads[i] = slowestLoads.get(i).toString();
+        }
+        return loads;
+    }
+
+    /**
+     * @return the reports of the slowest loads, the slowest first
+     */
+    public synchronized List<LoadReport> getSlowestLoadReports() {
+        return new ArrayList<LoadReport>(slowestLoads);
+    }
+
+    @Override
+    public synchronized void reset() {
+        loadCount = 0;
+        totalLoadTimeInMs = 0;
+        lastLoad = null;
+        slowestLoads.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package org.cassandraunit;
+
+/**
+ * JMX view of the loads of the datasets, registered as {@value LoadStatistics#OBJECT_NAME}
+ */
+public interface LoadStatisticsMBean {
+
+    long getLoadCount();
+
+    long getTotalLoadTimeInMs();
+
+    /**
+     * @return the report of the last load
+     */
+    String getLastLoad();
+
+    /**
+     * @return the reports of the slowest loads, the slowest first
+     */
+    String[] getSlowestLoads();
+
+    void reset();
+}
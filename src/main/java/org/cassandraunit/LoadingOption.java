@@ -12,6 +12,18 @@ public class LoadingOption {
     private boolean overrideStrategy = false;
     private StrategyModel strategy = null;
 
+    private int maxMutationsPerBatch = 0;
+    private long maxBatchSizeInBytes = 0;
+
+    private int threadCount = 1;
+    private int rowsPerTask = 0;
+
+    private String snapshotName = null;
+
+    private boolean readOnly = false;
+
+    private boolean migrateSchema = false;
+
     public boolean isOnlySchema() {
         return onlySchema;
     }
@@ -49,4 +61,120 @@ public class LoadingOption {
     public boolean isOverrideStrategy() {
         return overrideStrategy;
     }
+
+    public int getMaxMutationsPerBatch() {
+        return maxMutationsPerBatch;
+    }
+
+    /**
+     * execute the pending mutations of a column family each time this number of mutations is reached
+     *
+     * @param maxMutationsPerBatch number of mutations per batch, 0 means all the mutations of a column family are
+     *                             sent in one batch
+     */
+    public void setMaxMutationsPerBatch(int maxMutationsPerBatch) {
+        if (maxMutationsPerBatch < 0) {
+            throw new IllegalArgumentException("Max mutations per batch must be greater than or equal to 0");
+        }
+        this.maxMutationsPerBatch = maxMutationsPerBatch;
+    }
+
+    public long getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    /**
+     * execute the pending mutations of a column family each time their estimated serialized size reaches this
+     * value. Keep it under thrift_framed_transport_size_in_mb of the target cluster.
+     *
+     * @param maxBatchSizeInBytes estimated size of a batch in bytes, 0 means no size limit
+     */
+    public void setMaxBatchSizeInBytes(long maxBatchSizeInBytes) {
+        if (maxBatchSizeInBytes < 0) {
+            throw new IllegalArgumentException("Max batch size must be greater than or equal to 0");
+        }
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * load the column families (and the row ranges of the big ones, see {@link #setRowsPerTask(int)}) concurrently
+     * with this number of threads. The loading stops at the first error.
+     *
+     * @param threadCount number of loading threads, 1 means the data are loaded sequentially by the calling thread
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be greater than 0");
+        }
+        this.threadCount = threadCount;
+    }
+
+    public int getRowsPerTask() {
+        return rowsPerTask;
+    }
+
+    /**
+     * when the data are loaded concurrently, split the rows of a column family into ranges of this size, each range
+     * being loaded by its own task. The lazy rows of a streaming dataset are read range by range, only a few ranges
+     * per thread being read ahead of the loading.
+     *
+     * @param rowsPerTask number of rows loaded by a task, 0 means a column family is loaded by a single task
+     */
+    public void setRowsPerTask(int rowsPerTask) {
+        if (rowsPerTask < 0) {
+            throw new IllegalArgumentException("Rows per task must be greater than or equal to 0");
+        }
+        this.rowsPerTask = rowsPerTask;
+    }
+
+    public String getSnapshotName() {
+        return snapshotName;
+    }
+
+    /**
+     * reset the keyspace from a snapshot instead of creating it and loading its rows again. The first load takes a
+     * snapshot of the loaded keyspace under this name, the next loads with the same name only truncate the column
+     * families and import the SSTables of the snapshot. Only available with the embedded Cassandra, the tests must
+     * not change the schema of the keyspace.
+     *
+     * @param snapshotName name of the snapshot, null means the rows are loaded every time, into a keyspace dropped
+     *                     first or reused with the fewest schema changes, see {@link #setMigrateSchema}
+     */
+    public void setSnapshotName(String snapshotName) {
+        this.snapshotName = snapshotName;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * declare that the tests do not write to the keyspace : the fingerprint of the loaded dataset is recorded, and
+     * the next loads of a dataset with the same fingerprint keep the keyspace as is instead of reloading it. A load
+     * which is not read only always reloads the keyspace.
+     *
+     * @param readOnly true to skip the reload of an unchanged dataset
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public boolean isMigrateSchema() {
+        return migrateSchema;
+    }
+
+    /**
+     * keep the keyspace of the dataset when it already exists instead of dropping it : its column families are
+     * truncated, the ones whose definition changed are updated, or dropped and added again when their types changed,
+     * and the column families the dataset does not define any more are dropped.
+     *
+     * @param migrateSchema true to keep the existing schema, false means the keyspace is dropped every time
+     */
+    public void setMigrateSchema(boolean migrateSchema) {
+        this.migrateSchema = migrateSchema;
+    }
 }
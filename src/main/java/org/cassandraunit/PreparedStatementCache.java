@@ -0,0 +1,173 @@
+package org.cassandraunit;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Query;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded LRU cache of the statements prepared for the INSERT shapes of a CQL dataset. A shape is prepared the
+ * second time it is seen, then the following INSERTs of this shape are sent as bound statements so that the server
+ * does not parse them again.
+ */
+class PreparedStatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    private final Session session;
+    private final Map<String, Shape> shapes;
+
+    PreparedStatementCache(Session session, final int maxSize) {
+        this.session = session;
+        this.shapes = new LinkedHashMap<String, Shape>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Shape> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param statement CQL statement
+     * @return a bound statement when the statement matches a prepared shape, the statement as is otherwise
+     */
+    Query toQuery(String statement) {
+        CQLStatementTemplate statementTemplate = CQLStatementTemplate.parse(statement);
+        if (statementTemplate == null) {
+            return new SimpleStatement(statement);
+        }
+
+        Shape shape = shapes.get(statementTemplate.getTemplate());
+        if (shape == null) {
+            shapes.put(statementTemplate.getTemplate(), new Shape());
+            return new SimpleStatement(statement);
+        }
+
+        if (shape.preparedStatement == null && !shape.unpreparable) {
+            try {
+                log.debug("preparing : " + statementTemplate.getTemplate());
+                shape.preparedStatement = session.prepare(statementTemplate.getTemplate());
+            } catch (RuntimeException e) {
+                /* the raw statement will report the error if there is one */
+                log.debug("cannot prepare : " + statementTemplate.getTemplate(), e);
+                shape.unpreparable = true;
+            }
+        }
+        if (shape.preparedStatement == null) {
+            return new SimpleStatement(statement);
+        }
+
+        Object[] values = toValues(statementTemplate.getLiterals(), shape.preparedStatement.getVariables());
+        if (values == null) {
+            return new SimpleStatement(statement);
+        }
+        return shape.preparedStatement.bind(values);
+    }
+
+    /**
+     * forget the prepared statements, the schema or the current keyspace may have changed
+     */
+    void clear() {
+        shapes.clear();
+    }
+
+    private Object[] toValues(List<String> literals, ColumnDefinitions variables) {
+        if (literals.size() != variables.size()) {
+            return null;
+        }
+        Object[] values = new Object[literals.size()];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = toValue(literals.get(i), variables.getType(i));
+                if (values[i] == null) {
+                    return null;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            /* NumberFormatException included */
+            return null;
+        }
+        return values;
+    }
+
+    /**
+     * @return the java value of the literal for this type, null if the literal can't be bound to this type
+     */
+    private Object toValue(String literal, DataType type) {
+        boolean quoted = literal.charAt(0) == '\'';
+        if (quoted) {
+            switch (type.getName()) {
+                case ASCII:
+                case TEXT:
+                case VARCHAR:
+                    return literal.substring(1, literal.length() - 1).replace("''", "'");
+                case BLOB:
+                    /* hexadecimal string, the only blob constant before Cassandra 1.2.2 */
+                    return toBytes(literal.substring(1, literal.length() - 1));
+                default:
+                    return null;
+            }
+        }
+
+        switch (type.getName()) {
+            case BIGINT:
+            case COUNTER:
+                return Long.valueOf(literal);
+            case INT:
+                return Integer.valueOf(literal);
+            case VARINT:
+                return new BigInteger(literal);
+            case DECIMAL:
+                return new BigDecimal(literal);
+            case DOUBLE:
+                return Double.valueOf(literal);
+            case FLOAT:
+                return Float.valueOf(literal);
+            case TIMESTAMP:
+                return new Date(Long.parseLong(literal));
+            case UUID:
+            case TIMEUUID:
+                return UUID.fromString(literal);
+            case BOOLEAN:
+                if ("true".equalsIgnoreCase(literal) || "false".equalsIgnoreCase(literal)) {
+                    return Boolean.valueOf(literal);
+                }
+                return null;
+            case BLOB:
+                if (literal.length() < 2 || !literal.regionMatches(true, 0, "0x", 0, 2)) {
+                    return null;
+                }
+                return toBytes(literal.substring(2));
+            default:
+                return null;
+        }
+    }
+
+    private ByteBuffer toBytes(String hexadecimal) {
+        try {
+            return ByteBuffer.wrap(Hex.decodeHex(hexadecimal.toCharArray()));
+        } catch (DecoderException e) {
+            return null;
+        }
+    }
+
+    private static class Shape {
+        private PreparedStatement preparedStatement = null;
+        private boolean unpreparable = false;
+    }
+}
@@ -0,0 +1,287 @@
+package org.cassandraunit;
+
+import me.prettyprint.hector.api.Cluster;
+import me.prettyprint.hector.api.ddl.ColumnDefinition;
+import me.prettyprint.hector.api.ddl.ColumnFamilyDefinition;
+import me.prettyprint.hector.api.ddl.ColumnType;
+import me.prettyprint.hector.api.ddl.ComparatorType;
+import me.prettyprint.hector.api.ddl.KeyspaceDefinition;
+import me.prettyprint.hector.api.factory.HFactory;
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.CompactionStrategyOptionModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Brings an existing keyspace to the keyspace definition of a dataset with the fewest schema changes : the missing
+ * column families are added, the changed ones altered, or dropped and added again when their types changed, and
+ * the ones which are not in the dataset are dropped. Only the last schema change waits for the schema agreement.
+ * The data of the column families which are kept is truncated.
+ */
+class SchemaPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaPlanner.class);
+
+    private static final String MARSHAL_PACKAGE = "org.apache.cassandra.db.marshal.";
+    /* the datasets write UTF8Type(reversed=true) where Cassandra answers ReversedType(UTF8Type) */
+    private static final Pattern REVERSED_TYPE = Pattern.compile("(\\w+)\\(reversed=true\\)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Cluster cluster;
+
+    private final List<SchemaChange> schemaChanges = new ArrayList<SchemaChange>();
+    private final List<String> columnFamiliesToTruncate = new ArrayList<String>();
+
+    SchemaPlanner(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    /**
+     * @param columnFamilies   the column families of the dataset, in the order of their definitions
+     * @param wantedKeyspace   the definition of the keyspace of the dataset
+     * @param existingKeyspace the definition of the keyspace as it is, null if it does not exist
+     */
+    void apply(List<ColumnFamilyModel> columnFamilies, KeyspaceDefinition wantedKeyspace,
+               KeyspaceDefinition existingKeyspace) {
+        if (existingKeyspace == null) {
+            log.debug("keyspace {} does not exist", wantedKeyspace.getName());
+            cluster.addKeyspace(wantedKeyspace, true);
+            return;
+        }
+
+        plan(columnFamilies, wantedKeyspace, existingKeyspace);
+        log.debug("keyspace {} : {} schema changes, {} column families to truncate", new Object[]{
+                wantedKeyspace.getName(), schemaChanges.size(), columnFamiliesToTruncate.size()});
+        for (int i = 0; i < schemaChanges.size(); i++) {
+            SchemaChange schemaChange = schemaChanges.get(i);
+            log.debug("{}", schemaChange);
+            schemaChange.apply(i == schemaChanges.size() - 1);
+        }
+        for (String columnFamilyName : columnFamiliesToTruncate) {
+            cluster.truncate(wantedKeyspace.getName(), columnFamilyName);
+        }
+    }
+
+    private void plan(List<ColumnFamilyModel> columnFamilies, final KeyspaceDefinition wantedKeyspace,
+                      KeyspaceDefinition existingKeyspace) {
+        final String keyspaceName = wantedKeyspace.getName();
+        if (!StringUtils.substringAfterLast(wantedKeyspace.getStrategyClass(), ".").equals(
+                StringUtils.substringAfterLast(existingKeyspace.getStrategyClass(), "."))
+                || wantedKeyspace.getReplicationFactor() != existingKeyspace.getReplicationFactor()) {
+            schemaChanges.add(new SchemaChange("update keyspace " + keyspaceName) {
+                @Override
+                void apply(boolean waitForSchemaAgreement) {
+                    /* a keyspace is updated without its column families */
+                    cluster.updateKeyspace(HFactory.createKeyspaceDefinition(keyspaceName,
+                            wantedKeyspace.getStrategyClass(), wantedKeyspace.getReplicationFactor(),
+                            new ArrayList<ColumnFamilyDefinition>()), waitForSchemaAgreement);
+                }
+            });
+        }
+
+        Map<String, ColumnFamilyDefinition> existingColumnFamilies = new HashMap<String, ColumnFamilyDefinition>();
+        for (ColumnFamilyDefinition existingColumnFamily : existingKeyspace.getCfDefs()) {
+            existingColumnFamilies.put(existingColumnFamily.getName(), existingColumnFamily);
+        }
+
+        for (int i = 0; i < columnFamilies.size(); i++) {
+            ColumnFamilyModel columnFamily = columnFamilies.get(i);
+            final ColumnFamilyDefinition wantedColumnFamily = wantedKeyspace.getCfDefs().get(i);
+            final ColumnFamilyDefinition existingColumnFamily = existingColumnFamilies.remove(
+                    wantedColumnFamily.getName());
+            if (existingColumnFamily == null) {
+                addColumnFamily(wantedColumnFamily);
+            } else if (!haveSameTypes(columnFamily, wantedColumnFamily, existingColumnFamily)) {
+                dropColumnFamily(keyspaceName, existingColumnFamily.getName());
+                addColumnFamily(wantedColumnFamily);
+            } else {
+                if (!haveSameOptions(columnFamily, wantedColumnFamily, existingColumnFamily)) {
+                    schemaChanges.add(new SchemaChange("update column family " + wantedColumnFamily.getName()) {
+                        @Override
+                        void apply(boolean waitForSchemaAgreement) {
+                            wantedColumnFamily.setId(existingColumnFamily.getId());
+                            cluster.updateColumnFamily(wantedColumnFamily, waitForSchemaAgreement);
+                        }
+                    });
+                }
+                columnFamiliesToTruncate.add(wantedColumnFamily.getName());
+            }
+        }
+
+        for (String columnFamilyName : existingColumnFamilies.keySet()) {
+            dropColumnFamily(keyspaceName, columnFamilyName);
+        }
+    }
+
+    private void addColumnFamily(final ColumnFamilyDefinition columnFamily) {
+        schemaChanges.add(new SchemaChange("add column family " + columnFamily.getName()) {
+            @Override
+            void apply(boolean waitForSchemaAgreement) {
+                cluster.addColumnFamily(columnFamily, waitForSchemaAgreement);
+            }
+        });
+    }
+
+    private void dropColumnFamily(final String keyspaceName, final String columnFamilyName) {
+        schemaChanges.add(new SchemaChange("drop column family " + columnFamilyName) {
+            @Override
+            void apply(boolean waitForSchemaAgreement) {
+                cluster.dropColumnFamily(keyspaceName, columnFamilyName, waitForSchemaAgreement);
+            }
+        });
+    }
+
+    /**
+     * @return whether the types, which can not be altered, are the same
+     */
+    private boolean haveSameTypes(ColumnFamilyModel columnFamily, ColumnFamilyDefinition wantedColumnFamily,
+                                  ColumnFamilyDefinition existingColumnFamily) {
+        ColumnType existingColumnType = existingColumnFamily.getColumnType() == null ? ColumnType.STANDARD
+                : existingColumnFamily.getColumnType();
+        if (columnFamily.getType() != existingColumnType) {
+            return false;
+        }
+
+        /* a column family can not be altered from or to a counter column family */
+        if (isCounter(wantedColumnFamily.getDefaultValidationClass())
+                != isCounter(existingColumnFamily.getDefaultValidationClass())) {
+            return false;
+        }
+
+        String comparatorType = columnFamily.getComparatorType().getClassName();
+        if (ComparatorType.COMPOSITETYPE.equals(columnFamily.getComparatorType())
+                || StringUtils.containsIgnoreCase(columnFamily.getComparatorTypeAlias(),
+                ColumnFamilyModel.REVERSED_QUALIFIER)) {
+            comparatorType += columnFamily.getComparatorTypeAlias();
+        }
+        if (existingColumnFamily.getComparatorType() == null) {
+            return false;
+        }
+        String existingComparatorType = existingColumnFamily.getComparatorType().getClassName();
+        /* the alias may be kept in the class name of the comparator, or apart */
+        if (!existingComparatorType.contains("(")) {
+            existingComparatorType += StringUtils.defaultString(existingColumnFamily.getComparatorTypeAlias());
+        }
+        if (!normalizeType(comparatorType).equals(normalizeType(existingComparatorType))) {
+            return false;
+        }
+
+        if (columnFamily.getType() == ColumnType.SUPER && columnFamily.getSubComparatorType() != null
+                && (existingColumnFamily.getSubComparatorType() == null
+                || !normalizeType(columnFamily.getSubComparatorType().getClassName()).equals(
+                normalizeType(existingColumnFamily.getSubComparatorType().getClassName())))) {
+            return false;
+        }
+
+        return normalizeType(columnFamily.getKeyType().getTypeName() + columnFamily.getKeyTypeAlias()).equals(
+                normalizeType(existingColumnFamily.getKeyValidationClass()));
+    }
+
+    private static boolean isCounter(String defaultValidationClass) {
+        return normalizeType(defaultValidationClass).equals(
+                normalizeType(ComparatorType.COUNTERTYPE.getClassName()));
+    }
+
+    /**
+     * @return whether the options set by the dataset are the same, the options it does not set are left as they are
+     */
+    private boolean haveSameOptions(ColumnFamilyModel columnFamily, ColumnFamilyDefinition wantedColumnFamily,
+                                    ColumnFamilyDefinition existingColumnFamily) {
+        if (!StringUtils.defaultString(wantedColumnFamily.getComment()).equals(
+                StringUtils.defaultString(existingColumnFamily.getComment()))) {
+            return false;
+        }
+        if (columnFamily.getDefaultColumnValueType() != null && !normalizeType(
+                wantedColumnFamily.getDefaultValidationClass()).equals(
+                normalizeType(existingColumnFamily.getDefaultValidationClass()))) {
+            return false;
+        }
+        if (columnFamily.getCompactionStrategy() != null && !StringUtils.substringAfterLast(
+                "." + wantedColumnFamily.getCompactionStrategy(), ".").equals(
+                StringUtils.substringAfterLast("." + existingColumnFamily.getCompactionStrategy(), "."))) {
+            return false;
+        }
+        if (columnFamily.getCompactionStrategyOptions() != null) {
+            Map<String, String> existingOptions = existingColumnFamily.getCompactionStrategyOptions();
+            for (CompactionStrategyOptionModel option : columnFamily.getCompactionStrategyOptions()) {
+                if (existingOptions == null || !option.getValue().equals(existingOptions.get(option.getName()))) {
+                    return false;
+                }
+            }
+        }
+        if ((columnFamily.getGcGraceSeconds() != null
+                && columnFamily.getGcGraceSeconds() != existingColumnFamily.getGcGraceSeconds())
+                || (columnFamily.getMaxCompactionThreshold() != null
+                && columnFamily.getMaxCompactionThreshold() != existingColumnFamily.getMaxCompactionThreshold())
+                || (columnFamily.getMinCompactionThreshold() != null
+                && columnFamily.getMinCompactionThreshold() != existingColumnFamily.getMinCompactionThreshold())
+                || (columnFamily.getReadRepairChance() != null
+                && columnFamily.getReadRepairChance() != existingColumnFamily.getReadRepairChance())
+                || (columnFamily.getReplicationOnWrite() != null
+                && columnFamily.getReplicationOnWrite() != existingColumnFamily.isReplicateOnWrite())) {
+            return false;
+        }
+        return haveSameColumns(wantedColumnFamily.getColumnMetadata(), existingColumnFamily.getColumnMetadata());
+    }
+
+    private boolean haveSameColumns(List<ColumnDefinition> wantedColumns, List<ColumnDefinition> existingColumns) {
+        if (existingColumns == null) {
+            existingColumns = new ArrayList<ColumnDefinition>();
+        }
+        if (wantedColumns.size() != existingColumns.size()) {
+            return false;
+        }
+        Map<ByteBuffer, ColumnDefinition> existingColumnsByName = new HashMap<ByteBuffer, ColumnDefinition>();
+        for (ColumnDefinition existingColumn : existingColumns) {
+            existingColumnsByName.put(existingColumn.getName(), existingColumn);
+        }
+        for (ColumnDefinition wantedColumn : wantedColumns) {
+            ColumnDefinition existingColumn = existingColumnsByName.get(wantedColumn.getName());
+            if (existingColumn == null
+                    || !normalizeType(wantedColumn.getValidationClass()).equals(
+                    normalizeType(existingColumn.getValidationClass()))
+                    || !ObjectUtils.equals(wantedColumn.getIndexType(), existingColumn.getIndexType())
+                    || (wantedColumn.getIndexType() != null
+                    && !ObjectUtils.equals(wantedColumn.getIndexName(), existingColumn.getIndexName()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the type without the package of the Cassandra types, its reversed components written as ReversedType
+     */
+    static String normalizeType(String type) {
+        if (type == null) {
+            return "";
+        }
+        String normalizedType = StringUtils.deleteWhitespace(StringUtils.remove(type, MARSHAL_PACKAGE));
+        return REVERSED_TYPE.matcher(normalizedType).replaceAll("ReversedType($1)");
+    }
+
+    private abstract static class SchemaChange {
+
+        private final String description;
+
+        SchemaChange(String description) {
+            this.description = description;
+        }
+
+        abstract void apply(boolean waitForSchemaAgreement);
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.cassandraunit.cli;
+
+import org.apache.commons.cli.*;
+import org.apache.commons.lang.StringUtils;
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.DataSetFileExtensionEnum;
+import org.cassandraunit.dataset.binary.BinaryDataSetWriter;
+import org.cassandraunit.dataset.json.FileStreamingJsonDataSet;
+import org.cassandraunit.dataset.xml.FileStreamingXmlDataSet;
+import org.cassandraunit.dataset.yaml.FileStreamingYamlDataSet;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts a xml, json or yaml dataset into a binary dataset (.bin), whose values are typed and serialized once by
+ * the conversion instead of at each loading. The dataset is read in streaming, it can be bigger than the heap.
+ */
+public class CassandraUnitDataSetConverter {
+
+    private static CommandLineParser commandLineParser = null;
+
+    private static Options options = null;
+
+    private static CommandLine commandLine = null;
+
+    private static boolean usageBeenPrinted = false;
+
+    public static void main(String[] args) {
+        boolean exit = parseCommandLine(args);
+        if (exit) {
+            System.exit(1);
+        } else {
+            convert();
+        }
+    }
+
+    protected static boolean parseCommandLine(String[] args) {
+        clearStaticAttributes();
+        initOptions();
+        commandLineParser = new PosixParser();
+        boolean exit = false;
+        try {
+            commandLine = commandLineParser.parse(options, args);
+            if (commandLine.getOptions().length == 0) {
+                exit = true;
+                printUsage();
+            } else if (getDataSetExtension(commandLine.getOptionValue("f")) == null) {
+                printUsage("Bad argument value for option f, the dataset must be a .xml, .json or .yaml file");
+                exit = true;
+            }
+        } catch (ParseException e) {
+            printUsage(e.getMessage());
+            exit = true;
+        }
+        return exit;
+    }
+
+    protected static void convert() {
+        String file = commandLine.getOptionValue("f");
+        String output = commandLine.getOptionValue("o");
+        if (output == null) {
+            output = StringUtils.substringBeforeLast(file, ".") + "." + DataSetFileExtensionEnum.bin;
+        }
+
+        System.out.println("Start converting " + file + " to " + output + "...");
+        try {
+            new BinaryDataSetWriter().write(createDataSet(file), new File(output));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write " + output, e);
+        }
+        System.out.println("Conversion completed");
+    }
+
+    private static DataSet createDataSet(String file) {
+        switch (getDataSetExtension(file)) {
+            case xml:
+                return new FileStreamingXmlDataSet(file);
+            case json:
+                return new FileStreamingJsonDataSet(file);
+            case yaml:
+                return new FileStreamingYamlDataSet(file);
+            default:
+                throw new IllegalArgumentException("Unsupported dataset " + file);
+        }
+    }
+
+    private static DataSetFileExtensionEnum getDataSetExtension(String file) {
+        String extension = StringUtils.substringAfterLast(file, ".");
+        for (DataSetFileExtensionEnum dataSetExtension : DataSetFileExtensionEnum.values()) {
+            if (dataSetExtension.name().equals(extension) && dataSetExtension != DataSetFileExtensionEnum.bin) {
+                return dataSetExtension;
+            }
+        }
+        return null;
+    }
+
+    private static void printUsage(String message) {
+        System.out.println(message);
+        printUsage();
+    }
+
+    private static void initOptions() {
+        options = new Options();
+        options.addOption(OptionBuilder.withLongOpt("file").hasArg().withDescription("dataset to convert (required)")
+                .isRequired().create("f"));
+        options.addOption(OptionBuilder.withLongOpt("output").hasArg()
+                .withDescription("binary dataset to write (optional, the dataset with a .bin extension by default)")
+                .create("o"));
+    }
+
+    private static void clearStaticAttributes() {
+        commandLine = null;
+        commandLineParser = null;
+        options = null;
+        usageBeenPrinted = false;
+    }
+
+    private static void printUsage() {
+        usageBeenPrinted = true;
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.setWidth(100);
+        formatter.printHelp("CassandraUnitDataSetConverter is a tool to convert CassandraUnit data Set into binary data Set",
+                options);
+    }
+
+    protected static CommandLine getCommandLine() {
+        return commandLine;
+    }
+
+    protected static boolean isUsageBeenPrinted() {
+        return usageBeenPrinted;
+    }
+}
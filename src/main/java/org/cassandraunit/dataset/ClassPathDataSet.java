@@ -1,6 +1,7 @@
 package org.cassandraunit.dataset;
 
 import org.apache.commons.lang.StringUtils;
+import org.cassandraunit.dataset.binary.ClassPathBinaryDataSet;
 import org.cassandraunit.dataset.json.ClassPathJsonDataSet;
 import org.cassandraunit.dataset.xml.ClassPathXmlDataSet;
 import org.cassandraunit.dataset.yaml.ClassPathYamlDataSet;
@@ -25,15 +26,18 @@ public class ClassPathDataSet implements DataSet {
             case yaml:
                 dataSet = new ClassPathYamlDataSet(dataSetLocation);
                 break;
+            case bin:
+                dataSet = new ClassPathBinaryDataSet(dataSetLocation);
+                break;
             default:
-                throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml");
+                throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml, .bin");
         }
     }
 
     private DataSetFileExtensionEnum getDataSetExtension(String dataSetLocation) {
         String extension = StringUtils.substringAfterLast(dataSetLocation, ".");
         if (extension == null || extension.isEmpty()) {
-            throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml");
+            throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml, .bin");
         }
         return DataSetFileExtensionEnum.valueOf(extension);
     }
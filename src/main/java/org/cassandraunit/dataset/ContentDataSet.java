@@ -0,0 +1,17 @@
+package org.cassandraunit.dataset;
+
+import java.io.InputStream;
+
+/**
+ * A dataset read from a content which can be read again, as is : the content identifies what the dataset loads
+ * without parsing it.
+ */
+public interface ContentDataSet extends DataSet {
+
+    /**
+     * @return the content of the dataset, to be closed by the caller
+     * @throws ParseException if the dataset does not exist
+     */
+    InputStream openContent();
+
+}
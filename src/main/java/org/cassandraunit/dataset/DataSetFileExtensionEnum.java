@@ -1,6 +1,6 @@
 package org.cassandraunit.dataset;
 
 public enum DataSetFileExtensionEnum {
-    xml, json, yaml
+    xml, json, yaml, bin
 
 }
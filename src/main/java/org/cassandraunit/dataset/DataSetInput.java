@@ -0,0 +1,63 @@
+package org.cassandraunit.dataset;
+
+import org.cassandraunit.model.KeyspaceModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input of a dataset read as a whole : the constructor of the dataset checks the dataset exists, each parsing opens
+ * the dataset again and closes it.
+ */
+public final class DataSetInput {
+
+    /**
+     * opens the dataset, the abstract getInputDataSetLocation of the datasets
+     */
+    public interface Opener {
+        /**
+         * @return the dataset, null if it does not exist
+         */
+        InputStream open(String dataSetLocation);
+    }
+
+    private final String dataSetLocation;
+    private final Opener opener;
+
+    /**
+     * @throws ParseException if the dataset does not exist
+     */
+    public DataSetInput(String dataSetLocation, Opener opener) {
+        this.dataSetLocation = dataSetLocation;
+        this.opener = opener;
+        closeQuietly(open());
+    }
+
+    /**
+     * @return the dataset, to be closed by the caller
+     * @throws ParseException if the dataset does not exist
+     */
+    public InputStream open() {
+        InputStream input = opener.open(dataSetLocation);
+        if (input == null) {
+            throw new ParseException("Dataset not found");
+        }
+        return input;
+    }
+
+    /**
+     * @param format format of the dataset and parsing options in the {@link KeyspaceModelCache}
+     * @return the keyspace, parsed once for all the datasets with the same content
+     */
+    public KeyspaceModel readKeyspace(String format, KeyspaceModelCache.Parser parser) {
+        return KeyspaceModelCache.getKeyspace(format, open(), parser);
+    }
+
+    private static void closeQuietly(InputStream input) {
+        try {
+            input.close();
+        } catch (IOException e) {
+            /* nothing more can be done */
+        }
+    }
+}
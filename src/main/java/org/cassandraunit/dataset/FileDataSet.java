@@ -1,6 +1,7 @@
 package org.cassandraunit.dataset;
 
 import org.apache.commons.lang.StringUtils;
+import org.cassandraunit.dataset.binary.FileBinaryDataSet;
 import org.cassandraunit.dataset.json.FileJsonDataSet;
 import org.cassandraunit.dataset.xml.FileXmlDataSet;
 import org.cassandraunit.dataset.yaml.FileYamlDataSet;
@@ -25,15 +26,18 @@ public class FileDataSet implements DataSet {
             case yaml:
                 dataSet = new FileYamlDataSet(dataSetLocation);
                 break;
+            case bin:
+                dataSet = new FileBinaryDataSet(dataSetLocation);
+                break;
             default:
-                throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml");
+                throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml, .bin");
         }
     }
 
     private DataSetFileExtensionEnum getDataSetExtension(String dataSetLocation) {
         String extension = StringUtils.substringAfterLast(dataSetLocation, ".");
         if (extension == null || extension.isEmpty()) {
-            throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml");
+            throw new ParseException("dataSet file extension must be one of .xml, .json, .yaml, .bin");
         }
         return DataSetFileExtensionEnum.valueOf(extension);
     }
@@ -0,0 +1,215 @@
+package org.cassandraunit.dataset;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.Weigher;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnMetadataModel;
+import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.CompactionStrategyOptionModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.SuperColumnModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process wide cache of the keyspaces parsed from the datasets, keyed by the format and the content hash of the
+ * dataset : a fixture shared by many test classes is parsed once. The least recently used keyspaces are evicted
+ * once the size of their datasets exceeds the capacity, set in bytes by the system property
+ * {@value #CAPACITY_PROPERTY} (32MB by default, 0 to disable the cache). The capacity bounds the size of the content
+ * of the datasets, not the memory of the parsed keyspaces, which is usually a few times bigger. Each caller gets its
+ * own copy of the keyspace, the generic types being immutable are shared.
+ */
+public final class KeyspaceModelCache {
+
+    public static final String CAPACITY_PROPERTY = "cassandraunit.dataset.cache.size";
+
+    private static final long DEFAULT_CAPACITY = 32 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final long capacity = Long.getLong(CAPACITY_PROPERTY, DEFAULT_CAPACITY);
+
+    private static final ConcurrentLinkedHashMap<String, Entry> keyspaces = new ConcurrentLinkedHashMap.Builder<String, Entry>()
+            .maximumWeightedCapacity((int) Math.min(capacity, Integer.MAX_VALUE)).weigher(new Weigher<Entry>() {
+                @Override
+                public int weightOf(Entry entry) {
+                    return entry.weight;
+                }
+            }).build();
+
+    private KeyspaceModelCache() {
+    }
+
+    /**
+     * parses a dataset into a keyspace, without side effect as its keyspace may come from the cache instead
+     */
+    public interface Parser {
+        KeyspaceModel parse(InputStream content);
+    }
+
+    /**
+     * @param format  format of the dataset and parsing options, the same content being parsed differently by each
+     * @param input   the dataset, read and closed
+     * @param parser  parser of the dataset when its keyspace is not in the cache
+     * @return the keyspace of the dataset, owned by the caller
+     */
+    public static KeyspaceModel getKeyspace(String format, InputStream input, Parser parser) {
+        byte[] content = read(input);
+        if (capacity <= 0) {
+            return parser.parse(new ByteArrayInputStream(content));
+        }
+
+        String key = format + ":" + content.length + ":" + hash(content);
+        Entry entry = keyspaces.get(key);
+        if (entry != null) {
+            return copy(entry.keyspace);
+        }
+        KeyspaceModel keyspace = parser.parse(new ByteArrayInputStream(content));
+        keyspaces.put(key, new Entry(copy(keyspace), Math.max(1, content.length)));
+        return keyspace;
+    }
+
+    public static void clear() {
+        keyspaces.clear();
+    }
+
+    public static int size() {
+        return keyspaces.size();
+    }
+
+    private static byte[] read(InputStream input) {
+        if (input == null) {
+            throw new ParseException("Dataset not found");
+        }
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                content.write(buffer, 0, length);
+            }
+            return content.toByteArray();
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } finally {
+            try {
+                input.close();
+            } catch (IOException e) {
+                /* nothing more can be done */
+            }
+        }
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static KeyspaceModel copy(KeyspaceModel keyspace) {
+        KeyspaceModel copy = new KeyspaceModel();
+        copy.setName(keyspace.getName());
+        copy.setReplicationFactor(keyspace.getReplicationFactor());
+        copy.setStrategy(keyspace.getStrategy());
+        List<ColumnFamilyModel> columnFamilies = new ArrayList<ColumnFamilyModel>(keyspace.getColumnFamilies().size());
+        for (ColumnFamilyModel columnFamily : keyspace.getColumnFamilies()) {
+            columnFamilies.add(copy(columnFamily));
+        }
+        copy.setColumnFamilies(columnFamilies);
+        return copy;
+    }
+
+    private static ColumnFamilyModel copy(ColumnFamilyModel columnFamily) {
+        ColumnFamilyModel copy = new ColumnFamilyModel();
+        copy.setName(columnFamily.getName());
+        copy.setType(columnFamily.getType());
+        copy.setKeyType(columnFamily.getKeyType());
+        copy.setKeyTypeAlias(columnFamily.getKeyTypeAlias());
+        copy.setComparatorType(columnFamily.getComparatorType());
+        copy.setComparatorTypeAlias(columnFamily.getComparatorTypeAlias());
+        copy.setSubComparatorType(columnFamily.getSubComparatorType());
+        copy.setDefaultColumnValueType(columnFamily.getDefaultColumnValueType());
+        copy.setComment(columnFamily.getComment());
+        copy.setCompactionStrategy(columnFamily.getCompactionStrategy());
+        if (columnFamily.getCompactionStrategyOptions() != null) {
+            List<CompactionStrategyOptionModel> compactionStrategyOptions = new ArrayList<CompactionStrategyOptionModel>();
+            for (CompactionStrategyOptionModel option : columnFamily.getCompactionStrategyOptions()) {
+                compactionStrategyOptions.add(new CompactionStrategyOptionModel(option.getName(), option.getValue()));
+            }
+            copy.setCompactionStrategyOptions(compactionStrategyOptions);
+        }
+        copy.setGcGraceSeconds(columnFamily.getGcGraceSeconds());
+        copy.setMaxCompactionThreshold(columnFamily.getMaxCompactionThreshold());
+        copy.setMinCompactionThreshold(columnFamily.getMinCompactionThreshold());
+        copy.setReadRepairChance(columnFamily.getReadRepairChance());
+        copy.setReplicationOnWrite(columnFamily.getReplicationOnWrite());
+
+        List<ColumnMetadataModel> columnsMetadata = new ArrayList<ColumnMetadataModel>();
+        for (ColumnMetadataModel columnMetadata : columnFamily.getColumnsMetadata()) {
+            columnsMetadata.add(new ColumnMetadataModel(columnMetadata.getColumnName(),
+                    columnMetadata.getValidationClass(), columnMetadata.getColumnIndexType(),
+                    columnMetadata.getIndexName()));
+        }
+        copy.setColumnsMetadata(columnsMetadata);
+
+        List<RowModel> rows = new ArrayList<RowModel>(columnFamily.getRows().size());
+        for (RowModel row : columnFamily.getRows()) {
+            rows.add(copy(row));
+        }
+        copy.setRows(rows);
+        return copy;
+    }
+
+    private static RowModel copy(RowModel row) {
+        RowModel copy = new RowModel();
+        copy.setKey(row.getKey());
+        List<SuperColumnModel> superColumns = new ArrayList<SuperColumnModel>(row.getSuperColumns().size());
+        for (SuperColumnModel superColumn : row.getSuperColumns()) {
+            SuperColumnModel superColumnCopy = new SuperColumnModel();
+            superColumnCopy.setName(superColumn.getName());
+            superColumnCopy.setColumns(copy(superColumn.getColumns()));
+            superColumns.add(superColumnCopy);
+        }
+        copy.setSuperColumns(superColumns);
+        copy.setColumns(copy(row.getColumns()));
+        return copy;
+    }
+
+    private static List<ColumnModel> copy(List<ColumnModel> columns) {
+        List<ColumnModel> copy = new ArrayList<ColumnModel>(columns.size());
+        for (ColumnModel column : columns) {
+            ColumnModel columnCopy = new ColumnModel();
+            columnCopy.setName(column.getName());
+            columnCopy.setValue(column.getValue());
+            columnCopy.setTimestamp(column.getTimestamp());
+            copy.add(columnCopy);
+        }
+        return copy;
+    }
+
+    private static class Entry {
+
+        private final KeyspaceModel keyspace;
+        private final int weight;
+
+        private Entry(KeyspaceModel keyspace, int weight) {
+            this.keyspace = keyspace;
+            this.weight = weight;
+        }
+    }
+}
@@ -13,4 +13,8 @@ public class ParseException extends RuntimeException {
         super(message);
     }
 
+    public ParseException(String message, Throwable e) {
+        super(message, e);
+    }
+
 }
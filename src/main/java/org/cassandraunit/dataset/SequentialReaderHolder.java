@@ -0,0 +1,52 @@
+package org.cassandraunit.dataset;
+
+/**
+ * Holds the reader of a streaming dataset which has just read a column family to its end, positioned on the next
+ * column family : when the column families are iterated in the order of the dataset, as the sequential loading does,
+ * the whole dataset is read in a single pass instead of being parsed again from its start for each column family.
+ * The reader is only kept while no other column family has been iterated since the one it has read.
+ *
+ * @param <R> reader of the dataset
+ */
+public abstract class SequentialReaderHolder<R> {
+
+    private R heldReader = null;
+    private int heldColumnFamilyIndex = -1;
+    private int lastIteratedColumnFamilyIndex = -1;
+
+    /**
+     * @param columnFamilyIndex position in the dataset of the column family to iterate
+     * @return the reader positioned on the column family, null if the column family is not the one following the
+     * last column family read to its end
+     */
+    public synchronized R take(int columnFamilyIndex) {
+        lastIteratedColumnFamilyIndex = columnFamilyIndex;
+        if (heldReader == null || heldColumnFamilyIndex != columnFamilyIndex) {
+            return null;
+        }
+        R reader = heldReader;
+        heldReader = null;
+        return reader;
+    }
+
+    /**
+     * @param reader                reader positioned on the column family following the one it has read
+     * @param readColumnFamilyIndex position in the dataset of the column family read to its end
+     */
+    public synchronized void hold(R reader, int readColumnFamilyIndex) {
+        if (lastIteratedColumnFamilyIndex != readColumnFamilyIndex) {
+            close(reader);
+            return;
+        }
+        if (heldReader != null) {
+            close(heldReader);
+        }
+        heldReader = reader;
+        heldColumnFamilyIndex = readColumnFamilyIndex + 1;
+    }
+
+    /**
+     * closes a reader which is not kept, quietly
+     */
+    protected abstract void close(R reader);
+}
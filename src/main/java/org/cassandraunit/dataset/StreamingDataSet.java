@@ -0,0 +1,22 @@
+package org.cassandraunit.dataset;
+
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+
+import java.util.Iterator;
+
+/**
+ * A dataset whose rows are not held in memory : the column families returned by {@link #getColumnFamilies()} only
+ * describe the schema and have no rows, the rows of a column family are read from the dataset one by one while
+ * iterating, either with {@link #getRowIterator(ColumnFamilyModel)} or with the lazy rows of the column family
+ * ({@link ColumnFamilyModel#getRowIterable()}).
+ */
+public interface StreamingDataSet extends DataSet {
+
+    /**
+     * @param columnFamily one of the column families of the dataset
+     * @return the rows of the column family, the source is closed when the last row has been read
+     */
+    Iterator<RowModel> getRowIterator(ColumnFamilyModel columnFamily);
+
+}
@@ -0,0 +1,35 @@
+package org.cassandraunit.dataset;
+
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+
+import java.util.Iterator;
+
+/**
+ * Helper of the {@link StreamingDataSet} implementations.
+ */
+public final class StreamingDataSetHelper {
+
+    private StreamingDataSetHelper() {
+    }
+
+    /**
+     * sets the lazy rows of the column families of a keyspace, to call once when the keyspace is built
+     *
+     * @param dataSet  dataset of the keyspace, reading the rows of a column family each time they are iterated
+     * @param keyspace keyspace whose column families have no row
+     * @return the keyspace
+     */
+    public static KeyspaceModel installLazyRows(final StreamingDataSet dataSet, KeyspaceModel keyspace) {
+        for (final ColumnFamilyModel columnFamily : keyspace.getColumnFamilies()) {
+            columnFamily.setLazyRows(new Iterable<RowModel>() {
+                @Override
+                public Iterator<RowModel> iterator() {
+                    return dataSet.getRowIterator(columnFamily);
+                }
+            });
+        }
+        return keyspace;
+    }
+}
@@ -0,0 +1,300 @@
+package org.cassandraunit.dataset.binary;
+
+import me.prettyprint.hector.api.ddl.ColumnIndexType;
+import me.prettyprint.hector.api.ddl.ColumnType;
+import me.prettyprint.hector.api.ddl.ComparatorType;
+import org.cassandraunit.dataset.ContentDataSet;
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.StreamingDataSet;
+import org.cassandraunit.dataset.StreamingDataSetHelper;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnMetadataModel;
+import org.cassandraunit.model.CompactionStrategyOptionModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.StrategyModel;
+import org.cassandraunit.type.GenericType;
+import org.cassandraunit.type.GenericTypeEnum;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Dataset written by {@link BinaryDataSetWriter} : the keys, names and values are already serialized and are given
+ * as is to Cassandra, without any parsing or typing. The schema is read first, the rows of a column family are read
+ * one by one from the dataset each time they are iterated.
+ */
+public abstract class AbstractBinaryDataSet implements StreamingDataSet, ContentDataSet {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String dataSetLocation = null;
+
+    private KeyspaceModel keyspace = null;
+
+    public AbstractBinaryDataSet(String dataSetLocation) {
+        this.dataSetLocation = dataSetLocation;
+        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
+        if (inputDataSetLocation == null) {
+            throw new ParseException("Dataset not found");
+        }
+        closeQuietly(inputDataSetLocation);
+    }
+
+    protected abstract InputStream getInputDataSetLocation(String dataSetLocation);
+
+    @Override
+    public KeyspaceModel getKeyspace() {
+        if (keyspace == null) {
+            DataInputStream input = openInput();
+            try {
+                keyspace = StreamingDataSetHelper.installLazyRows(this, readHeader(input));
+            } catch (IOException e) {
+                throw new ParseException(e);
+            } finally {
+                closeQuietly(input);
+            }
+        }
+        return keyspace;
+    }
+
+    @Override
+    public List<ColumnFamilyModel> getColumnFamilies() {
+        return getKeyspace().getColumnFamilies();
+    }
+
+    @Override
+    public Iterator<RowModel> getRowIterator(ColumnFamilyModel columnFamily) {
+        List<ColumnFamilyModel> columnFamilies = getColumnFamilies();
+        for (int i = 0; i < columnFamilies.size(); i++) {
+            if (columnFamilies.get(i).getName().equals(columnFamily.getName())) {
+                return getRowIterator(i, columnFamilies.get(i));
+            }
+        }
+        throw new ParseException("Column family " + columnFamily.getName() + " not found in the dataset");
+    }
+
+    /**
+     * @param columnFamilyIndex position of the column family in the dataset
+     * @return the rows of the column family, read from the input stream of the dataset by default
+     */
+    protected Iterator<RowModel> getRowIterator(int columnFamilyIndex, ColumnFamilyModel columnFamily) {
+        return new RowIterator(columnFamilyIndex, columnFamily);
+    }
+
+    @Override
+    public InputStream openContent() {
+        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
+        if (inputDataSetLocation == null) {
+            throw new ParseException("Dataset not found");
+        }
+        return inputDataSetLocation;
+    }
+
+    String getDataSetLocation() {
+        return dataSetLocation;
+    }
+
+    private DataInputStream openInput() {
+        return new DataInputStream(new BufferedInputStream(openContent(), BUFFER_SIZE));
+    }
+
+    /**
+     * reads the header of the dataset, the input is then positioned on the rows of the first column family
+     */
+    KeyspaceModel readHeader(DataInputStream input) throws IOException {
+        if (input.readInt() != BinaryDataSetFormat.MAGIC) {
+            throw new ParseException("Not a binary dataset");
+        }
+        short version = input.readShort();
+        if (version != BinaryDataSetFormat.VERSION) {
+            throw new ParseException("Unsupported binary dataset version " + version);
+        }
+
+        KeyspaceModel keyspaceModel = new KeyspaceModel();
+        keyspaceModel.setName(input.readUTF());
+        keyspaceModel.setReplicationFactor(input.readInt());
+        keyspaceModel.setStrategy(StrategyModel.fromValue(input.readUTF()));
+
+        int columnFamilyCount = input.readInt();
+        for (int i = 0; i < columnFamilyCount; i++) {
+            keyspaceModel.getColumnFamilies().add(readColumnFamilySchema(input));
+        }
+        return keyspaceModel;
+    }
+
+    private ColumnFamilyModel readColumnFamilySchema(DataInputStream input) throws IOException {
+        ColumnFamilyModel columnFamily = new ColumnFamilyModel();
+        columnFamily.setName(input.readUTF());
+        columnFamily.setType(ColumnType.valueOf(input.readUTF()));
+        columnFamily.setKeyType(readComparatorType(input));
+        columnFamily.setKeyTypeAlias(readNullableString(input));
+        columnFamily.setComparatorType(readComparatorType(input));
+        columnFamily.setComparatorTypeAlias(readNullableString(input));
+        columnFamily.setSubComparatorType(readComparatorType(input));
+        columnFamily.setDefaultColumnValueType(readComparatorType(input));
+        columnFamily.setComment(readNullableString(input));
+        columnFamily.setCompactionStrategy(readNullableString(input));
+
+        int compactionStrategyOptionCount = input.readInt();
+        if (compactionStrategyOptionCount != BinaryDataSetFormat.NULL_LENGTH) {
+            List<CompactionStrategyOptionModel> compactionStrategyOptions = new ArrayList<CompactionStrategyOptionModel>();
+            for (int i = 0; i < compactionStrategyOptionCount; i++) {
+                compactionStrategyOptions.add(new CompactionStrategyOptionModel(input.readUTF(), input.readUTF()));
+            }
+            columnFamily.setCompactionStrategyOptions(compactionStrategyOptions);
+        }
+
+        columnFamily.setGcGraceSeconds(readNullableInteger(input));
+        columnFamily.setMaxCompactionThreshold(readNullableInteger(input));
+        columnFamily.setMinCompactionThreshold(readNullableInteger(input));
+        if (input.readBoolean()) {
+            columnFamily.setReadRepairChance(input.readDouble());
+        }
+        if (input.readBoolean()) {
+            columnFamily.setReplicationOnWrite(input.readBoolean());
+        }
+
+        GenericTypeEnum nameType = BinaryDataSetFormat.toGenericType(columnFamily.getComparatorType());
+        int columnMetadataCount = input.readInt();
+        List<ColumnMetadataModel> columnsMetadata = new ArrayList<ColumnMetadataModel>();
+        for (int i = 0; i < columnMetadataCount; i++) {
+            GenericType columnName = readGenericType(input, nameType);
+            ComparatorType validationClass = readComparatorType(input);
+            String columnIndexType = readNullableString(input);
+            String indexName = readNullableString(input);
+            columnsMetadata.add(new ColumnMetadataModel(columnName, validationClass,
+                    columnIndexType == null ? null : ColumnIndexType.valueOf(columnIndexType), indexName));
+        }
+        columnFamily.setColumnsMetadata(columnsMetadata);
+        return columnFamily;
+    }
+
+    private static ComparatorType readComparatorType(DataInputStream input) throws IOException {
+        String className = readNullableString(input);
+        return className == null ? null : ComparatorType.getByClassName(className);
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static Integer readNullableInteger(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readInt() : null;
+    }
+
+    private static GenericType readGenericType(DataInputStream input, GenericTypeEnum type) throws IOException {
+        int length = input.readInt();
+        if (length == BinaryDataSetFormat.NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new GenericType(ByteBuffer.wrap(bytes), type);
+    }
+
+    private static void skipFully(DataInputStream input, int length) throws IOException {
+        int skipped = 0;
+        while (skipped < length) {
+            int skippedBytes = input.skipBytes(length - skipped);
+            if (skippedBytes <= 0) {
+                throw new EOFException();
+            }
+            skipped += skippedBytes;
+        }
+    }
+
+    private static void closeQuietly(InputStream input) {
+        try {
+            input.close();
+        } catch (IOException e) {
+            /* nothing more can be done */
+        }
+    }
+
+    /**
+     * Reads the rows of one column family : the rows of the previous column families are skipped, then each call to
+     * {@link #hasNext()} reads at most one row.
+     */
+    private class RowIterator implements Iterator<RowModel> {
+
+        private final int columnFamilyIndex;
+        private final BinaryRowReader rowReader;
+
+        private DataInputStream input = null;
+        private RowModel nextRow = null;
+        private boolean endOfColumnFamily = false;
+
+        private RowIterator(int columnFamilyIndex, ColumnFamilyModel columnFamily) {
+            this.columnFamilyIndex = columnFamilyIndex;
+            this.rowReader = new BinaryRowReader(columnFamily);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null && !endOfColumnFamily) {
+                nextRow = readNextRow();
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public RowModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RowModel row = nextRow;
+            nextRow = null;
+            return row;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private RowModel readNextRow() {
+            try {
+                if (input == null) {
+                    input = openInput();
+                    readHeader(input);
+                    for (int i = 0; i < columnFamilyIndex; i++) {
+                        int rowLength;
+                        while ((rowLength = input.readInt()) != BinaryDataSetFormat.END_OF_ROWS) {
+                            skipFully(input, rowLength);
+                        }
+                    }
+                }
+                int rowLength = input.readInt();
+                if (rowLength == BinaryDataSetFormat.END_OF_ROWS) {
+                    close();
+                    return null;
+                }
+                byte[] row = new byte[rowLength];
+                input.readFully(row);
+                return rowReader.read(ByteBuffer.wrap(row));
+            } catch (IOException e) {
+                close();
+                throw new ParseException(e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void close() {
+            endOfColumnFamily = true;
+            if (input != null) {
+                closeQuietly(input);
+            }
+        }
+    }
+}
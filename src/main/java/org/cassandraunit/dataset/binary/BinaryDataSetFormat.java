@@ -0,0 +1,47 @@
+package org.cassandraunit.dataset.binary;
+
+import me.prettyprint.hector.api.ddl.ComparatorType;
+import org.cassandraunit.type.GenericTypeEnum;
+
+/**
+ * Layout of a binary dataset, every number being big endian :
+ * <pre>
+ * header        : magic (int), version (short), keyspace, column family count (int), column family schemas
+ * keyspace      : name (utf), replication factor (int), strategy (utf)
+ * schema        : name, type, key type and alias, comparator type and alias, sub comparator type, default column
+ *                 value type, comment, compaction strategy and options, gc grace seconds, compaction thresholds,
+ *                 read repair chance, replication on write, columns metadata
+ * rows          : for each column family, in the order of the schemas, the rows then an end marker (int -1)
+ * row           : length (int) followed by the key, the super columns and the columns
+ * bytes         : length (int, -1 for null) followed by the serialized value
+ * </pre>
+ * Keys, names and values are stored serialized, as they are sent to Cassandra.
+ */
+final class BinaryDataSetFormat {
+
+    static final int MAGIC = 0x43554244;
+
+    static final short VERSION = 1;
+
+    static final int END_OF_ROWS = -1;
+
+    static final int NULL_LENGTH = -1;
+
+    private BinaryDataSetFormat() {
+    }
+
+    /**
+     * @return the generic type of the values of a comparator type, bytes if unknown
+     */
+    static GenericTypeEnum toGenericType(ComparatorType comparatorType) {
+        if (comparatorType == null) {
+            return GenericTypeEnum.BYTES_TYPE;
+        }
+        for (GenericTypeEnum genericType : GenericTypeEnum.values()) {
+            if (genericType.value().equals(comparatorType.getTypeName())) {
+                return genericType;
+            }
+        }
+        return GenericTypeEnum.BYTES_TYPE;
+    }
+}
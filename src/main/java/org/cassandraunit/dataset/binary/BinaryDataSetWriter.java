@@ -0,0 +1,183 @@
+package org.cassandraunit.dataset.binary;
+
+import me.prettyprint.hector.api.ddl.ComparatorType;
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnMetadataModel;
+import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.CompactionStrategyOptionModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.SuperColumnModel;
+import org.cassandraunit.serializer.GenericTypeSerializer;
+import org.cassandraunit.type.GenericType;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Writes a dataset in the binary format read by {@link AbstractBinaryDataSet}, see {@link BinaryDataSetFormat}. The
+ * values are typed and serialized once, while writing, instead of at each loading. The rows are read with
+ * {@link ColumnFamilyModel#getRowIterable()}, a streaming dataset is converted without being held in memory.
+ */
+public class BinaryDataSetWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public void write(DataSet dataSet, File file) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            write(dataSet, outputStream);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * write the dataset, the output stream is not closed
+     */
+    public void write(DataSet dataSet, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        output.writeInt(BinaryDataSetFormat.MAGIC);
+        output.writeShort(BinaryDataSetFormat.VERSION);
+
+        KeyspaceModel keyspace = dataSet.getKeyspace();
+        output.writeUTF(keyspace.getName());
+        output.writeInt(keyspace.getReplicationFactor());
+        output.writeUTF(keyspace.getStrategy().value());
+
+        List<ColumnFamilyModel> columnFamilies = dataSet.getColumnFamilies();
+        output.writeInt(columnFamilies.size());
+        for (ColumnFamilyModel columnFamily : columnFamilies) {
+            writeColumnFamilySchema(output, columnFamily);
+        }
+
+        ByteArrayOutputStream rowBytes = new ByteArrayOutputStream();
+        DataOutputStream rowOutput = new DataOutputStream(rowBytes);
+        for (ColumnFamilyModel columnFamily : columnFamilies) {
+            for (RowModel row : columnFamily.getRowIterable()) {
+                rowBytes.reset();
+                writeRow(rowOutput, row);
+                rowOutput.flush();
+                output.writeInt(rowBytes.size());
+                rowBytes.writeTo(output);
+            }
+            output.writeInt(BinaryDataSetFormat.END_OF_ROWS);
+        }
+        output.flush();
+    }
+
+    private void writeColumnFamilySchema(DataOutputStream output, ColumnFamilyModel columnFamily) throws IOException {
+        output.writeUTF(columnFamily.getName());
+        output.writeUTF(columnFamily.getType().name());
+        writeComparatorType(output, columnFamily.getKeyType());
+        writeNullableString(output, columnFamily.getKeyTypeAlias());
+        writeComparatorType(output, columnFamily.getComparatorType());
+        writeNullableString(output, columnFamily.getComparatorTypeAlias());
+        writeComparatorType(output, columnFamily.getSubComparatorType());
+        writeComparatorType(output, columnFamily.getDefaultColumnValueType());
+        writeNullableString(output, columnFamily.getComment());
+        writeNullableString(output, columnFamily.getCompactionStrategy());
+
+        List<CompactionStrategyOptionModel> compactionStrategyOptions = columnFamily.getCompactionStrategyOptions();
+        if (compactionStrategyOptions == null) {
+            output.writeInt(BinaryDataSetFormat.NULL_LENGTH);
+        } else {
+            output.writeInt(compactionStrategyOptions.size());
+            for (CompactionStrategyOptionModel compactionStrategyOption : compactionStrategyOptions) {
+                output.writeUTF(compactionStrategyOption.getName());
+                output.writeUTF(compactionStrategyOption.getValue());
+            }
+        }
+
+        writeNullableInteger(output, columnFamily.getGcGraceSeconds());
+        writeNullableInteger(output, columnFamily.getMaxCompactionThreshold());
+        writeNullableInteger(output, columnFamily.getMinCompactionThreshold());
+        output.writeBoolean(columnFamily.getReadRepairChance() != null);
+        if (columnFamily.getReadRepairChance() != null) {
+            output.writeDouble(columnFamily.getReadRepairChance());
+        }
+        output.writeBoolean(columnFamily.getReplicationOnWrite() != null);
+        if (columnFamily.getReplicationOnWrite() != null) {
+            output.writeBoolean(columnFamily.getReplicationOnWrite());
+        }
+
+        output.writeInt(columnFamily.getColumnsMetadata().size());
+        for (ColumnMetadataModel columnMetadata : columnFamily.getColumnsMetadata()) {
+            writeGenericType(output, columnMetadata.getColumnName());
+            writeComparatorType(output, columnMetadata.getValidationClass());
+            writeNullableString(output, columnMetadata.getColumnIndexType() == null ? null
+                    : columnMetadata.getColumnIndexType().name());
+            /* the default index name is the string value of the column name, which is not kept */
+            String indexName = columnMetadata.getIndexName();
+            if (indexName == null && columnMetadata.getColumnIndexType() != null) {
+                indexName = columnMetadata.getColumnName().getValue();
+            }
+            writeNullableString(output, indexName);
+        }
+    }
+
+    private void writeRow(DataOutputStream output, RowModel row) throws IOException {
+        writeGenericType(output, row.getKey());
+        output.writeInt(row.getSuperColumns().size());
+        for (SuperColumnModel superColumn : row.getSuperColumns()) {
+            writeGenericType(output, superColumn.getName());
+            writeColumns(output, superColumn.getColumns());
+        }
+        writeColumns(output, row.getColumns());
+    }
+
+    private void writeColumns(DataOutputStream output, List<ColumnModel> columns) throws IOException {
+        output.writeInt(columns.size());
+        for (ColumnModel column : columns) {
+            writeGenericType(output, column.getName());
+            writeGenericType(output, column.getValue());
+            output.writeBoolean(column.getTimestamp() != null);
+            if (column.getTimestamp() != null) {
+                output.writeLong(column.getTimestamp());
+            }
+        }
+    }
+
+    private void writeGenericType(DataOutputStream output, GenericType genericType) throws IOException {
+        if (genericType == null) {
+            output.writeInt(BinaryDataSetFormat.NULL_LENGTH);
+            return;
+        }
+        ByteBuffer serializedValue = GenericTypeSerializer.get().toByteBuffer(genericType);
+        output.writeInt(serializedValue.remaining());
+        if (serializedValue.hasArray()) {
+            output.write(serializedValue.array(), serializedValue.arrayOffset() + serializedValue.position(),
+                    serializedValue.remaining());
+        } else {
+            byte[] bytes = new byte[serializedValue.remaining()];
+            serializedValue.duplicate().get(bytes);
+            output.write(bytes);
+        }
+    }
+
+    private void writeComparatorType(DataOutputStream output, ComparatorType comparatorType) throws IOException {
+        writeNullableString(output, comparatorType == null ? null : comparatorType.getClassName());
+    }
+
+    private void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private void writeNullableInteger(DataOutputStream output, Integer value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeInt(value);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.cassandraunit.dataset.binary;
+
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.SuperColumnModel;
+import org.cassandraunit.type.GenericType;
+import org.cassandraunit.type.GenericTypeEnum;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the rows of a column family of a binary dataset. The keys, names and values are slices of the row buffer,
+ * they are not copied.
+ */
+final class BinaryRowReader {
+
+    private final GenericTypeEnum keyType;
+    private final GenericTypeEnum nameType;
+    private final GenericTypeEnum subNameType;
+    private final GenericTypeEnum valueType;
+
+    BinaryRowReader(ColumnFamilyModel columnFamily) {
+        this.keyType = BinaryDataSetFormat.toGenericType(columnFamily.getKeyType());
+        this.nameType = BinaryDataSetFormat.toGenericType(columnFamily.getComparatorType());
+        this.subNameType = BinaryDataSetFormat.toGenericType(columnFamily.getSubComparatorType());
+        this.valueType = BinaryDataSetFormat.toGenericType(columnFamily.getDefaultColumnValueType());
+    }
+
+    /**
+     * @param row the bytes of the row, from its position to its limit
+     */
+    RowModel read(ByteBuffer row) {
+        RowModel rowModel = new RowModel();
+        rowModel.setKey(readGenericType(row, keyType));
+        int superColumnCount = row.getInt();
+        List<SuperColumnModel> superColumns = new ArrayList<SuperColumnModel>(superColumnCount);
+        for (int i = 0; i < superColumnCount; i++) {
+            SuperColumnModel superColumn = new SuperColumnModel();
+            superColumn.setName(readGenericType(row, nameType));
+            superColumn.setColumns(readColumns(row, subNameType));
+            superColumns.add(superColumn);
+        }
+        rowModel.setSuperColumns(superColumns);
+        rowModel.setColumns(readColumns(row, nameType));
+        return rowModel;
+    }
+
+    private List<ColumnModel> readColumns(ByteBuffer row, GenericTypeEnum columnNameType) {
+        int columnCount = row.getInt();
+        List<ColumnModel> columns = new ArrayList<ColumnModel>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            ColumnModel column = new ColumnModel();
+            column.setName(readGenericType(row, columnNameType));
+            column.setValue(readGenericType(row, valueType));
+            if (row.get() != 0) {
+                column.setTimestamp(row.getLong());
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    private static GenericType readGenericType(ByteBuffer row, GenericTypeEnum type) {
+        int length = row.getInt();
+        if (length == BinaryDataSetFormat.NULL_LENGTH) {
+            return null;
+        }
+        ByteBuffer value = row.slice();
+        value.limit(length);
+        row.position(row.position() + length);
+        return new GenericType(value, type);
+    }
+}
@@ -0,0 +1,19 @@
+package org.cassandraunit.dataset.binary;
+
+import org.cassandraunit.dataset.StreamingDataSet;
+
+import java.io.InputStream;
+
+public class ClassPathBinaryDataSet extends AbstractBinaryDataSet implements StreamingDataSet {
+
+    public ClassPathBinaryDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        InputStream inputDataSetLocation = this.getClass().getResourceAsStream("/" + dataSetLocation);
+        return inputDataSetLocation;
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.cassandraunit.dataset.binary;
+
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary dataset read from a file which is memory mapped : the keys, names and values of the rows are slices of the
+ * mapped file, they are neither copied on the heap nor deserialized. A file bigger than 2GB can not be mapped in one
+ * buffer, it is read as a stream.
+ */
+public class FileBinaryDataSet extends AbstractBinaryDataSet {
+
+    private MappedByteBuffer mappedDataSet = null;
+
+    /* position of the rows of each column family in the mapped file */
+    private int[] columnFamilyPositions = null;
+
+    public FileBinaryDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        if (dataSetLocation == null) {
+            return null;
+        }
+        try {
+            return new FileInputStream(dataSetLocation);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected Iterator<RowModel> getRowIterator(int columnFamilyIndex, ColumnFamilyModel columnFamily) {
+        if (!mapDataSet()) {
+            return super.getRowIterator(columnFamilyIndex, columnFamily);
+        }
+        ByteBuffer rows = mappedDataSet.duplicate();
+        rows.position(columnFamilyPositions[columnFamilyIndex]);
+        return new MappedRowIterator(rows, new BinaryRowReader(columnFamily));
+    }
+
+    /**
+     * maps the file and finds the rows of each column family, once
+     *
+     * @return false if the file is too big to be mapped
+     */
+    private synchronized boolean mapDataSet() {
+        if (mappedDataSet != null) {
+            return true;
+        }
+        try {
+            RandomAccessFile file = new RandomAccessFile(getDataSetLocation(), "r");
+            try {
+                FileChannel channel = file.getChannel();
+                if (channel.size() > Integer.MAX_VALUE) {
+                    return false;
+                }
+                /* the mapping stays valid once the file is closed */
+                MappedByteBuffer mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                ByteBuffer rows = mappedFile.duplicate();
+                int columnFamilyCount = readHeader(new DataInputStream(new ByteBufferInputStream(rows)))
+                        .getColumnFamilies().size();
+                int[] positions = new int[columnFamilyCount];
+                for (int i = 0; i < columnFamilyCount; i++) {
+                    positions[i] = rows.position();
+                    int rowLength;
+                    while ((rowLength = rows.getInt()) != BinaryDataSetFormat.END_OF_ROWS) {
+                        rows.position(rows.position() + checkRowLength(rowLength, rows));
+                    }
+                }
+                columnFamilyPositions = positions;
+                mappedDataSet = mappedFile;
+                return true;
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } catch (ParseException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            /* BufferUnderflowException or IllegalArgumentException on a truncated file */
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * @return the length of the row, the rows being on its start
+     * @throws ParseException if the row goes beyond the end of the file
+     */
+    private static int checkRowLength(int rowLength, ByteBuffer rows) {
+        if (rowLength < 0 || rowLength > rows.remaining()) {
+            throw new ParseException("Invalid row length " + rowLength + ", " + rows.remaining()
+                    + " bytes left in the dataset");
+        }
+        return rowLength;
+    }
+
+    /**
+     * unbuffered stream over a byte buffer, the position of the buffer is the one of the stream
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int readLength = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, readLength);
+            return readLength;
+        }
+    }
+
+    /**
+     * reads the rows of one column family from the mapped file, each row being a slice of it
+     */
+    private static class MappedRowIterator implements Iterator<RowModel> {
+
+        private final ByteBuffer rows;
+        private final BinaryRowReader rowReader;
+
+        private MappedRowIterator(ByteBuffer rows, BinaryRowReader rowReader) {
+            this.rows = rows;
+            this.rowReader = rowReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.getInt(rows.position()) != BinaryDataSetFormat.END_OF_ROWS;
+        }
+
+        @Override
+        public RowModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int rowOffset = rows.position();
+            int rowLength = checkRowLength(rows.getInt(), rows);
+            ByteBuffer row = rows.slice();
+            row.limit(rowLength);
+            rows.position(rows.position() + rowLength);
+            try {
+                return rowReader.read(row);
+            } catch (BufferUnderflowException e) {
+                throw new ParseException("Invalid row at offset " + rowOffset + " of the dataset", e);
+            } catch (IllegalArgumentException e) {
+                /* negative or too big length or count of the values of the row */
+                throw new ParseException("Invalid row at offset " + rowOffset + " of the dataset", e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
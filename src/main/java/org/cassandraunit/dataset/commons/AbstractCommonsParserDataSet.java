@@ -5,6 +5,8 @@ import me.prettyprint.hector.api.ddl.ColumnType;
 import me.prettyprint.hector.api.ddl.ComparatorType;
 import org.apache.commons.lang.StringUtils;
 import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.DataSetInput;
+import org.cassandraunit.dataset.KeyspaceModelCache;
 import org.cassandraunit.dataset.ParseException;
 import org.cassandraunit.model.*;
 import org.cassandraunit.type.GenericType;
@@ -12,6 +14,8 @@ import org.cassandraunit.type.GenericTypeEnum;
 import org.cassandraunit.utils.ComparatorTypeHelper;
 import org.cassandraunit.utils.TypeExtractor;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,24 +25,92 @@ import java.util.List;
  */
 public abstract class AbstractCommonsParserDataSet implements DataSet {
 
+    /**
+     * reads a whole dataset
+     */
+    protected interface ParsedKeyspaceReader {
+        ParsedKeyspace read(InputStream content);
+    }
+
     protected KeyspaceModel keyspace = null;
 
-    protected abstract ParsedKeyspace getParsedKeyspace();
+    /* null for the datasets which read their keyspace by themselves */
+    private final String cacheFormat;
+    private final ParsedKeyspaceReader reader;
+    private final DataSetInput input;
+
+    /**
+     * for the datasets which read their keyspace by themselves, overriding {@link #getParsedKeyspace()}
+     */
+    protected AbstractCommonsParserDataSet() {
+        this.cacheFormat = null;
+        this.reader = null;
+        this.input = null;
+    }
+
+    /**
+     * @param cacheFormat format of the dataset in the {@link KeyspaceModelCache}
+     * @param reader      reader of the content of the dataset
+     * @throws ParseException if the dataset does not exist
+     */
+    protected AbstractCommonsParserDataSet(String dataSetLocation, String cacheFormat, ParsedKeyspaceReader reader) {
+        this.cacheFormat = cacheFormat;
+        this.reader = reader;
+        this.input = new DataSetInput(dataSetLocation, new DataSetInput.Opener() {
+            @Override
+            public InputStream open(String dataSetLocation) {
+                return getInputDataSetLocation(dataSetLocation);
+            }
+        });
+    }
+
+    protected abstract InputStream getInputDataSetLocation(String dataSetLocation);
+
+    protected ParsedKeyspace getParsedKeyspace() {
+        if (input == null) {
+            throw new ParseException("No dataset location, " + getClass().getName()
+                    + " must override getParsedKeyspace()");
+        }
+        return readParsedKeyspace(input.open());
+    }
 
+    /**
+     * @return the keyspace, parsed once for all the datasets with the same content unless the dataset reads its
+     * keyspace by itself
+     */
     @Override
     public KeyspaceModel getKeyspace() {
         if (keyspace == null) {
-            mapParsedKeyspaceToModel(getParsedKeyspace());
+            if (input == null) {
+                mapParsedKeyspaceToModel(getParsedKeyspace());
+            } else {
+                keyspace = input.readKeyspace(cacheFormat, new KeyspaceModelCache.Parser() {
+                    @Override
+                    public KeyspaceModel parse(InputStream content) {
+                        mapParsedKeyspaceToModel(readParsedKeyspace(content));
+                        return keyspace;
+                    }
+                });
+            }
         }
         return keyspace;
     }
 
+    private ParsedKeyspace readParsedKeyspace(InputStream content) {
+        try {
+            return reader.read(content);
+        } finally {
+            try {
+                content.close();
+            } catch (IOException e) {
+                /* nothing more can be done */
+            }
+        }
+    }
+
     @Override
     public List<ColumnFamilyModel> getColumnFamilies() {
-        if (keyspace == null) {
-            mapParsedKeyspaceToModel(getParsedKeyspace());
-        }
-        return keyspace.getColumnFamilies();
+        return getKeyspace().getColumnFamilies();
     }
 
     protected void mapParsedKeyspaceToModel(ParsedKeyspace parsedKeyspace) {
@@ -236,7 +308,7 @@ public abstract class AbstractCommonsParserDataSet implements DataSet {
         return rowsModel;
     }
 
-    private RowModel mapsParsedRowToRowModel(List<ParsedColumnMetadata> metaData, ParsedRow parsedRow, ComparatorType keyType,
+    protected RowModel mapsParsedRowToRowModel(List<ParsedColumnMetadata> metaData, ParsedRow parsedRow, ComparatorType keyType,
                                              GenericTypeEnum[] typesBelongingCompositeTypeForKeyType, ComparatorType comparatorType,
                                              GenericTypeEnum[] typesBelongingCompositeTypeForComparatorType, ComparatorType subComparatorType,
                                              ComparatorType defaultColumnValueType) {
@@ -0,0 +1,107 @@
+package org.cassandraunit.dataset.commons;
+
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.StreamingDataSet;
+import org.cassandraunit.dataset.StreamingDataSetHelper;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.type.GenericTypeEnum;
+import org.cassandraunit.utils.ComparatorTypeHelper;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed dataset whose rows are not held in memory : {@link #getParsedKeyspace()} returns the column families without
+ * their rows, the rows of a column family are parsed one by one by the iterator of
+ * {@link #getParsedRowIterator(int)}.
+ */
+public abstract class AbstractCommonsStreamingParserDataSet extends AbstractCommonsParserDataSet implements
+        StreamingDataSet {
+
+    /* parsed column families, without their rows, by name */
+    private final Map<String, ParsedColumnFamily> parsedColumnFamilies = new HashMap<String, ParsedColumnFamily>();
+
+    /* position of the column families in the dataset, by name */
+    private final Map<String, Integer> columnFamilyIndexes = new HashMap<String, Integer>();
+
+    /**
+     * @return the keyspace with its column families but without any row
+     */
+    @Override
+    protected abstract ParsedKeyspace getParsedKeyspace();
+
+    /**
+     * @param columnFamilyIndex position of the column family in the dataset
+     * @return the parsed rows of the column family, the source being opened on the first read and closed after the
+     *         last one
+     */
+    protected abstract Iterator<ParsedRow> getParsedRowIterator(int columnFamilyIndex);
+
+    @Override
+    protected void mapParsedKeyspaceToModel(ParsedKeyspace parsedKeyspace) {
+        super.mapParsedKeyspaceToModel(parsedKeyspace);
+        StreamingDataSetHelper.installLazyRows(this, keyspace);
+        List<ParsedColumnFamily> columnFamilies = parsedKeyspace.getColumnFamilies();
+        if (columnFamilies != null) {
+            for (int i = 0; i < columnFamilies.size(); i++) {
+                parsedColumnFamilies.put(columnFamilies.get(i).getName(), columnFamilies.get(i));
+                columnFamilyIndexes.put(columnFamilies.get(i).getName(), i);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<RowModel> getRowIterator(ColumnFamilyModel columnFamily) {
+        getKeyspace();
+        Integer columnFamilyIndex = columnFamilyIndexes.get(columnFamily.getName());
+        if (columnFamilyIndex == null) {
+            throw new ParseException("Column family " + columnFamily.getName() + " not found in the dataset");
+        }
+        return new RowIterator(columnFamily, parsedColumnFamilies.get(columnFamily.getName()),
+                getParsedRowIterator(columnFamilyIndex));
+    }
+
+    /**
+     * maps the parsed rows to rows of the model while they are read
+     */
+    private class RowIterator implements Iterator<RowModel> {
+
+        private final ColumnFamilyModel columnFamily;
+        private final ParsedColumnFamily parsedColumnFamily;
+        private final Iterator<ParsedRow> parsedRows;
+        private final GenericTypeEnum[] typesBelongingCompositeTypeForKeyType;
+        private final GenericTypeEnum[] typesBelongingCompositeTypeForComparatorType;
+
+        private RowIterator(ColumnFamilyModel columnFamily, ParsedColumnFamily parsedColumnFamily,
+                            Iterator<ParsedRow> parsedRows) {
+            this.columnFamily = columnFamily;
+            this.parsedColumnFamily = parsedColumnFamily;
+            this.parsedRows = parsedRows;
+            this.typesBelongingCompositeTypeForKeyType = ComparatorTypeHelper.extractCompositeTypes(
+                    columnFamily.getKeyType(), columnFamily.getKeyTypeAlias());
+            this.typesBelongingCompositeTypeForComparatorType = ComparatorTypeHelper.extractCompositeTypes(
+                    columnFamily.getComparatorType(), columnFamily.getComparatorTypeAlias());
+        }
+
+        @Override
+        public boolean hasNext() {
+            return parsedRows.hasNext();
+        }
+
+        @Override
+        public RowModel next() {
+            return mapsParsedRowToRowModel(parsedColumnFamily.getColumnsMetadata(), parsedRows.next(),
+                    columnFamily.getKeyType(), typesBelongingCompositeTypeForKeyType, columnFamily.getComparatorType(),
+                    typesBelongingCompositeTypeForComparatorType, columnFamily.getSubComparatorType(),
+                    columnFamily.getDefaultColumnValueType());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
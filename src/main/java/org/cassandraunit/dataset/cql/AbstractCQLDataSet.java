@@ -8,6 +8,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,6 +18,7 @@ import java.util.List;
 public abstract class AbstractCQLDataSet implements CQLDataSet {
 
     public static final String END_OF_STATEMENT_DELIMITER = ";";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
     private String dataSetLocation = null;
     private String keyspaceName = null;
     private boolean keyspaceCreation = true;
@@ -51,27 +53,26 @@ public abstract class AbstractCQLDataSet implements CQLDataSet {
 
     @Override
     public List<String> getCQLStatements() {
-        List<String> lines = getLines();
-        return linesToCQLStatements(lines);
-
-    }
-
-    private List<String> linesToCQLStatements(List<String> lines) {
         List<String> statements = new ArrayList<String>();
-        StringBuffer statementUnderConstruction = new StringBuffer();
-        for (String line : lines) {
-            statementUnderConstruction.append(line.trim());
-            if (endOfStatementLine(line)) {
-                statements.add(statementUnderConstruction.toString());
-                statementUnderConstruction.setLength(0);
-            } else {
-                statementUnderConstruction.append(" ");
-            }
+        CQLStatementIterator statementIterator = getCQLStatementIterator();
+        while (statementIterator.hasNext()) {
+            statements.add(statementIterator.next());
         }
-
         return statements;
     }
 
+    /**
+     * @return the statements of the dataset, read one by one while iterating so that a big script is never
+     * entirely held in memory. The script is closed after its last statement, or by closing the iterator.
+     */
+    public CQLStatementIterator getCQLStatementIterator() {
+        InputStream inputStream = getInputDataSetLocation(dataSetLocation);
+        if (inputStream == null) {
+            throw new ParseException("Dataset not found : " + dataSetLocation);
+        }
+        return new CQLStatementIterator(new InputStreamReader(inputStream, UTF_8));
+    }
+
 //    private boolean spaceNeededAfter(String line) {
 //        boolean spaceNeeded = true;
 //        String[] characterWithoutSpaceNeededAfter = {"<", ">", ":", "=", "|", "("};
@@ -81,12 +82,6 @@ public abstract class AbstractCQLDataSet implements CQLDataSet {
 //        return spaceNeeded;
 //    }
 
-    private boolean endOfStatementLine(String line) {
-        return line.endsWith(END_OF_STATEMENT_DELIMITER);
-
-    }
-
-
     public List<String> getLines() {
         InputStream inputStream = getInputDataSetLocation(dataSetLocation);
         final InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
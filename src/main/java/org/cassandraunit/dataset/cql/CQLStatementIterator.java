@@ -0,0 +1,241 @@
+package org.cassandraunit.dataset.cql;
+
+import org.cassandraunit.dataset.ParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the CQL statements of a dataset one by one : the script is read through a fixed size buffer and a statement
+ * is handed out as soon as its terminating {@link AbstractCQLDataSet#END_OF_STATEMENT_DELIMITER} is read, so the
+ * whole script is never held in memory. The reader is closed when the last statement has been read, or by
+ * {@link #close()} when the statements are not all read.
+ * <p/>
+ * The script is split by a single pass lexer :
+ * <ul>
+ * <li>a delimiter inside a 'string literal' or a "quoted identifier" does not end the statement</li>
+ * <li><code>-- ...</code>, <code>// ...</code> and <code>/* ... *&#47;</code> comments are removed</li>
+ * <li>the statements of a <code>BEGIN BATCH ... APPLY BATCH;</code> block are kept in one statement</li>
+ * <li>several statements may be written on one line, a statement may span several lines</li>
+ * </ul>
+ * Outside of the literals, a blank which contains a line break or a comment is replaced by a single space, the other
+ * blanks are kept as they are. An unterminated last statement is ignored.
+ */
+public class CQLStatementIterator implements Iterator<String>, Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int END_OF_INPUT = -1;
+
+    private static final String BATCH_START_KEYWORD = "BEGIN";
+    private static final String[] BATCH_END_KEYWORDS = {"BATCH", "APPLY"};
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+
+    private final StringBuilder statementUnderConstruction = new StringBuilder();
+    private final StringBuilder pendingBlank = new StringBuilder();
+    private boolean pendingBlankCollapsed = false;
+    private String nextStatement = null;
+    private boolean endOfInput = false;
+
+    CQLStatementIterator(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextStatement == null && !endOfInput) {
+            nextStatement = readStatement();
+        }
+        return nextStatement != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String statement = nextStatement;
+        nextStatement = null;
+        return statement;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the next statement or null if there is no more complete statement
+     */
+    private String readStatement() {
+        try {
+            int c;
+            while ((c = read()) != END_OF_INPUT) {
+                if (Character.isWhitespace(c)) {
+                    pendingBlank.append((char) c);
+                    pendingBlankCollapsed |= c == '\n' || c == '\r';
+                } else if (c == '-' && peek() == '-' || c == '/' && peek() == '/') {
+                    skipLineComment();
+                } else if (c == '/' && peek() == '*') {
+                    read();
+                    skipBlockComment();
+                } else {
+                    appendPendingBlank();
+                    statementUnderConstruction.append((char) c);
+                    if (c == '\'' || c == '"') {
+                        readQuoted((char) c);
+                    } else if (c == ';' && !isInsideBatch()) {
+                        String statement = statementUnderConstruction.toString();
+                        statementUnderConstruction.setLength(0);
+                        clearPendingBlank();
+                        return statement;
+                    }
+                }
+            }
+            close();
+            return null;
+        } catch (IOException e) {
+            closeQuietly();
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * copy a string literal or a quoted identifier, a doubled quote being an escaped quote
+     */
+    private void readQuoted(char quote) throws IOException {
+        int c;
+        while ((c = read()) != END_OF_INPUT) {
+            statementUnderConstruction.append((char) c);
+            if (c == quote) {
+                if (peek() != quote) {
+                    return;
+                }
+                statementUnderConstruction.append((char) read());
+            }
+        }
+        closeQuietly();
+        throw new ParseException("Unterminated quoted text in statement : " + statementUnderConstruction);
+    }
+
+    private void skipLineComment() throws IOException {
+        int c;
+        while ((c = peek()) != END_OF_INPUT && c != '\n' && c != '\r') {
+            read();
+        }
+        pendingBlankCollapsed = true;
+    }
+
+    private void skipBlockComment() throws IOException {
+        int c;
+        while ((c = read()) != END_OF_INPUT) {
+            if (c == '*' && peek() == '/') {
+                read();
+                break;
+            }
+        }
+        /* a comment separates tokens as a blank does */
+        pendingBlankCollapsed = true;
+    }
+
+    private void appendPendingBlank() {
+        if (statementUnderConstruction.length() > 0) {
+            if (pendingBlankCollapsed) {
+                statementUnderConstruction.append(' ');
+            } else {
+                statementUnderConstruction.append(pendingBlank);
+            }
+        }
+        clearPendingBlank();
+    }
+
+    private void clearPendingBlank() {
+        pendingBlank.setLength(0);
+        pendingBlankCollapsed = false;
+    }
+
+    /**
+     * @return true if the statement is a batch whose <code>APPLY BATCH</code> has not been read yet, the delimiter
+     * (already appended) only ends one of its inner statements then
+     */
+    private boolean isInsideBatch() {
+        if (!regionMatches(0, BATCH_START_KEYWORD)) {
+            return false;
+        }
+        /* walk back over "APPLY BATCH" before the delimiter */
+        int end = statementUnderConstruction.length() - 1;
+        for (String keyword : BATCH_END_KEYWORDS) {
+            while (end > 0 && Character.isWhitespace(statementUnderConstruction.charAt(end - 1))) {
+                end--;
+            }
+            int start = end - keyword.length();
+            if (start < 0 || !regionMatches(start, keyword)
+                    || (start > 0 && Character.isLetterOrDigit(statementUnderConstruction.charAt(start - 1)))) {
+                return true;
+            }
+            end = start;
+        }
+        return false;
+    }
+
+    private boolean regionMatches(int offset, String keyword) {
+        if (offset + keyword.length() > statementUnderConstruction.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(statementUnderConstruction.charAt(offset + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (bufferPosition == bufferLength && !fill()) {
+            return END_OF_INPUT;
+        }
+        return buffer[bufferPosition++];
+    }
+
+    private int peek() throws IOException {
+        if (bufferPosition == bufferLength && !fill()) {
+            return END_OF_INPUT;
+        }
+        return buffer[bufferPosition];
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        bufferLength = reader.read(buffer, 0, BUFFER_SIZE);
+        bufferPosition = 0;
+        if (bufferLength <= 0) {
+            bufferLength = 0;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        endOfInput = true;
+        nextStatement = null;
+        reader.close();
+    }
+
+    private void closeQuietly() {
+        endOfInput = true;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            /* nothing more can be done */
+        }
+    }
+}
@@ -12,33 +12,27 @@ import java.io.InputStream;
 
 public abstract class AbstractJsonDataSet extends AbstractCommonsParserDataSet {
 
+    private static final ParsedKeyspaceReader jsonReader = new ParsedKeyspaceReader() {
+        @Override
+        public ParsedKeyspace read(InputStream content) {
+            ObjectMapper jsonMapper = new ObjectMapper();
+            try {
+                return jsonMapper.readValue(content, ParsedKeyspace.class);
+            } catch (JsonParseException e) {
+                throw new ParseException(e);
+            } catch (JsonMappingException e) {
+                throw new ParseException(e);
+            } catch (IOException e) {
+                throw new ParseException(e);
+            }
+        }
+    };
+
     protected String dataSetLocation = null;
 
     public AbstractJsonDataSet(String dataSetLocation) {
+        super(dataSetLocation, "json", jsonReader);
         this.dataSetLocation = dataSetLocation;
-        if (getInputDataSetLocation(dataSetLocation) == null) {
-            throw new ParseException("Dataset not found");
-        }
     }
 
-    protected ParsedKeyspace getParsedKeyspace() {
-        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
-        if (inputDataSetLocation == null) {
-            throw new ParseException("Dataset not found");
-        }
-
-        ObjectMapper jsonMapper = new ObjectMapper();
-        try {
-            return jsonMapper.readValue(inputDataSetLocation, ParsedKeyspace.class);
-        } catch (JsonParseException e) {
-            throw new ParseException(e);
-        } catch (JsonMappingException e) {
-            throw new ParseException(e);
-        } catch (IOException e) {
-            throw new ParseException(e);
-        }
-    }
-
-    protected abstract InputStream getInputDataSetLocation(String dataSetLocation);
-
 }
@@ -0,0 +1,285 @@
+package org.cassandraunit.dataset.json;
+
+import org.cassandraunit.dataset.ContentDataSet;
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.commons.AbstractCommonsStreamingParserDataSet;
+import org.cassandraunit.dataset.commons.ParsedColumnFamily;
+import org.cassandraunit.dataset.commons.ParsedKeyspace;
+import org.cassandraunit.dataset.commons.ParsedRow;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * JSON dataset read with the Jackson token stream, for datasets too big to be held in memory : the keyspace and its
+ * column families are read first, skipping the rows, then the rows of a column family are read one by one from the
+ * dataset each time they are iterated. The byte offset of the rows of each column family is recorded while reading
+ * the column families, the dataset is then skipped up to the rows instead of being parsed again from its start. The
+ * offsets are not known for a dataset which is not encoded in UTF-8, its column families are reached by parsing it
+ * from its start, iterating all of them parses it once per column family.
+ */
+public abstract class AbstractStreamingJsonDataSet extends AbstractCommonsStreamingParserDataSet implements
+        ContentDataSet {
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+
+    protected String dataSetLocation = null;
+
+    /* byte offset of the rows array of each column family, null when the column family has no rows or the offset
+    is not known */
+    private final List<Long> rowsOffsets = new ArrayList<Long>();
+
+    public AbstractStreamingJsonDataSet(String dataSetLocation) {
+        this.dataSetLocation = dataSetLocation;
+        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
+        if (inputDataSetLocation == null) {
+            throw new ParseException("Dataset not found");
+        }
+        closeQuietly(inputDataSetLocation);
+    }
+
+    /**
+     * @return the keyspace with its column families but without any row
+     */
+    @Override
+    protected ParsedKeyspace getParsedKeyspace() {
+        JsonParser parser = openParser();
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            ObjectNode keyspaceNode = JsonNodeFactory.instance.objectNode();
+            List<ParsedColumnFamily> parsedColumnFamilies = new ArrayList<ParsedColumnFamily>();
+            rowsOffsets.clear();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "columnFamilies".equals(fieldName)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        parsedColumnFamilies.add(readColumnFamilyWithoutRows(parser));
+                    }
+                } else {
+                    keyspaceNode.put(fieldName, readTree(parser));
+                }
+            }
+            ParsedKeyspace parsedKeyspace = jsonMapper.readValue(keyspaceNode, ParsedKeyspace.class);
+            parsedKeyspace.setColumnFamilies(parsedColumnFamilies);
+            return parsedKeyspace;
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } finally {
+            closeQuietly(parser);
+        }
+    }
+
+    @Override
+    protected Iterator<ParsedRow> getParsedRowIterator(int columnFamilyIndex) {
+        return new ParsedRowIterator(columnFamilyIndex);
+    }
+
+    @Override
+    public InputStream openContent() {
+        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
+        if (inputDataSetLocation == null) {
+            throw new ParseException("Dataset not found");
+        }
+        return inputDataSetLocation;
+    }
+
+    private JsonParser openParser() {
+        return openParser(0);
+    }
+
+    /**
+     * @param byteOffset number of bytes of the dataset to skip before parsing it
+     */
+    private JsonParser openParser(long byteOffset) {
+        InputStream inputDataSetLocation = openContent();
+        try {
+            skipFully(inputDataSetLocation, byteOffset);
+            /* the parser closes its input */
+            return jsonMapper.getJsonFactory().createJsonParser(inputDataSetLocation);
+        } catch (IOException e) {
+            closeQuietly(inputDataSetLocation);
+            throw new ParseException(e);
+        }
+    }
+
+    private static void skipFully(InputStream input, long length) throws IOException {
+        while (length > 0) {
+            long skipped = input.skip(length);
+            if (skipped <= 0) {
+                /* skip may skip nothing before the end of the stream */
+                if (input.read() < 0) {
+                    throw new EOFException("Dataset shorter than the offset of the rows");
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * read a column family object, the parser being on its start, the rows being skipped and their offset recorded
+     */
+    private ParsedColumnFamily readColumnFamilyWithoutRows(JsonParser parser) throws IOException {
+        ObjectNode columnFamilyNode = JsonNodeFactory.instance.objectNode();
+        Long rowsOffset = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "rows".equals(fieldName)) {
+                /* -1 when the dataset is not read as bytes */
+                long byteOffset = parser.getTokenLocation().getByteOffset();
+                rowsOffset = byteOffset < 0 ? null : byteOffset;
+                parser.skipChildren();
+            } else if ("rows".equals(fieldName)) {
+                parser.skipChildren();
+            } else {
+                columnFamilyNode.put(fieldName, readTree(parser));
+            }
+        }
+        rowsOffsets.add(rowsOffset);
+        return jsonMapper.readValue(columnFamilyNode, ParsedColumnFamily.class);
+    }
+
+    private static JsonNode readTree(JsonParser parser) throws IOException {
+        return jsonMapper.readTree(parser);
+    }
+
+    private static void closeQuietly(JsonParser parser) {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            /* nothing more can be done */
+        }
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            /* nothing more can be done */
+        }
+    }
+
+    /**
+     * Reads the rows of one column family : the parser is moved to the rows of the column family, then each call to
+     * {@link #hasNext()} reads at most one row.
+     */
+    private class ParsedRowIterator implements Iterator<ParsedRow> {
+
+        private final int columnFamilyIndex;
+
+        private JsonParser parser = null;
+        private ParsedRow nextRow = null;
+        private boolean endOfColumnFamily = false;
+
+        private ParsedRowIterator(int columnFamilyIndex) {
+            this.columnFamilyIndex = columnFamilyIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null && !endOfColumnFamily) {
+                nextRow = readNextRow();
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public ParsedRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ParsedRow row = nextRow;
+            nextRow = null;
+            return row;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private ParsedRow readNextRow() {
+            try {
+                if (parser == null) {
+                    Long rowsOffset = columnFamilyIndex < rowsOffsets.size() ? rowsOffsets.get(columnFamilyIndex)
+                            : null;
+                    boolean onRows;
+                    if (rowsOffset != null) {
+                        parser = openParser(rowsOffset);
+                        onRows = parser.nextToken() == JsonToken.START_ARRAY;
+                    } else {
+                        parser = openParser();
+                        onRows = moveToRows();
+                    }
+                    if (!onRows) {
+                        close();
+                        return null;
+                    }
+                }
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    return jsonMapper.readValue(parser, ParsedRow.class);
+                }
+                close();
+                return null;
+            } catch (IOException e) {
+                close();
+                throw new ParseException(e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return true if the parser is on the start of the rows array of the column family
+         */
+        private boolean moveToRows() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !"columnFamilies".equals(fieldName)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                for (int i = 0; i < columnFamilyIndex; i++) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return false;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    fieldName = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && "rows".equals(fieldName)) {
+                        return true;
+                    }
+                    parser.skipChildren();
+                }
+                return false;
+            }
+            return false;
+        }
+
+        private void close() {
+            endOfColumnFamily = true;
+            if (parser != null) {
+                closeQuietly(parser);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.cassandraunit.dataset.json;
+
+import org.cassandraunit.dataset.StreamingDataSet;
+
+import java.io.InputStream;
+
+public class ClassPathStreamingJsonDataSet extends AbstractStreamingJsonDataSet implements StreamingDataSet {
+
+    public ClassPathStreamingJsonDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        InputStream inputDataSetLocation = this.getClass().getResourceAsStream("/" + dataSetLocation);
+        return inputDataSetLocation;
+    }
+
+}
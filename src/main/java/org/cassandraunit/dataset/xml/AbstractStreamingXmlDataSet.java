@@ -0,0 +1,381 @@
+package org.cassandraunit.dataset.xml;
+
+import org.cassandraunit.dataset.ContentDataSet;
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.SequentialReaderHolder;
+import org.cassandraunit.dataset.StreamingDataSet;
+import org.cassandraunit.dataset.StreamingDataSetHelper;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.KeyspaceModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.type.GenericTypeEnum;
+import org.cassandraunit.utils.ComparatorTypeHelper;
+import org.xml.sax.SAXException;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * XML dataset read with StAX, for datasets too big to be held in memory : the schema of the keyspace is read first,
+ * skipping the rows, then the rows of a column family are read one by one from the dataset each time they are
+ * iterated. JAXB maps the keyspace without its rows, then each row on its own. The schema validation, when enabled,
+ * is a streaming pass too.
+ * <p/>
+ * StAX gives no byte position to seek to : when the column families are iterated in the order of the dataset, as the
+ * sequential loading does, the reader which reached the end of a column family is kept open to read the next one, and
+ * the whole dataset is read in a single pass. A column family iterated out of order is reached by parsing the dataset
+ * again from its start.
+ */
+public abstract class AbstractStreamingXmlDataSet extends AbstractXmlDataSet implements StreamingDataSet,
+        ContentDataSet {
+
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    private static final String ROW_ELEMENT = "row";
+
+    /* xml column families, without their rows, by name */
+    private final Map<String, ColumnFamily> xmlColumnFamilies = new HashMap<String, ColumnFamily>();
+
+    /* position of the column families in the dataset, by name */
+    private final Map<String, Integer> columnFamilyIndexes = new HashMap<String, Integer>();
+
+    /* reader left on the start tag of the column family following the last one iterated to its end */
+    private final SequentialReaderHolder<XMLStreamReader> sequentialReader =
+            new SequentialReaderHolder<XMLStreamReader>() {
+                @Override
+                protected void close(XMLStreamReader reader) {
+                    closeQuietly(reader);
+                }
+            };
+
+    public AbstractStreamingXmlDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    public AbstractStreamingXmlDataSet(String dataSetLocation, boolean schemaValidation) {
+        super(dataSetLocation, schemaValidation);
+    }
+
+    /**
+     * @return the keyspace with its column families but without any row
+     */
+    @Override
+    org.cassandraunit.dataset.xml.Keyspace getXmlKeyspace() {
+        if (isSchemaValidation()) {
+            validate();
+        }
+
+        XMLStreamReader reader = openReader();
+        try {
+            org.cassandraunit.dataset.xml.Keyspace xmlKeyspace = getJAXBContext().createUnmarshaller()
+                    .unmarshal(new RowSkippingXMLStreamReader(reader), org.cassandraunit.dataset.xml.Keyspace.class)
+                    .getValue();
+            if (xmlKeyspace.getColumnFamilies() != null) {
+                List<ColumnFamily> columnFamilies = xmlKeyspace.getColumnFamilies().getColumnFamily();
+                for (int i = 0; i < columnFamilies.size(); i++) {
+                    xmlColumnFamilies.put(columnFamilies.get(i).getName(), columnFamilies.get(i));
+                    columnFamilyIndexes.put(columnFamilies.get(i).getName(), i);
+                }
+            }
+            return xmlKeyspace;
+        } catch (JAXBException e) {
+            throw new ParseException(e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * the keyspace is read without the cache of the parsed keyspaces, it holds no row to share : the rows of its
+     * column families are read on demand
+     */
+    @Override
+    KeyspaceModel readKeyspace() {
+        return StreamingDataSetHelper.installLazyRows(this, mapXmlKeyspaceToModel(getXmlKeyspace()));
+    }
+
+    @Override
+    public InputStream openContent() {
+        return openInput();
+    }
+
+    @Override
+    public Iterator<RowModel> getRowIterator(ColumnFamilyModel columnFamily) {
+        getKeyspace();
+        Integer columnFamilyIndex = columnFamilyIndexes.get(columnFamily.getName());
+        if (columnFamilyIndex == null) {
+            throw new ParseException("Column family " + columnFamily.getName() + " not found in the dataset");
+        }
+        return new RowIterator(columnFamily, xmlColumnFamilies.get(columnFamily.getName()), columnFamilyIndex);
+    }
+
+    private void validate() {
+        InputStream inputStream = openInput();
+        try {
+            getSchema().newValidator().validate(new StreamSource(inputStream));
+        } catch (SAXException e) {
+            throw new ParseException(e);
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                /* nothing more can be done */
+            }
+        }
+    }
+
+    private XMLStreamReader openReader() {
+        InputStream inputStream = openInput();
+        try {
+            return new InputClosingXMLStreamReader(xmlInputFactory.createXMLStreamReader(inputStream), inputStream);
+        } catch (XMLStreamException e) {
+            try {
+                inputStream.close();
+            } catch (IOException closeException) {
+                /* nothing more can be done */
+            }
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * @return true if the reader, at the start of the dataset, has been moved to the start tag of the column family
+     */
+    private static boolean moveToColumnFamily(XMLStreamReader reader, int columnFamilyIndex)
+            throws XMLStreamException {
+        reader.nextTag();
+        while (reader.nextTag() == START_ELEMENT) {
+            if (!"columnFamilies".equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+            int index = 0;
+            while (reader.nextTag() == START_ELEMENT) {
+                if (index++ == columnFamilyIndex) {
+                    return true;
+                }
+                skipElement(reader);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * skip an element and its content, the reader being on its start tag
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * @return the current event if it is a tag, the next tag otherwise
+     */
+    private static int currentOrNextTag(XMLStreamReader reader) throws XMLStreamException {
+        int event = reader.getEventType();
+        while (event != START_ELEMENT && event != END_ELEMENT) {
+            event = reader.next();
+        }
+        return event;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            /* nothing more can be done */
+        }
+    }
+
+    /**
+     * Reads the rows of one column family : the reader is moved to the column family, then each call to
+     * {@link #hasNext()} unmarshals at most one row.
+     */
+    private class RowIterator implements Iterator<RowModel> {
+
+        private final ColumnFamilyModel columnFamily;
+        private final ColumnFamily xmlColumnFamily;
+        private final int columnFamilyIndex;
+        private final GenericTypeEnum[] typesBelongingCompositeTypeForKeyType;
+        private final GenericTypeEnum[] typesBelongingCompositeTypeForComparatorType;
+
+        private XMLStreamReader reader = null;
+        private Unmarshaller unmarshaller = null;
+        /* true when the reader is on the event following a row, not read yet */
+        private boolean afterRow = false;
+        private RowModel nextRow = null;
+        private boolean endOfColumnFamily = false;
+
+        private RowIterator(ColumnFamilyModel columnFamily, ColumnFamily xmlColumnFamily, int columnFamilyIndex) {
+            this.columnFamily = columnFamily;
+            this.xmlColumnFamily = xmlColumnFamily;
+            this.columnFamilyIndex = columnFamilyIndex;
+            this.typesBelongingCompositeTypeForKeyType = ComparatorTypeHelper.extractCompositeTypes(
+                    columnFamily.getKeyType(), columnFamily.getKeyTypeAlias());
+            this.typesBelongingCompositeTypeForComparatorType = ComparatorTypeHelper.extractCompositeTypes(
+                    columnFamily.getComparatorType(), columnFamily.getComparatorTypeAlias());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null && !endOfColumnFamily) {
+                nextRow = readNextRow();
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public RowModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RowModel row = nextRow;
+            nextRow = null;
+            return row;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private RowModel readNextRow() {
+            try {
+                if (reader == null) {
+                    reader = sequentialReader.take(columnFamilyIndex);
+                    if (reader == null) {
+                        reader = openReader();
+                        if (!moveToColumnFamily(reader, columnFamilyIndex)) {
+                            close();
+                            return null;
+                        }
+                    }
+                    unmarshaller = getJAXBContext().createUnmarshaller();
+                }
+                int event = afterRow ? currentOrNextTag(reader) : reader.nextTag();
+                while (event == START_ELEMENT) {
+                    if (ROW_ELEMENT.equals(reader.getLocalName())) {
+                        Row xmlRow = unmarshaller.unmarshal(reader, Row.class).getValue();
+                        afterRow = true;
+                        return mapsXmlRowToRowModel(xmlColumnFamily.getColumnMetadata(), xmlRow,
+                                columnFamily.getKeyType(), typesBelongingCompositeTypeForKeyType,
+                                columnFamily.getComparatorType(), typesBelongingCompositeTypeForComparatorType,
+                                columnFamily.getSubComparatorType(), columnFamily.getDefaultColumnValueType());
+                    }
+                    skipElement(reader);
+                    event = reader.nextTag();
+                }
+                /* end tag of the column family, the next one may be read by the same reader */
+                endOfColumnFamily = true;
+                boolean nextColumnFamily = reader.nextTag() == START_ELEMENT;
+                XMLStreamReader columnFamilyReader = reader;
+                reader = null;
+                if (nextColumnFamily) {
+                    sequentialReader.hold(columnFamilyReader, columnFamilyIndex);
+                } else {
+                    closeQuietly(columnFamilyReader);
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                close();
+                throw new ParseException(e);
+            } catch (JAXBException e) {
+                close();
+                throw new ParseException(e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void close() {
+            endOfColumnFamily = true;
+            if (reader != null) {
+                closeQuietly(reader);
+                reader = null;
+            }
+        }
+    }
+
+    /**
+     * hides the rows of the column families, and their content, from the reader of the keyspace
+     */
+    private static class RowSkippingXMLStreamReader extends StreamReaderDelegate {
+
+        private RowSkippingXMLStreamReader(XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            while (event == START_ELEMENT && ROW_ELEMENT.equals(getLocalName())) {
+                skipElement(getParent());
+                event = super.next();
+            }
+            return event;
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while (event != START_ELEMENT && event != END_ELEMENT) {
+                if (event == CHARACTERS && !isWhiteSpace()) {
+                    throw new XMLStreamException("Text found instead of a tag", getLocation());
+                }
+                event = next();
+            }
+            return event;
+        }
+    }
+
+    /**
+     * closing a XMLStreamReader does not close its input
+     */
+    private static class InputClosingXMLStreamReader extends StreamReaderDelegate {
+
+        private final InputStream inputStream;
+
+        private InputClosingXMLStreamReader(XMLStreamReader reader, InputStream inputStream) {
+            super(reader);
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            try {
+                super.close();
+            } finally {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    /* nothing more can be done */
+                }
+            }
+        }
+    }
+}
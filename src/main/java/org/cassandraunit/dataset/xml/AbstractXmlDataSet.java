@@ -5,6 +5,8 @@ import me.prettyprint.hector.api.ddl.ColumnType;
 import me.prettyprint.hector.api.ddl.ComparatorType;
 import org.apache.commons.lang.StringUtils;
 import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.DataSetInput;
+import org.cassandraunit.dataset.KeyspaceModelCache;
 import org.cassandraunit.dataset.ParseException;
 import org.cassandraunit.model.*;
 import org.cassandraunit.type.GenericType;
@@ -29,23 +31,45 @@ import java.util.List;
  */
 public abstract class AbstractXmlDataSet implements DataSet {
 
+    private static JAXBContext jaxbContext = null;
+
+    private static Schema schema = null;
+
     private String dataSetLocation = null;
 
+    private boolean schemaValidation = true;
+
     private KeyspaceModel keyspace = null;
 
+    private final DataSetInput input;
+
     public AbstractXmlDataSet(String dataSetLocation) {
+        this(dataSetLocation, true);
+    }
+
+    /**
+     * @param schemaValidation false to skip the validation of the dataset against dataset.xsd, for trusted datasets
+     */
+    public AbstractXmlDataSet(String dataSetLocation, boolean schemaValidation) {
         this.dataSetLocation = dataSetLocation;
-        if (getInputDataSetLocation(dataSetLocation) == null) {
-            throw new ParseException("Dataset not found");
-        }
+        this.schemaValidation = schemaValidation;
+        this.input = new DataSetInput(dataSetLocation, new DataSetInput.Opener() {
+            @Override
+            public InputStream open(String dataSetLocation) {
+                return getInputDataSetLocation(dataSetLocation);
+            }
+        });
     }
 
-    private org.cassandraunit.dataset.xml.Keyspace getXmlKeyspace() {
-        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
-        if (inputDataSetLocation == null) {
-            throw new ParseException("Dataset not found in classpath");
-        }
+    InputStream openInput() {
+        return input.open();
+    }
 
+    org.cassandraunit.dataset.xml.Keyspace getXmlKeyspace() {
+        return unmarshal(openInput());
+    }
+
+    private org.cassandraunit.dataset.xml.Keyspace unmarshal(InputStream inputDataSetLocation) {
         try {
             Unmarshaller unmarshaller = getUnmarshaller();
             org.cassandraunit.dataset.xml.Keyspace xmlKeyspace = (org.cassandraunit.dataset.xml.Keyspace) unmarshaller
@@ -63,23 +87,44 @@ public abstract class AbstractXmlDataSet implements DataSet {
 
     protected abstract InputStream getInputDataSetLocation(String dataSetLocation);
 
-    private Unmarshaller getUnmarshaller() throws JAXBException, SAXException, URISyntaxException {
-        JAXBContext jc = JAXBContext.newInstance(org.cassandraunit.dataset.xml.Keyspace.class);
-        Unmarshaller unmarshaller = jc.createUnmarshaller();
+    String getDataSetLocation() {
+        return dataSetLocation;
+    }
 
-        SchemaFactory sf = SchemaFactory.newInstance(javax.xml.XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    boolean isSchemaValidation() {
+        return schemaValidation;
+    }
 
-        Schema schema = sf.newSchema(this.getClass().getResource("/dataset.xsd"));
+    private Unmarshaller getUnmarshaller() throws JAXBException, SAXException, URISyntaxException {
+        /* the context and the schema are thread safe and costly to build, the unmarshaller is not thread safe */
+        Unmarshaller unmarshaller = getJAXBContext().createUnmarshaller();
 
-        unmarshaller.setSchema(schema);
+        if (schemaValidation) {
+            unmarshaller.setSchema(getSchema());
+        }
 
         return unmarshaller;
     }
 
-    private void mapXmlKeyspaceToModel(org.cassandraunit.dataset.xml.Keyspace xmlKeyspace) {
+    static synchronized JAXBContext getJAXBContext() throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(org.cassandraunit.dataset.xml.Keyspace.class);
+        }
+        return jaxbContext;
+    }
+
+    static synchronized Schema getSchema() throws SAXException {
+        if (schema == null) {
+            SchemaFactory sf = SchemaFactory.newInstance(javax.xml.XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            schema = sf.newSchema(AbstractXmlDataSet.class.getResource("/dataset.xsd"));
+        }
+        return schema;
+    }
+
+    KeyspaceModel mapXmlKeyspaceToModel(org.cassandraunit.dataset.xml.Keyspace xmlKeyspace) {
 
         /* keyspace */
-        keyspace = new KeyspaceModel();
+        KeyspaceModel keyspace = new KeyspaceModel();
         keyspace.setName(xmlKeyspace.getName());
 
         /* optional conf */
@@ -91,10 +136,12 @@ public abstract class AbstractXmlDataSet implements DataSet {
             keyspace.setStrategy(StrategyModel.fromValue(xmlKeyspace.getStrategy().value()));
         }
 
-        mapsXmlColumnFamiliesToColumnFamiliesModel(xmlKeyspace);
+        mapsXmlColumnFamiliesToColumnFamiliesModel(keyspace, xmlKeyspace);
+        return keyspace;
     }
 
-    private void mapsXmlColumnFamiliesToColumnFamiliesModel(org.cassandraunit.dataset.xml.Keyspace xmlKeyspace) {
+    private void mapsXmlColumnFamiliesToColumnFamiliesModel(KeyspaceModel keyspace,
+                                                            org.cassandraunit.dataset.xml.Keyspace xmlKeyspace) {
 
         if (xmlKeyspace.getColumnFamilies() != null) {
             /* there is column families to integrate */
@@ -250,7 +297,7 @@ public abstract class AbstractXmlDataSet implements DataSet {
         return rowsModel;
     }
 
-    private RowModel mapsXmlRowToRowModel(List<ColumnMetadata> columnMetaData, Row xmlRow, ComparatorType keyType,
+    RowModel mapsXmlRowToRowModel(List<ColumnMetadata> columnMetaData, Row xmlRow, ComparatorType keyType,
                                           GenericTypeEnum[] typesBelongingCompositeTypeForKeyType, ComparatorType comparatorType,
                                           GenericTypeEnum[] typesBelongingCompositeTypeForComparatorType, ComparatorType subComparatorType,
                                           ComparatorType defaultColumnValueType) {
@@ -390,12 +437,24 @@ public abstract class AbstractXmlDataSet implements DataSet {
     @Override
     public KeyspaceModel getKeyspace() {
         if (keyspace == null) {
-            org.cassandraunit.dataset.xml.Keyspace xmlKeyspace = getXmlKeyspace();
-            mapXmlKeyspaceToModel(xmlKeyspace);
+            keyspace = readKeyspace();
         }
         return keyspace;
     }
 
+    /**
+     * @return the keyspace, parsed once for all the datasets with the same content and validation
+     */
+    KeyspaceModel readKeyspace() {
+        return input.readKeyspace(schemaValidation ? "xml" : "xml-without-validation",
+                new KeyspaceModelCache.Parser() {
+                    @Override
+                    public KeyspaceModel parse(InputStream content) {
+                        return mapXmlKeyspaceToModel(unmarshal(content));
+                    }
+                });
+    }
+
     @Override
     public List<ColumnFamilyModel> getColumnFamilies() {
         if (keyspace == null) {
@@ -0,0 +1,23 @@
+package org.cassandraunit.dataset.xml;
+
+import org.cassandraunit.dataset.StreamingDataSet;
+
+import java.io.InputStream;
+
+public class ClassPathStreamingXmlDataSet extends AbstractStreamingXmlDataSet implements StreamingDataSet {
+
+    public ClassPathStreamingXmlDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    public ClassPathStreamingXmlDataSet(String dataSetLocation, boolean schemaValidation) {
+        super(dataSetLocation, schemaValidation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        InputStream inputDataSetLocation = this.getClass().getResourceAsStream("/" + dataSetLocation);
+        return inputDataSetLocation;
+    }
+
+}
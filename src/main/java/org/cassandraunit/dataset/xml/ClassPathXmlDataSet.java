@@ -10,6 +10,10 @@ public class ClassPathXmlDataSet extends AbstractXmlDataSet implements DataSet {
         super(dataSetLocation);
     }
 
+    public ClassPathXmlDataSet(String dataSetLocation, boolean schemaValidation) {
+        super(dataSetLocation, schemaValidation);
+    }
+
     @Override
     protected InputStream getInputDataSetLocation(String dataSetLocation) {
         InputStream inputDataSetLocation = this.getClass().getResourceAsStream("/" + dataSetLocation);
@@ -0,0 +1,31 @@
+package org.cassandraunit.dataset.xml;
+
+import org.cassandraunit.dataset.StreamingDataSet;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+
+public class FileStreamingXmlDataSet extends AbstractStreamingXmlDataSet implements StreamingDataSet {
+
+    public FileStreamingXmlDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    public FileStreamingXmlDataSet(String dataSetLocation, boolean schemaValidation) {
+        super(dataSetLocation, schemaValidation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        if (dataSetLocation == null) {
+            return null;
+        }
+        try {
+            return new FileInputStream(dataSetLocation);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+}
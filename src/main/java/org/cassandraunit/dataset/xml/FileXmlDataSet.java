@@ -12,6 +12,10 @@ public class FileXmlDataSet extends AbstractXmlDataSet implements DataSet {
         super(dataSetLocation);
     }
 
+    public FileXmlDataSet(String dataSetLocation, boolean schemaValidation) {
+        super(dataSetLocation, schemaValidation);
+    }
+
     @Override
     protected InputStream getInputDataSetLocation(String dataSetLocation) {
         if (dataSetLocation == null) {
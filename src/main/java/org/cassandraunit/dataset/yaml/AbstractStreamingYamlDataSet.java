@@ -0,0 +1,397 @@
+package org.cassandraunit.dataset.yaml;
+
+import org.cassandraunit.dataset.ContentDataSet;
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.SequentialReaderHolder;
+import org.cassandraunit.dataset.commons.AbstractCommonsStreamingParserDataSet;
+import org.cassandraunit.dataset.commons.ParsedColumnFamily;
+import org.cassandraunit.dataset.commons.ParsedKeyspace;
+import org.cassandraunit.dataset.commons.ParsedRow;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * YAML dataset read from the SnakeYAML events, for datasets too big to be held in memory : no node graph of the whole
+ * document is built, the keyspace and its column families are read first, skipping the rows, then the rows of a
+ * column family are read one by one from the dataset each time they are iterated.
+ * <p/>
+ * A block of YAML can not be parsed apart from the indentation of the document : when the column families are
+ * iterated in the order of the dataset, as the sequential loading does, the reader which reached the end of a column
+ * family is kept open to read the next one, and the whole dataset is parsed in a single pass. A column family
+ * iterated out of order is reached by parsing the dataset again from its start.
+ */
+public abstract class AbstractStreamingYamlDataSet extends AbstractCommonsStreamingParserDataSet implements
+        ContentDataSet {
+
+    /* binds the maps and lists read from the events to the parsed beans */
+    private static final ObjectMapper beanMapper = new ObjectMapper();
+
+    private String dataSetLocation = null;
+
+    /* reader left after the start of the column family following the last one iterated to its end */
+    private final SequentialReaderHolder<EventReader> sequentialReader = new SequentialReaderHolder<EventReader>() {
+        @Override
+        protected void close(EventReader reader) {
+            reader.close();
+        }
+    };
+
+    public AbstractStreamingYamlDataSet(String dataSetLocation) {
+        this.dataSetLocation = dataSetLocation;
+        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
+        if (inputDataSetLocation == null) {
+            throw new ParseException("Dataset not found");
+        }
+        closeQuietly(inputDataSetLocation);
+    }
+
+    /**
+     * @return the keyspace with its column families but without any row
+     */
+    @Override
+    protected ParsedKeyspace getParsedKeyspace() {
+        EventReader reader = new EventReader();
+        try {
+            if (!reader.moveToDocument()) {
+                return null;
+            }
+            Map<String, Object> keyspaceValues = new LinkedHashMap<String, Object>();
+            List<ParsedColumnFamily> parsedColumnFamilies = new ArrayList<ParsedColumnFamily>();
+            Event event;
+            while (!((event = reader.next()) instanceof MappingEndEvent)) {
+                String key = reader.readKey(event);
+                event = reader.next();
+                if (event instanceof SequenceStartEvent && "columnFamilies".equals(key)) {
+                    while (!((event = reader.next()) instanceof SequenceEndEvent)) {
+                        parsedColumnFamilies.add(readColumnFamilyWithoutRows(reader, event));
+                    }
+                } else {
+                    keyspaceValues.put(key, reader.readValue(event));
+                }
+            }
+            ParsedKeyspace parsedKeyspace = beanMapper.convertValue(keyspaceValues, ParsedKeyspace.class);
+            parsedKeyspace.setColumnFamilies(parsedColumnFamilies);
+            return parsedKeyspace;
+        } catch (YAMLException e) {
+            throw new ParseException(e);
+        } catch (IllegalArgumentException e) {
+            throw new ParseException(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Override
+    protected Iterator<ParsedRow> getParsedRowIterator(int columnFamilyIndex) {
+        return new ParsedRowIterator(columnFamilyIndex);
+    }
+
+    @Override
+    public InputStream openContent() {
+        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
+        if (inputDataSetLocation == null) {
+            throw new ParseException("Dataset not found");
+        }
+        return inputDataSetLocation;
+    }
+
+    /**
+     * read a column family mapping, the event being its start, the rows being skipped
+     */
+    private ParsedColumnFamily readColumnFamilyWithoutRows(EventReader reader, Event columnFamilyEvent) {
+        if (!(columnFamilyEvent instanceof MappingStartEvent)) {
+            throw new ParseException("Column family definition expected at " + columnFamilyEvent.getStartMark());
+        }
+        Map<String, Object> columnFamilyValues = new LinkedHashMap<String, Object>();
+        Event event;
+        while (!((event = reader.next()) instanceof MappingEndEvent)) {
+            String key = reader.readKey(event);
+            event = reader.next();
+            if ("rows".equals(key)) {
+                reader.skipValue(event);
+            } else {
+                columnFamilyValues.put(key, reader.readValue(event));
+            }
+        }
+        return beanMapper.convertValue(columnFamilyValues, ParsedColumnFamily.class);
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            /* nothing more can be done */
+        }
+    }
+
+    /**
+     * the events of the dataset, read on demand
+     */
+    private class EventReader {
+
+        private final Reader input;
+        private final Iterator<Event> events;
+
+        private EventReader() {
+            input = new UnicodeReader(openContent());
+            events = new Yaml().parse(input).iterator();
+        }
+
+        private Event next() {
+            if (!events.hasNext()) {
+                throw new ParseException("Unexpected end of the dataset");
+            }
+            return events.next();
+        }
+
+        /**
+         * @return true if the next event is the start of the keyspace mapping
+         */
+        private boolean moveToDocument() {
+            while (events.hasNext()) {
+                Event event = events.next();
+                if (event instanceof MappingStartEvent) {
+                    return true;
+                }
+                if (event instanceof ScalarEvent || event instanceof SequenceStartEvent
+                        || event instanceof DocumentEndEvent || event instanceof StreamEndEvent) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private String readKey(Event event) {
+            if (!(event instanceof ScalarEvent)) {
+                throw new ParseException("Unexpected key at " + event.getStartMark());
+            }
+            return ((ScalarEvent) event).getValue();
+        }
+
+        /**
+         * @return the value starting with the event, as a string, a map or a list
+         */
+        private Object readValue(Event event) {
+            if (event instanceof ScalarEvent) {
+                ScalarEvent scalarEvent = (ScalarEvent) event;
+                if (scalarEvent.getImplicit().canOmitTagInPlainScalar() && isNull(scalarEvent.getValue())) {
+                    return null;
+                }
+                return scalarEvent.getValue();
+            }
+            if (event instanceof MappingStartEvent) {
+                Map<String, Object> values = new LinkedHashMap<String, Object>();
+                Event keyEvent;
+                while (!((keyEvent = next()) instanceof MappingEndEvent)) {
+                    String key = readKey(keyEvent);
+                    values.put(key, readValue(next()));
+                }
+                return values;
+            }
+            if (event instanceof SequenceStartEvent) {
+                List<Object> values = new ArrayList<Object>();
+                Event valueEvent;
+                while (!((valueEvent = next()) instanceof SequenceEndEvent)) {
+                    values.add(readValue(valueEvent));
+                }
+                return values;
+            }
+            throw new ParseException("Aliases are not supported, at " + event.getStartMark());
+        }
+
+        /**
+         * skip the value starting with the event
+         */
+        private void skipValue(Event event) {
+            int depth = event instanceof CollectionStartEvent ? 1 : 0;
+            while (depth > 0) {
+                Event nextEvent = next();
+                if (nextEvent instanceof CollectionStartEvent) {
+                    depth++;
+                } else if (nextEvent instanceof CollectionEndEvent) {
+                    depth--;
+                }
+            }
+        }
+
+        private boolean isNull(String value) {
+            return value.length() == 0 || "~".equals(value) || "null".equalsIgnoreCase(value);
+        }
+
+        private void close() {
+            try {
+                input.close();
+            } catch (IOException e) {
+                /* nothing more can be done */
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of one column family : the events are read up to the rows of the column family, then each call
+     * to {@link #hasNext()} reads at most one row.
+     */
+    private class ParsedRowIterator implements Iterator<ParsedRow> {
+
+        private final int columnFamilyIndex;
+
+        private EventReader reader = null;
+        private ParsedRow nextRow = null;
+        private boolean endOfColumnFamily = false;
+
+        private ParsedRowIterator(int columnFamilyIndex) {
+            this.columnFamilyIndex = columnFamilyIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null && !endOfColumnFamily) {
+                nextRow = readNextRow();
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public ParsedRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ParsedRow row = nextRow;
+            nextRow = null;
+            return row;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private ParsedRow readNextRow() {
+            try {
+                if (reader == null) {
+                    reader = sequentialReader.take(columnFamilyIndex);
+                    if (reader == null) {
+                        reader = new EventReader();
+                        if (!moveToColumnFamily()) {
+                            close();
+                            return null;
+                        }
+                    }
+                    if (!moveToRows()) {
+                        endColumnFamily();
+                        return null;
+                    }
+                }
+                Event event = reader.next();
+                if (event instanceof MappingStartEvent) {
+                    return beanMapper.convertValue(reader.readValue(event), ParsedRow.class);
+                }
+                /* end of the rows, the keys following them are skipped up to the end of the column family */
+                while (!((event = reader.next()) instanceof MappingEndEvent)) {
+                    reader.readKey(event);
+                    reader.skipValue(reader.next());
+                }
+                endColumnFamily();
+                return null;
+            } catch (YAMLException e) {
+                close();
+                throw new ParseException(e);
+            } catch (IllegalArgumentException e) {
+                close();
+                throw new ParseException(e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return true if the last event read is the start of the column family mapping
+         */
+        private boolean moveToColumnFamily() {
+            if (!reader.moveToDocument()) {
+                return false;
+            }
+            Event event;
+            while (!((event = reader.next()) instanceof MappingEndEvent)) {
+                String key = reader.readKey(event);
+                event = reader.next();
+                if (!(event instanceof SequenceStartEvent) || !"columnFamilies".equals(key)) {
+                    reader.skipValue(event);
+                    continue;
+                }
+                for (int i = 0; i < columnFamilyIndex; i++) {
+                    event = reader.next();
+                    if (event instanceof SequenceEndEvent) {
+                        return false;
+                    }
+                    reader.skipValue(event);
+                }
+                return reader.next() instanceof MappingStartEvent;
+            }
+            return false;
+        }
+
+        /**
+         * @return true if the last event read is the start of the rows sequence of the column family, false if the
+         * end of the column family mapping has been read
+         */
+        private boolean moveToRows() {
+            Event event;
+            while (!((event = reader.next()) instanceof MappingEndEvent)) {
+                String key = reader.readKey(event);
+                event = reader.next();
+                if (event instanceof SequenceStartEvent && "rows".equals(key)) {
+                    return true;
+                }
+                reader.skipValue(event);
+            }
+            return false;
+        }
+
+        /**
+         * the end of the column family mapping being read, the reader is kept for the next column family if any
+         */
+        private void endColumnFamily() {
+            endOfColumnFamily = true;
+            boolean nextColumnFamily = reader.next() instanceof MappingStartEvent;
+            EventReader columnFamilyReader = reader;
+            reader = null;
+            if (nextColumnFamily) {
+                sequentialReader.hold(columnFamilyReader, columnFamilyIndex);
+            } else {
+                columnFamilyReader.close();
+            }
+        }
+
+        private void close() {
+            endOfColumnFamily = true;
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+}
@@ -11,31 +11,20 @@ import java.io.InputStream;
 
 public abstract class AbstractYamlDataSet extends AbstractCommonsParserDataSet implements DataSet {
 
-    private String dataSetLocation = null;
-
-    public AbstractYamlDataSet(String dataSetLocation) {
-        this.dataSetLocation = dataSetLocation;
-        if (getInputDataSetLocation(dataSetLocation) == null) {
-            throw new ParseException("Dataset not found");
-        }
-    }
-
-    @Override
-    protected ParsedKeyspace getParsedKeyspace() {
-        InputStream inputDataSetLocation = getInputDataSetLocation(dataSetLocation);
-        if (inputDataSetLocation == null) {
-            throw new ParseException("Dataset not found in classpath");
+    private static final ParsedKeyspaceReader yamlReader = new ParsedKeyspaceReader() {
+        @Override
+        public ParsedKeyspace read(InputStream content) {
+            Yaml yaml = new Yaml();
+            try {
+                return yaml.loadAs(content, ParsedKeyspace.class);
+            } catch (YAMLException e) {
+                throw new ParseException(e);
+            }
         }
+    };
 
-        Yaml yaml = new Yaml();
-        try {
-            ParsedKeyspace keyspace = yaml.loadAs(inputDataSetLocation, ParsedKeyspace.class);
-            return keyspace;
-        } catch (YAMLException e) {
-            throw new ParseException(e);
-        }
+    public AbstractYamlDataSet(String dataSetLocation) {
+        super(dataSetLocation, "yaml", yamlReader);
     }
 
-    protected abstract InputStream getInputDataSetLocation(String dataSetLocation);
-
 }
@@ -0,0 +1,19 @@
+package org.cassandraunit.dataset.yaml;
+
+import org.cassandraunit.dataset.StreamingDataSet;
+
+import java.io.InputStream;
+
+public class ClassPathStreamingYamlDataSet extends AbstractStreamingYamlDataSet implements StreamingDataSet {
+
+    public ClassPathStreamingYamlDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        InputStream inputDataSetLocation = this.getClass().getResourceAsStream("/" + dataSetLocation);
+        return inputDataSetLocation;
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.cassandraunit.dataset.yaml;
+
+import org.cassandraunit.dataset.StreamingDataSet;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+
+public class FileStreamingYamlDataSet extends AbstractStreamingYamlDataSet implements StreamingDataSet {
+
+    public FileStreamingYamlDataSet(String dataSetLocation) {
+        super(dataSetLocation);
+    }
+
+    @Override
+    protected InputStream getInputDataSetLocation(String dataSetLocation) {
+        if (dataSetLocation == null) {
+            return null;
+        }
+        try {
+            return new FileInputStream(dataSetLocation);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+}
@@ -34,6 +34,8 @@ public class ColumnFamilyModel {
 
     private List<RowModel> rows = new ArrayList<RowModel>();
 
+    private Iterable<RowModel> lazyRows = null;
+
     public String getName() {
         return name;
     }
@@ -82,6 +84,29 @@ public class ColumnFamilyModel {
         return rows;
     }
 
+    /**
+     * @return the rows of the column family, read on demand from the dataset when it streams them (see
+     *         {@link #setLazyRows(Iterable)}), the rows list otherwise
+     */
+    public Iterable<RowModel> getRowIterable() {
+        if (lazyRows != null) {
+            return lazyRows;
+        }
+        return rows;
+    }
+
+    /**
+     * rows produced on demand by a streaming dataset, each iteration reading them again from the dataset. The rows
+     * list stays empty, the rows are never all held in memory.
+     */
+    public void setLazyRows(Iterable<RowModel> lazyRows) {
+        this.lazyRows = lazyRows;
+    }
+
+    public boolean hasLazyRows() {
+        return lazyRows != null;
+    }
+
     public void setDefaultColumnValueType(ComparatorType defaultColumnValueType) {
         this.defaultColumnValueType = defaultColumnValueType;
     }
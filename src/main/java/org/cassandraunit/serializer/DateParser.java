@@ -0,0 +1,174 @@
+package org.cassandraunit.serializer;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Thread safe parser of the dates of the datasets, in milliseconds since the epoch. The accepted formats are :
+ * <ul>
+ * <li>yyyyMMdd HHmmss, in the default time zone, the historical format of the datasets</li>
+ * <li>ISO-8601 : yyyy-MM-dd, optionally followed by THH:mm, :ss, a fraction of second and a time zone (Z, +HH,
+ * +HHmm or +HH:mm), in the default time zone when there is none</li>
+ * <li>milliseconds since the epoch</li>
+ * </ul>
+ * Each thread reuses its own calendar, a date is parsed without any other allocation.
+ */
+final class DateParser {
+
+    private static final ThreadLocal<Calendar> calendars = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return Calendar.getInstance();
+        }
+    };
+
+    private static final ThreadLocal<Calendar> utcCalendars = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        }
+    };
+
+    private DateParser() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not in one of the accepted formats
+     */
+    static long parse(String value) {
+        int length = value.length();
+        if (length == 15 && value.charAt(8) == ' ') {
+            return toMillis(calendars.get(), digits(value, 0, 4), digits(value, 4, 6), digits(value, 6, 8),
+                    digits(value, 9, 11), digits(value, 11, 13), digits(value, 13, 15), 0);
+        }
+        if (length >= 10 && value.charAt(4) == '-' && value.charAt(7) == '-') {
+            return parseIso8601(value);
+        }
+        return parseEpochMillis(value);
+    }
+
+    private static long parseIso8601(String value) {
+        int length = value.length();
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millisecond = 0;
+
+        int position = 10;
+        if (position < length && value.charAt(position) == 'T') {
+            hour = digits(value, position + 1, position + 3);
+            expect(value, position + 3, ':');
+            minute = digits(value, position + 4, position + 6);
+            position += 6;
+            if (position < length && value.charAt(position) == ':') {
+                second = digits(value, position + 1, position + 3);
+                position += 3;
+                if (position < length && (value.charAt(position) == '.' || value.charAt(position) == ',')) {
+                    int fractionStart = ++position;
+                    while (position < length && isDigit(value.charAt(position))) {
+                        /* digits after the milliseconds are ignored */
+                        if (position - fractionStart < 3) {
+                            millisecond = millisecond * 10 + (value.charAt(position) - '0');
+                        }
+                        position++;
+                    }
+                    if (position == fractionStart) {
+                        throw invalid(value);
+                    }
+                    for (int i = position - fractionStart; i < 3; i++) {
+                        millisecond *= 10;
+                    }
+                }
+            }
+        }
+
+        if (position == length) {
+            return toMillis(calendars.get(), year, month, day, hour, minute, second, millisecond);
+        }
+
+        long millis = toMillis(utcCalendars.get(), year, month, day, hour, minute, second, millisecond);
+        char zone = value.charAt(position);
+        if (zone == 'Z' && position + 1 == length) {
+            return millis;
+        }
+        if (zone != '+' && zone != '-') {
+            throw invalid(value);
+        }
+        int offsetHours = digits(value, position + 1, position + 3);
+        int offsetMinutes = 0;
+        position += 3;
+        if (position < length && value.charAt(position) == ':') {
+            position++;
+        }
+        if (position < length) {
+            offsetMinutes = digits(value, position, position + 2);
+            position += 2;
+        }
+        if (position != length) {
+            throw invalid(value);
+        }
+        long offset = (offsetHours * 60L + offsetMinutes) * 60L * 1000L;
+        return zone == '+' ? millis - offset : millis + offset;
+    }
+
+    private static long parseEpochMillis(String value) {
+        int length = value.length();
+        int position = value.startsWith("-") ? 1 : 0;
+        if (position == length || length - position > 18) {
+            throw invalid(value);
+        }
+        long millis = 0;
+        for (; position < length; position++) {
+            char c = value.charAt(position);
+            if (!isDigit(c)) {
+                throw invalid(value);
+            }
+            millis = millis * 10 + (c - '0');
+        }
+        return value.startsWith("-") ? -millis : millis;
+    }
+
+    /**
+     * the calendar is lenient, as the date format used to be : out of range fields roll over
+     */
+    private static long toMillis(Calendar calendar, int year, int month, int day, int hour, int minute, int second,
+                                 int millisecond) {
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        calendar.set(Calendar.MILLISECOND, millisecond);
+        return calendar.getTimeInMillis();
+    }
+
+    private static int digits(String value, int start, int end) {
+        if (end > value.length()) {
+            throw invalid(value);
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                throw invalid(value);
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static void expect(String value, int position, char expected) {
+        if (position >= value.length() || value.charAt(position) != expected) {
+            throw invalid(value);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(String value) {
+        return new IllegalArgumentException("\"" + value
+                + "\" is neither yyyyMMdd HHmmss, nor ISO-8601, nor milliseconds since the epoch");
+    }
+}
@@ -1,20 +1,6 @@
 package org.cassandraunit.serializer;
 
 import me.prettyprint.cassandra.serializers.AbstractSerializer;
-import me.prettyprint.cassandra.serializers.BooleanSerializer;
-import me.prettyprint.cassandra.serializers.ByteBufferSerializer;
-import me.prettyprint.cassandra.serializers.BytesArraySerializer;
-import me.prettyprint.cassandra.serializers.CompositeSerializer;
-import me.prettyprint.cassandra.serializers.DateSerializer;
-import me.prettyprint.cassandra.serializers.DoubleSerializer;
-import me.prettyprint.cassandra.serializers.FloatSerializer;
-import me.prettyprint.cassandra.serializers.IntegerSerializer;
-import me.prettyprint.cassandra.serializers.LongSerializer;
-import me.prettyprint.cassandra.serializers.StringSerializer;
-import me.prettyprint.cassandra.serializers.UUIDSerializer;
-import me.prettyprint.hector.api.beans.Composite;
-import org.apache.commons.codec.DecoderException;
-import org.apache.commons.codec.binary.Hex;
 import org.cassandraunit.exception.CassandraUnitException;
 import org.cassandraunit.type.GenericType;
 import org.cassandraunit.type.GenericTypeEnum;
@@ -23,11 +9,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.UUID;
-import java.util.regex.Pattern;
 
 /**
  * @author Jeremy Sevellec
@@ -35,9 +20,17 @@ import java.util.regex.Pattern;
 public class GenericTypeSerializer extends AbstractSerializer<GenericType> {
 
     private static final GenericTypeSerializer instance = new GenericTypeSerializer();
-    private static final Pattern hexPattern = Pattern.compile("[0-9abcdefABCDEF]+");
-    private static final Pattern base64Pattern = Pattern.compile("[0-9a-zA-Z/+]+={0,3}");
-
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte EQUAL_COMPONENT = 0;
+
+    /**
+     * historical format of the dates, not thread safe.
+     *
+     * @deprecated not used any more : the dates are parsed by DateParser, which ignores this format and also accepts
+     * ISO-8601 and milliseconds since the epoch. Unlike {@link DateFormat#parse(String)}, DateParser rejects the
+     * characters following a date, "20130102 030405 UTC" is not a date any more.
+     */
+    @Deprecated
     public static final DateFormat dateFormat = new SimpleDateFormat("yyyyMMdd HHmmss");
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -55,111 +48,165 @@ public class GenericTypeSerializer extends AbstractSerializer<GenericType> {
 
     @Override
     public ByteBuffer toByteBuffer(GenericType genericType) {
-        ByteBuffer byteBuffer = null;
+        if (genericType.getSerializedValue() != null) {
+            return genericType.getSerializedValue().duplicate();
+        }
 
         GenericTypeEnum currentType = genericType.getType();
-
         if (currentType == null) {
             currentType = GenericTypeEnum.BYTES_TYPE;
         }
 
-        if (currentType == null) {
+        if (currentType == GenericTypeEnum.COMPOSITE_TYPE) {
+            return compositeToByteBuffer(genericType);
+        }
+        return toByteBuffer(genericType.getValue(), currentType);
+    }
 
-        } else {
-            String genericValue = genericType.getValue();
-
-            switch (genericType.getType()) {
-
-                case BOOLEAN_TYPE:
-                    byteBuffer = BooleanSerializer.get().toByteBuffer(Boolean.parseBoolean(genericValue));
-                    break;
-                case BYTES_TYPE:
-                    byte[] decodedBytes;
-                    try {
-                        if (genericValue.isEmpty()) {
-                            byteBuffer = ByteBufferSerializer.get().fromBytes(new byte[0]);
-                        } else if (isHex(genericValue)) {
-                            decodedBytes = Hex.decodeHex(genericValue.toCharArray());
-                            byteBuffer = ByteBufferSerializer.get().fromBytes(decodedBytes);
-                        } else if (isBase64(genericValue)) {
-                            decodedBytes = Base64.decode(genericValue);
-                            byteBuffer = ByteBufferSerializer.get().fromBytes(decodedBytes);
-                        } else {
-                            throw new CassandraUnitException("Failed to parse \"" + genericValue + "\" as bytes: unknown binary encoding.");
-                        }
-                    } catch (DecoderException e) {
-                        throw new CassandraUnitException("Failed to parse \"" + genericValue + "\" as bytes", e);
-                    }
-                    break;
-                case DATE_TYPE:
-                    try {
-                        byteBuffer = DateSerializer.get().toByteBuffer(dateFormat.parse(genericValue));
-                    } catch (ParseException e) {
-                        throw new CassandraUnitException("cannot parse \"" + genericValue + "\" as date", e);
-                    }
-                    break;
-                case DOUBLE_TYPE:
-                    byteBuffer = DoubleSerializer.get().toByteBuffer(Double.parseDouble(genericValue));
-                    break;
-                case FLOAT_TYPE:
-                    byteBuffer = FloatSerializer.get().toByteBuffer(Float.parseFloat(genericValue));
-                    break;
-                case INTEGER_TYPE:
-                    int val = Integer.parseInt(genericValue);
-                    byteBuffer = IntegerSerializer.get().toByteBuffer(val);
-                    break;
-                case LEXICAL_UUID_TYPE:
-                    byteBuffer = UUIDSerializer.get().toByteBuffer(UUID.fromString(genericValue));
-                    break;
-                case LONG_TYPE:
-                    byteBuffer = LongSerializer.get().toByteBuffer(Long.parseLong(genericValue));
-                    break;
-                case TIME_UUID_TYPE:
-                    byteBuffer = UUIDSerializer.get().toByteBuffer(UUID.fromString(genericValue));
-                    break;
-                case ASCII_TYPE:
-                case UTF_8_TYPE:
-                    byteBuffer = StringSerializer.get().toByteBuffer(genericValue);
-                    break;
-                case UUID_TYPE:
-                    byteBuffer = UUIDSerializer.get().toByteBuffer(UUID.fromString(genericValue));
-                    break;
-                case COUNTER_TYPE:
-                    byteBuffer = LongSerializer.get().toByteBuffer(Long.parseLong(genericValue));
-                    break;
-                case COMPOSITE_TYPE:
-                    byteBuffer = new CompositeSerializer().toByteBuffer(createComposite(genericType));
-                    break;
-                default:
-                    byteBuffer = BytesArraySerializer.get().toByteBuffer(genericValue.getBytes());
-                    break;
-            }
+    /**
+     * the values are encoded directly, with the same layout as the Hector serializers
+     */
+    private ByteBuffer toByteBuffer(String genericValue, GenericTypeEnum type) {
+        switch (type) {
+            case BOOLEAN_TYPE:
+                return ByteBuffer.wrap(new byte[]{Boolean.parseBoolean(genericValue) ? (byte) 1 : (byte) 0});
+            case BYTES_TYPE:
+                return ByteBuffer.wrap(decodeBytes(genericValue));
+            case DATE_TYPE:
+                try {
+                    return longToByteBuffer(DateParser.parse(genericValue));
+                } catch (IllegalArgumentException e) {
+                    throw new CassandraUnitException("cannot parse \"" + genericValue + "\" as date", e);
+                }
+            case DOUBLE_TYPE:
+                return longToByteBuffer(Double.doubleToRawLongBits(Double.parseDouble(genericValue)));
+            case FLOAT_TYPE:
+                return intToByteBuffer(Float.floatToRawIntBits(Float.parseFloat(genericValue)));
+            case INTEGER_TYPE:
+                return intToByteBuffer(Integer.parseInt(genericValue));
+            case LONG_TYPE:
+            case COUNTER_TYPE:
+                return longToByteBuffer(Long.parseLong(genericValue));
+            case LEXICAL_UUID_TYPE:
+            case TIME_UUID_TYPE:
+            case UUID_TYPE:
+                UUID uuid = UUID.fromString(genericValue);
+                ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+                byteBuffer.putLong(0, uuid.getMostSignificantBits());
+                byteBuffer.putLong(8, uuid.getLeastSignificantBits());
+                return byteBuffer;
+            case ASCII_TYPE:
+            case UTF_8_TYPE:
+                return ByteBuffer.wrap(genericValue.getBytes(UTF8));
+            default:
+                return ByteBuffer.wrap(genericValue.getBytes());
         }
+    }
+
+    private static ByteBuffer intToByteBuffer(int value) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(4);
+        byteBuffer.putInt(0, value);
         return byteBuffer;
     }
 
-    private boolean isHex(String genericValue) {
-        return hexPattern.matcher(genericValue).matches();
+    private static ByteBuffer longToByteBuffer(long value) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(8);
+        byteBuffer.putLong(0, value);
+        return byteBuffer;
     }
 
-    private boolean isBase64(String genericValue) {
-        if (!(genericValue.length() % 4 == 0))
-            return false;
-        return base64Pattern.matcher(genericValue).matches();
+    /**
+     * bytes are written in hexadecimal, or in base64 when they are not hexadecimal
+     */
+    private static byte[] decodeBytes(String genericValue) {
+        if (genericValue.isEmpty()) {
+            return new byte[0];
+        }
+        byte[] decodedBytes = decodeHex(genericValue);
+        if (decodedBytes == null && isBase64(genericValue)) {
+            decodedBytes = Base64.decodeFast(genericValue);
+        }
+        if (decodedBytes == null) {
+            throw new CassandraUnitException("Failed to parse \"" + genericValue + "\" as bytes: unknown binary encoding.");
+        }
+        return decodedBytes;
     }
 
-    private Composite createComposite(GenericType genericType) {
-        if (!GenericTypeEnum.COMPOSITE_TYPE.equals(genericType.getType())) {
-            throw new IllegalArgumentException("the generricType must be a CompositeType");
+    /**
+     * @return the decoded bytes, null if the value is not hexadecimal
+     */
+    private static byte[] decodeHex(String genericValue) {
+        int length = genericValue.length();
+        for (int i = 0; i < length; i++) {
+            if (hexDigit(genericValue.charAt(i)) < 0) {
+                return null;
+            }
+        }
+        if (length % 2 != 0) {
+            throw new CassandraUnitException("Failed to parse \"" + genericValue + "\" as bytes: odd number of characters.");
         }
+        byte[] decodedBytes = new byte[length / 2];
+        for (int i = 0; i < decodedBytes.length; i++) {
+            decodedBytes[i] = (byte) (hexDigit(genericValue.charAt(2 * i)) << 4
+                    | hexDigit(genericValue.charAt(2 * i + 1)));
+        }
+        return decodedBytes;
+    }
 
-        Composite composite = new Composite();
-        for (int i = 0; i < genericType.getCompositeValues().length; i++) {
-            composite.addComponent(
-                    new GenericType(genericType.getCompositeValues()[i],
-                            genericType.getTypesBelongingCompositeType()[i]), GenericTypeSerializer.get());
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
         }
-        return composite;
+        return -1;
+    }
 
+    /**
+     * @return true if the value is one line of base64 characters with at most two padding characters
+     */
+    private static boolean isBase64(String genericValue) {
+        int length = genericValue.length();
+        if (length % 4 != 0) {
+            return false;
+        }
+        int padding = 0;
+        while (padding < 2 && genericValue.charAt(length - 1 - padding) == '=') {
+            padding++;
+        }
+        for (int i = 0; i < length - padding; i++) {
+            char c = genericValue.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '+' || c == '/')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * same layout as the Hector composite serializer : for each component, its length on two bytes, its bytes and
+     * the equality byte
+     */
+    private ByteBuffer compositeToByteBuffer(GenericType genericType) {
+        String[] compositeValues = genericType.getCompositeValues();
+        GenericTypeEnum[] types = genericType.getTypesBelongingCompositeType();
+        ByteBuffer[] components = new ByteBuffer[compositeValues.length];
+        int size = 0;
+        for (int i = 0; i < compositeValues.length; i++) {
+            components[i] = toByteBuffer(compositeValues[i], types[i] == null ? GenericTypeEnum.BYTES_TYPE : types[i]);
+            size += 2 + components[i].remaining() + 1;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.allocate(size);
+        for (ByteBuffer component : components) {
+            byteBuffer.putShort((short) component.remaining());
+            byteBuffer.put(component);
+            byteBuffer.put(EQUAL_COMPONENT);
+        }
+        byteBuffer.flip();
+        return byteBuffer;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package org.cassandraunit.type;
 
+import java.nio.ByteBuffer;
+
 /**
  * @author Jeremy Sevellec
  */
@@ -10,6 +12,8 @@ public class GenericType {
     private String[] compositeValues;
     private GenericTypeEnum[] typesBelongingCompositeType;
 
+    private ByteBuffer serializedValue;
+
     public GenericType(String value, GenericTypeEnum type) {
         super();
         this.value = value;
@@ -35,6 +39,19 @@ public class GenericType {
 
     }
 
+    /**
+     * constructor to use with a value already serialized, ex. read from a binary dataset. The value is then given as
+     * is to Cassandra, there is no string value.
+     *
+     * @param serializedValue the serialized value
+     * @param type            the type of the value
+     */
+    public GenericType(ByteBuffer serializedValue, GenericTypeEnum type) {
+        super();
+        this.serializedValue = serializedValue;
+        this.type = type;
+    }
+
     public String getValue() {
         return value;
     }
@@ -56,4 +73,8 @@ public class GenericType {
         return compositeValues;
     }
 
+    public ByteBuffer getSerializedValue() {
+        return serializedValue;
+    }
+
 }
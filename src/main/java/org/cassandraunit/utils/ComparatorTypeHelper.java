@@ -121,4 +121,14 @@ public class ComparatorTypeHelper {
 
 		return genericTypesEnum;
 	}
+
+	/**
+	 * @return the types of the components of a composite type, null if the type is not a composite type
+	 */
+	public static GenericTypeEnum[] extractCompositeTypes(ComparatorType type, String typeAlias) {
+		if (type != null && ComparatorType.COMPOSITETYPE.getTypeName().equals(type.getTypeName())) {
+			return extractGenericTypesFromTypeAlias(typeAlias);
+		}
+		return null;
+	}
 }
@@ -5,22 +5,39 @@ import me.prettyprint.hector.api.Cluster;
 import me.prettyprint.hector.api.ddl.KeyspaceDefinition;
 import me.prettyprint.hector.api.factory.HFactory;
 import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.config.Schema;
+import org.apache.cassandra.db.ColumnFamilyStore;
+import org.apache.cassandra.db.Table;
 import org.apache.cassandra.db.commitlog.CommitLog;
 import org.apache.cassandra.exceptions.ConfigurationException;
+import org.apache.cassandra.io.sstable.SSTableDeletingTask;
 import org.apache.cassandra.io.util.FileUtils;
 import org.apache.cassandra.service.CassandraDaemon;
+import org.apache.cassandra.service.StorageProxy;
+import org.apache.cassandra.service.StorageService;
 import org.apache.commons.lang.StringUtils;
 import org.apache.thrift.transport.TTransportException;
+import org.cassandraunit.exception.CassandraUnitException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * @author Jeremy Sevellec
@@ -31,14 +48,28 @@ public class EmbeddedCassandraServerHelper {
 
     public static final String DEFAULT_TMP_DIR = "target/embeddedCassandra";
     public static final String DEFAULT_CASSANDRA_YML_FILE = "cu-cassandra.yaml";
+    /**
+     * preset for unit tests only : no hints, no cache saving, small commit log segments, thread pools and memtables
+     */
+    public static final String FAST_CASSANDRA_YML_FILE = "cu-cassandra-fast.yaml";
+    public static final long DEFAULT_STARTUP_TIMEOUT_IN_MS = 20000;
     public static final String DEFAULT_LOG4J_CONFIG_FILE = "/log4j-embedded-cassandra.properties";
     private static final String INTERNAL_CASSANDRA_KEYSPACE = "system";
     private static final String INTERNAL_CASSANDRA_AUTH_KEYSPACE = "system_auth";
     private static final String INTERNAL_CASSANDRA_TRACES_KEYSPACE = "system_traces";
+    private static final String SNAPSHOTS_DIRECTORY = "snapshots";
+    private static final int READINESS_CONNECT_TIMEOUT_IN_MS = 500;
+    private static final long MIN_READINESS_POLL_DELAY_IN_MS = 10;
+    private static final long MAX_READINESS_POLL_DELAY_IN_MS = 500;
 
     private static CassandraDaemon cassandraDaemon = null;
     static ExecutorService executor;
     private static String launchedYamlFile;
+    private static long configurationTimeInMs;
+    private static long activationTimeInMs;
+    private static long readinessTimeInMs;
+    /* name of the snapshot taken for each keyspace */
+    private static final Map<String, String> keyspaceSnapshots = new ConcurrentHashMap<String, String>();
 
     public static void startEmbeddedCassandra() throws TTransportException, IOException, InterruptedException,
             ConfigurationException {
@@ -49,7 +80,17 @@ public class EmbeddedCassandraServerHelper {
         startEmbeddedCassandra(yamlFile, DEFAULT_TMP_DIR);
     }
 
+    public static void startEmbeddedCassandra(String yamlFile, long startupTimeoutInMs) throws TTransportException,
+            IOException, ConfigurationException {
+        startEmbeddedCassandra(yamlFile, DEFAULT_TMP_DIR, startupTimeoutInMs);
+    }
+
     public static void startEmbeddedCassandra(String yamlFile, String tmpDir) throws TTransportException, IOException, ConfigurationException {
+        startEmbeddedCassandra(yamlFile, tmpDir, DEFAULT_STARTUP_TIMEOUT_IN_MS);
+    }
+
+    public static void startEmbeddedCassandra(String yamlFile, String tmpDir, long startupTimeoutInMs)
+            throws TTransportException, IOException, ConfigurationException {
         if (cassandraDaemon != null) {
             /* nothing to do Cassandra is already started */
             return;
@@ -62,17 +103,24 @@ public class EmbeddedCassandraServerHelper {
         rmdir(tmpDir);
         copy(yamlFile, tmpDir);
         File file = new File(tmpDir + yamlFile);
-        startEmbeddedCassandra(file, tmpDir);
+        startEmbeddedCassandra(file, tmpDir, startupTimeoutInMs);
+    }
+
+    public static void startEmbeddedCassandra(File file, String tmpDir) throws TTransportException, IOException, ConfigurationException {
+        startEmbeddedCassandra(file, tmpDir, DEFAULT_STARTUP_TIMEOUT_IN_MS);
     }
 
     /**
-     * Set embedded cassandra up and spawn it in a new thread.
+     * Set embedded cassandra up and spawn it in a new thread. Returns as soon as the thrift and native transports
+     * accept connections.
      *
+     * @param startupTimeoutInMs maximum time to wait for the transports
      * @throws TTransportException
      * @throws IOException
-     * @throws InterruptedException
+     * @throws CassandraUnitException if the transports are not ready in time
      */
-    public static void startEmbeddedCassandra(File file, String tmpDir) throws TTransportException, IOException, ConfigurationException {
+    public static void startEmbeddedCassandra(File file, String tmpDir, long startupTimeoutInMs)
+            throws TTransportException, IOException, ConfigurationException {
         if (cassandraDaemon != null) {
             /* nothing to do Cassandra is already started */
             return;
@@ -82,6 +130,7 @@ public class EmbeddedCassandraServerHelper {
 
         log.debug("Starting cassandra...");
         log.debug("Initialization needed");
+        final long startTime = System.currentTimeMillis();
 
         System.setProperty("cassandra.config", "file:" + file.getAbsolutePath());
         System.setProperty("cassandra-foreground", "true");
@@ -93,6 +142,9 @@ public class EmbeddedCassandraServerHelper {
         }
 
         cleanupAndLeaveDirs();
+        long activationStartTime = System.currentTimeMillis();
+        configurationTimeInMs = activationStartTime - startTime;
+
         final CountDownLatch startupLatch = new CountDownLatch(1);
         executor = Executors.newSingleThreadExecutor();
         executor.execute(new Runnable() {
@@ -103,12 +155,75 @@ public class EmbeddedCassandraServerHelper {
                 startupLatch.countDown();
             }
         });
+        long deadline = startTime + startupTimeoutInMs;
         try {
-            startupLatch.await(10, SECONDS);
+            startupLatch.await(Math.max(0, deadline - System.currentTimeMillis()), MILLISECONDS);
+            long readinessStartTime = System.currentTimeMillis();
+            activationTimeInMs = readinessStartTime - activationStartTime;
+
+            InetAddress rpcAddress = DatabaseDescriptor.getRpcAddress();
+            waitForTransport("thrift", rpcAddress, DatabaseDescriptor.getRpcPort(), deadline);
+            if (DatabaseDescriptor.startNativeTransport()) {
+                waitForTransport("native", rpcAddress, DatabaseDescriptor.getNativeTransportPort(), deadline);
+            }
+            readinessTimeInMs = System.currentTimeMillis() - readinessStartTime;
         } catch (InterruptedException e) {
             log.error("Interrupted waiting for Cassandra daemon to start:", e);
             throw new AssertionError(e);
         }
+        log.info("Embedded Cassandra started with " + file.getName() + " in "
+                + (System.currentTimeMillis() - startTime) + " ms (configuration : " + configurationTimeInMs
+                + " ms, activation : " + activationTimeInMs + " ms, transports : " + readinessTimeInMs + " ms)");
+    }
+
+    /**
+     * poll the transport until it accepts a connection, the delay between two attempts doubles each time
+     */
+    private static void waitForTransport(String transportName, InetAddress address, int port, long deadline)
+            throws InterruptedException {
+        long delayInMs = MIN_READINESS_POLL_DELAY_IN_MS;
+        while (true) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(address, port), READINESS_CONNECT_TIMEOUT_IN_MS);
+                log.debug("Embedded Cassandra " + transportName + " transport ready on " + address + ":" + port);
+                return;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() + delayInMs > deadline) {
+                    throw new CassandraUnitException("Embedded Cassandra " + transportName + " transport not ready on "
+                            + address + ":" + port + " in time", e);
+                }
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    /* nothing more can be done */
+                }
+            }
+            Thread.sleep(delayInMs);
+            delayInMs = Math.min(delayInMs * 2, MAX_READINESS_POLL_DELAY_IN_MS);
+        }
+    }
+
+    /**
+     * @return time spent to prepare the configuration and the directories during the last startup
+     */
+    public static long getConfigurationTimeInMs() {
+        return configurationTimeInMs;
+    }
+
+    /**
+     * @return time spent in the activation of the daemon during the last startup
+     */
+    public static long getActivationTimeInMs() {
+        return activationTimeInMs;
+    }
+
+    /**
+     * @return time spent waiting for the transports to accept connections after the activation of the daemon
+     */
+    public static long getReadinessTimeInMs() {
+        return readinessTimeInMs;
     }
 
     private static void checkConfigNameForRestart(String yamlFile) {
@@ -136,11 +251,148 @@ public class EmbeddedCassandraServerHelper {
         dropKeyspaces();
     }
 
+    /**
+     * truncate the column families of all keyspaces (except system), the schema is kept
+     */
+    public static void cleanDataEmbeddedCassandra() {
+        truncateColumnFamilies(false);
+    }
+
+    /**
+     * truncate the column families of all keyspaces (except system), the schema is kept. The column families are
+     * truncated concurrently.
+     *
+     * @param onlyWrittenColumnFamilies true to skip the column families which have no data, i.e. which were not
+     *                                  written since they were created or last truncated
+     */
+    public static void cleanDataEmbeddedCassandra(boolean onlyWrittenColumnFamilies) {
+        truncateColumnFamilies(onlyWrittenColumnFamilies);
+    }
+
+    /**
+     * take a snapshot of a keyspace of the embedded Cassandra, it replaces the previous snapshot of the keyspace
+     *
+     * @see #restoreKeyspaceSnapshot(String, String)
+     */
+    public static void snapshotKeyspace(String keyspaceName, String snapshotName) throws IOException {
+        log.debug("Taking snapshot " + snapshotName + " of keyspace " + keyspaceName);
+        keyspaceSnapshots.remove(keyspaceName);
+        StorageService.instance.clearSnapshot(snapshotName, keyspaceName);
+        StorageService.instance.takeSnapshot(snapshotName, keyspaceName);
+        keyspaceSnapshots.put(keyspaceName, snapshotName);
+    }
+
+    /**
+     * @return true if the last snapshot of the keyspace has this name and the keyspace has not been dropped since
+     */
+    public static boolean hasKeyspaceSnapshot(String keyspaceName, String snapshotName) {
+        return snapshotName.equals(keyspaceSnapshots.get(keyspaceName));
+    }
+
+    /**
+     * to be called when a keyspace is dropped, its snapshot can't be restored anymore
+     */
+    public static void forgetKeyspaceSnapshot(String keyspaceName) {
+        keyspaceSnapshots.remove(keyspaceName);
+    }
+
+    /**
+     * truncate every column family of the keyspace and import the SSTables of the snapshot back. The schema is kept
+     * as it is, so it must not have been changed since the snapshot.
+     *
+     * @see #snapshotKeyspace(String, String)
+     */
+    public static void restoreKeyspaceSnapshot(String keyspaceName, String snapshotName) throws IOException {
+        log.debug("Restoring snapshot " + snapshotName + " of keyspace " + keyspaceName);
+        /* the schema is read in place as the CQL3 tables are not visible through thrift */
+        Set<String> columnFamilyNames = Schema.instance.getKSMetaData(keyspaceName).cfMetaData().keySet();
+        for (String columnFamilyName : columnFamilyNames) {
+            try {
+                StorageProxy.truncateBlocking(keyspaceName, columnFamilyName);
+            } catch (Exception e) {
+                throw new IOException("Failed to truncate " + keyspaceName + "." + columnFamilyName, e);
+            }
+        }
+
+        /* truncated SSTables are deleted asynchronously, they must be gone before the snapshot is linked back */
+        SSTableDeletingTask.waitForDeletions();
+
+        for (String columnFamilyName : columnFamilyNames) {
+            /* secondary index SSTables are skipped, the indexes are rebuilt when the SSTables are loaded */
+            String sstablePrefix = keyspaceName + "-" + columnFamilyName + "-";
+            for (String dataFileLocation : DatabaseDescriptor.getAllDataFileLocations()) {
+                File columnFamilyDirectory = new File(new File(dataFileLocation, keyspaceName), columnFamilyName);
+                File snapshotDirectory = new File(new File(columnFamilyDirectory, SNAPSHOTS_DIRECTORY), snapshotName);
+                File[] snapshotFiles = snapshotDirectory.listFiles();
+                if (snapshotFiles == null) {
+                    continue;
+                }
+                for (File snapshotFile : snapshotFiles) {
+                    if (snapshotFile.getName().startsWith(sstablePrefix)) {
+                        FileUtils.createHardLink(snapshotFile, new File(columnFamilyDirectory, snapshotFile.getName()));
+                    }
+                }
+            }
+            StorageService.instance.loadNewSSTables(keyspaceName, columnFamilyName);
+        }
+    }
+
+    private static void truncateColumnFamilies(boolean onlyWrittenColumnFamilies) {
+        List<ColumnFamilyStore> columnFamilyStores = new ArrayList<ColumnFamilyStore>();
+        for (String keyspaceName : Schema.instance.getTables()) {
+            if (isInternalKeyspace(keyspaceName)) {
+                continue;
+            }
+            for (ColumnFamilyStore columnFamilyStore : Table.open(keyspaceName).getColumnFamilyStores()) {
+                if (!onlyWrittenColumnFamilies || columnFamilyStore.getMemtableColumnsCount() > 0
+                        || !columnFamilyStore.getSSTables().isEmpty()) {
+                    columnFamilyStores.add(columnFamilyStore);
+                }
+            }
+        }
+        log.debug("Truncating " + columnFamilyStores.size() + " column families");
+        if (columnFamilyStores.isEmpty()) {
+            return;
+        }
+
+        ExecutorService truncateExecutor = Executors.newFixedThreadPool(
+                Math.min(columnFamilyStores.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Void>> truncations = new ArrayList<Future<Void>>();
+            for (final ColumnFamilyStore columnFamilyStore : columnFamilyStores) {
+                truncations.add(truncateExecutor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        StorageProxy.truncateBlocking(columnFamilyStore.metadata.ksName, columnFamilyStore.metadata.cfName);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> truncation : truncations) {
+                truncation.get();
+            }
+        } catch (ExecutionException e) {
+            throw new CassandraUnitException("Failed to truncate column families", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CassandraUnitException("Interrupted while truncating column families", e);
+        } finally {
+            truncateExecutor.shutdownNow();
+        }
+    }
+
+    private static boolean isInternalKeyspace(String keyspaceName) {
+        return INTERNAL_CASSANDRA_KEYSPACE.equals(keyspaceName)
+                || INTERNAL_CASSANDRA_AUTH_KEYSPACE.equals(keyspaceName)
+                || INTERNAL_CASSANDRA_TRACES_KEYSPACE.equals(keyspaceName);
+    }
+
     private static void dropKeyspaces() {
         String host = DatabaseDescriptor.getRpcAddress().getHostName();
         int port = DatabaseDescriptor.getRpcPort();
         log.debug("Cleaning cassandra keyspaces on " + host + ":" + port);
         Cluster cluster = HFactory.getOrCreateCluster("TestCluster", new CassandraHostConfigurator(host + ":" + port));
+        keyspaceSnapshots.clear();
         /* get all keyspace */
         List<KeyspaceDefinition> keyspaces = cluster.describeKeyspaces();
 
@@ -148,9 +400,7 @@ public class EmbeddedCassandraServerHelper {
         for (KeyspaceDefinition keyspaceDefinition : keyspaces) {
             String keyspaceName = keyspaceDefinition.getName();
 
-            if (!INTERNAL_CASSANDRA_KEYSPACE.equals(keyspaceName)
-                    && !INTERNAL_CASSANDRA_AUTH_KEYSPACE.equals(keyspaceName)
-                    && !INTERNAL_CASSANDRA_TRACES_KEYSPACE.equals(keyspaceName)) {
+            if (!isInternalKeyspace(keyspaceName)) {
                 cluster.dropKeyspace(keyspaceName);
             }
         }
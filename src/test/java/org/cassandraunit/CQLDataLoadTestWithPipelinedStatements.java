@@ -0,0 +1,35 @@
+package org.cassandraunit;
+
+import com.datastax.driver.core.ResultSet;
+import org.cassandraunit.dataset.cql.ClassPathCQLDataSet;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CQLDataLoadTestWithPipelinedStatements {
+
+    @Rule
+    public CassandraCQLUnit cassandraCQLUnit = new CassandraCQLUnit(new ClassPathCQLDataSet("cql/multiLineStatements.cql", "mykeyspace"), pipelinedLoadingOption());
+
+    private static CQLLoadingOption pipelinedLoadingOption() {
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setMaxStatementsInFlight(2);
+        return loadingOption;
+    }
+
+    @Test
+    public void testCQLDataAreInPlace() throws Exception {
+        test("1690e8da-5bf8-49e8-9583-4dff8a570737", "Cql loaded string");
+        test("1690e8da-5bf8-49e8-9583-4dff8a570738", "BLA2");
+        test("1690e8da-5bf8-49e8-9583-4dff8a570739", "BLA1");
+    }
+
+    private void test(String id, String expectedValue) {
+        ResultSet result = cassandraCQLUnit.session.execute("select * from testCQLTable WHERE id=" + id);
+
+        String val = result.iterator().next().getString("value");
+        assertEquals(expectedValue, val);
+    }
+
+}
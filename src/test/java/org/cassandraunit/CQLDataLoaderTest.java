@@ -0,0 +1,232 @@
+package org.cassandraunit;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import me.prettyprint.cassandra.serializers.StringSerializer;
+import me.prettyprint.hector.api.Cluster;
+import me.prettyprint.hector.api.factory.HFactory;
+import org.cassandraunit.dataset.cql.ClassPathCQLDataSet;
+import org.cassandraunit.exception.CassandraUnitException;
+import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
+import org.cassandraunit.utils.MockDataSetHelper;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CQLDataLoaderTest {
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        EmbeddedCassandraServerHelper.startEmbeddedCassandra();
+    }
+
+    @Test
+    public void shouldReportTheIndexOfTheFailedPipelinedStatement() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setMaxStatementsInFlight(8);
+        try {
+            dataLoader.load(new ClassPathCQLDataSet("cql/statementsWithError.cql", "mykeyspace"), loadingOption);
+            fail();
+        } catch (CassandraUnitException e) {
+            assertThat(e.getMessage(), containsString("1 statement(s) failed"));
+            assertThat(e.getMessage(), containsString("statement 2 : INSERT INTO unknownCQLTable"));
+        }
+    }
+
+    @Test
+    public void shouldLoadRepetitiveInsertsAsBoundStatements() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setPreparedStatementCacheSize(10);
+
+        dataLoader.load(new ClassPathCQLDataSet("cql/repetitiveInserts.cql", "mykeyspace"), loadingOption);
+
+        assertRepetitiveInsertsLoaded(dataLoader.getSession());
+    }
+
+    @Test
+    public void shouldLoadRepetitiveInsertsAsPipelinedBoundStatements() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setPreparedStatementCacheSize(10);
+        loadingOption.setMaxStatementsInFlight(4);
+
+        dataLoader.load(new ClassPathCQLDataSet("cql/repetitiveInserts.cql", "mykeyspace"), loadingOption);
+
+        assertRepetitiveInsertsLoaded(dataLoader.getSession());
+    }
+
+    private void assertRepetitiveInsertsLoaded(Session session) {
+        Row row = session.execute("select * from testCQLTypes WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570738").one();
+        assertThat(row.getString("label"), is("it's the second"));
+        assertThat(row.getInt("quantity"), is(2));
+        assertThat(row.getLong("amount"), is(20000000000L));
+        assertThat(row.getDouble("ratio"), is(1.5));
+        assertThat(row.getBool("enabled"), is(false));
+        assertThat(row.getBytes("data"), is(ByteBuffer.wrap(new byte[]{3, 4})));
+
+        row = session.execute("select * from testCQLTypes WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570739").one();
+        assertThat(row.getString("label"), is("third, with a comma"));
+        assertThat(row.getInt("quantity"), is(-3));
+
+        row = session.execute("select * from testCQLTypes WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570741").one();
+        assertThat(row.getString("label"), is("fifth"));
+    }
+
+    @Test
+    public void shouldApplyThePipelinedUpdatesAfterTheInsertsOfTheirTable() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setMaxStatementsInFlight(8);
+
+        dataLoader.load(new ClassPathCQLDataSet("cql/pipelinedUpdates.cql", "mykeyspace"), loadingOption);
+
+        Session session = dataLoader.getSession();
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570737").one()
+                .getString("value"), is("updated"));
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570738").one(),
+                is(nullValue()));
+    }
+
+    @Test
+    public void shouldLoadStatementsWithCommentsAndBatch() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+
+        dataLoader.load(new ClassPathCQLDataSet("cql/statementsWithCommentsAndBatch.cql", "mykeyspace"));
+
+        Session session = dataLoader.getSession();
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570737").one()
+                .getString("value"), is("first; with a delimiter"));
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570738").one()
+                .getString("value"), is("second -- not a comment"));
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570740").one()
+                .getString("value"), is("in batch too"));
+    }
+
+    @Test
+    public void shouldResetKeyspaceFromSnapshot() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setSnapshotName("simple");
+        dataLoader.load(new ClassPathCQLDataSet("cql/simple.cql", "mykeyspace"), loadingOption);
+
+        Session session = dataLoader.getSession();
+        session.execute("UPDATE testCQLTable SET value='updated' WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570737");
+        session.execute("INSERT INTO testCQLTable(id, value) values(1690e8da-5bf8-49e8-9583-4dff8a570740,'added')");
+
+        dataLoader.load(new ClassPathCQLDataSet("cql/simple.cql", "mykeyspace"), loadingOption);
+
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570737").one()
+                .getString("value"), is("Cql loaded string"));
+        assertThat(session.execute("select * from testCQLTable WHERE id=1690e8da-5bf8-49e8-9583-4dff8a570740").one(),
+                is(nullValue()));
+        assertThat(session.execute("select * from testCQLTable").all().size(), is(3));
+    }
+
+    @Test
+    public void shouldForgetTheFingerprintOfTheLoadedKeyspace() {
+        LoadingOption readOnlyLoadingOption = new LoadingOption();
+        readOnlyLoadingOption.setReadOnly(true);
+        new DataLoader("TestCluster41", "localhost:9171").load(MockDataSetHelper.getMockDataSetWithDefaultValues(),
+                readOnlyLoadingOption);
+        Cluster cluster = HFactory.getOrCreateCluster("TestCluster41", "localhost:9171");
+        HFactory.createMutator(HFactory.createKeyspace(DataLoader.FINGERPRINT_KEYSPACE, cluster),
+                StringSerializer.get()).insert("mykeyspace", DataLoader.FINGERPRINT_COLUMN_FAMILY,
+                HFactory.createStringColumn(DataLoader.FINGERPRINT_COLUMN, "a fingerprint"));
+
+        new CQLDataLoader("127.0.0.1", 9142).load(new ClassPathCQLDataSet("cql/simple.cql", "mykeyspace"));
+
+        assertThat(HFactory.createStringColumnQuery(HFactory.createKeyspace(DataLoader.FINGERPRINT_KEYSPACE, cluster))
+                .setColumnFamily(DataLoader.FINGERPRINT_COLUMN_FAMILY).setKey("mykeyspace")
+                .setName(DataLoader.FINGERPRINT_COLUMN).execute().get(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReportTheStatementsOfEachTable() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setMaxStatementsInFlight(4);
+
+        LoadReport report = dataLoader.loadWithReport(new ClassPathCQLDataSet("cql/repetitiveInserts.cql", "mykeyspace"),
+                loadingOption);
+
+        assertThat(report.getOutcome(), is(LoadReport.Outcome.LOADED));
+        assertThat(report.getKeyspaceName(), is("mykeyspace"));
+        assertThat(report.getRequests(), is(6L));
+        assertThat(report.getBatches(), is(0L));
+        assertThat(report.getColumnFamilyReports().size(), is(1));
+        ColumnFamilyLoadReport tableReport = report.getColumnFamilyReport("testcqltypes");
+        assertThat(tableReport.getRows(), is(5L));
+        assertThat(tableReport.getRequests(), is(5L));
+        assertThat(LoadStatistics.get().getLastLoad(), containsString("keyspace mykeyspace loaded"));
+    }
+
+    @Test
+    public void shouldFindTheTableOfADataStatement() {
+        assertThat(CQLStatementPipeline.getTableName("INSERT INTO t(id) values(1);"), is("t"));
+        assertThat(CQLStatementPipeline.getTableName("insert into MyKeyspace.MyTable (id) values(1);"),
+                is("mykeyspace.mytable"));
+        assertThat(CQLStatementPipeline.getTableName(" UPDATE \"MyTable\" USING TTL 10 SET v=1 WHERE id=1;"),
+                is("\"MyTable\""));
+        assertThat(CQLStatementPipeline.getTableName("DELETE v, w FROM t WHERE id=1;"), is("t"));
+        assertThat(CQLStatementPipeline.getTableName("BEGIN BATCH INSERT INTO t(id) values(1); APPLY BATCH;"),
+                is(nullValue()));
+        assertThat(CQLStatementPipeline.getTableName("CREATE TABLE t (id int PRIMARY KEY);"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldOnlyPipelineDataStatements() {
+        assertThat(CQLStatementPipeline.isPipelined("INSERT INTO t(id) values(1);"), is(true));
+        assertThat(CQLStatementPipeline.isPipelined(" update t set v=1 where id=1;"), is(true));
+        assertThat(CQLStatementPipeline.isPipelined("DELETE FROM t where id=1;"), is(true));
+        assertThat(CQLStatementPipeline.isPipelined("BEGIN BATCH INSERT INTO t(id) values(1); APPLY BATCH;"), is(true));
+        assertThat(CQLStatementPipeline.isPipelined("CREATE TABLE t (id int PRIMARY KEY);"), is(false));
+        assertThat(CQLStatementPipeline.isPipelined("USE mykeyspace;"), is(false));
+        assertThat(CQLStatementPipeline.isPipelined("DROP TABLE t;"), is(false));
+    }
+
+    @Test
+    public void shouldTruncateTheExistingTablesWhenMigratingTheSchema() {
+        CQLDataLoader dataLoader = new CQLDataLoader("127.0.0.1", 9142);
+        CQLLoadingOption loadingOption = new CQLLoadingOption();
+        loadingOption.setMigrateSchema(true);
+        dataLoader.load(new ClassPathCQLDataSet("cql/simple.cql", "mykeyspace"), loadingOption);
+
+        Session session = dataLoader.getSession();
+        session.execute("INSERT INTO testCQLTable(id, value) values(1690e8da-5bf8-49e8-9583-4dff8a570740,'added')");
+        session.execute("CREATE TABLE extraCQLTable (id uuid PRIMARY KEY)");
+
+        LoadReport report = dataLoader.loadWithReport(new ClassPathCQLDataSet("cql/simple.cql", "mykeyspace"), loadingOption);
+
+        /* the CREATE TABLE statement is skipped, the extra table is dropped */
+        assertThat(report.getRequests(), is(4L));
+        assertThat(session.execute("select * from testCQLTable").all().size(), is(3));
+        assertThat(session.execute("SELECT columnfamily_name FROM system.schema_columnfamilies "
+                + "WHERE keyspace_name='mykeyspace' AND columnfamily_name='extracqltable'").one(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReadTheColumnsOfACreateTableStatement() {
+        CQLSchemaMigration.TableSchema table = CQLSchemaMigration.parseCreateTable("CREATE TABLE t (a int, "
+                + "b text, \"C\" timestamp, d map<text, bigint>, PRIMARY KEY ((a, b), \"C\")) "
+                + "WITH CLUSTERING ORDER BY (\"C\" DESC);");
+        assertThat(table.primaryKey.toString(), is("{a=Int32Type, b=UTF8Type, C=ReversedType(DateType)}"));
+        assertThat(table.columns.toString(), is("{d=MapType(UTF8Type,LongType)}"));
+
+        table = CQLSchemaMigration.parseCreateTable("CREATE TABLE t (id uuid PRIMARY KEY, values list<int>);");
+        assertThat(table.primaryKey.toString(), is("{id=UUIDType}"));
+        assertThat(table.columns.toString(), is("{values=ListType(Int32Type)}"));
+
+        assertThat(CQLSchemaMigration.parseCreateTable("CREATE TABLE t (id 'com.acme.AType' PRIMARY KEY);"),
+                is(nullValue()));
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.cassandraunit;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class CQLStatementTemplateTest {
+
+    @Test
+    public void shouldExtractTheTemplateAndTheLiteralsOfAnInsert() {
+        CQLStatementTemplate template = CQLStatementTemplate.parse("INSERT INTO testCQLTable(id, value) values(1690e8da-5bf8-49e8-9583-4dff8a570737,'Cql loaded string');");
+        assertThat(template.getTemplate(), is("INSERT INTO testCQLTable(id, value) values(?,?);"));
+        assertThat(template.getLiterals().size(), is(2));
+        assertThat(template.getLiterals().get(0), is("1690e8da-5bf8-49e8-9583-4dff8a570737"));
+        assertThat(template.getLiterals().get(1), is("'Cql loaded string'"));
+    }
+
+    @Test
+    public void shouldGiveTheSameTemplateToInsertsWithDifferentValues() {
+        CQLStatementTemplate template1 = CQLStatementTemplate.parse("INSERT INTO t(id, v, n) VALUES (1, 'a', 0x01) USING TTL 10;");
+        CQLStatementTemplate template2 = CQLStatementTemplate.parse("INSERT INTO t(id, v, n) VALUES ( -2.5e3 , 'it''s, (b)', true ) USING TTL 10;");
+        assertThat(template1.getTemplate(), is("INSERT INTO t(id, v, n) VALUES (?,?,?) USING TTL 10;"));
+        assertThat(template2.getTemplate(), is(template1.getTemplate()));
+        assertThat(template2.getLiterals().get(0), is("-2.5e3"));
+        assertThat(template2.getLiterals().get(1), is("'it''s, (b)'"));
+        assertThat(template2.getLiterals().get(2), is("true"));
+    }
+
+    @Test
+    public void shouldNotGiveATemplateToOtherStatements() {
+        assertThat(CQLStatementTemplate.parse("CREATE TABLE t (id int PRIMARY KEY);"), nullValue());
+        assertThat(CQLStatementTemplate.parse("UPDATE t SET v = 1 WHERE id = 1;"), nullValue());
+        assertThat(CQLStatementTemplate.parse("INSERT INTO t(id, v) VALUES (1, now());"), nullValue());
+        assertThat(CQLStatementTemplate.parse("INSERT INTO t(id, v) VALUES (1, {'a', 'b'});"), nullValue());
+        assertThat(CQLStatementTemplate.parse("INSERT INTO t(id, v) VALUES (1, 'unterminated);"), nullValue());
+    }
+}
@@ -10,11 +10,15 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Maps;
@@ -50,7 +54,18 @@ import me.prettyprint.hector.api.query.SuperSliceCounterQuery;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.http.annotation.Immutable;
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.binary.BinaryDataSetWriter;
+import org.cassandraunit.dataset.binary.FileBinaryDataSet;
+import org.cassandraunit.dataset.xml.ClassPathStreamingXmlDataSet;
+import org.cassandraunit.dataset.xml.ClassPathXmlDataSet;
+import org.cassandraunit.exception.CassandraUnitException;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.RowModel;
 import org.cassandraunit.model.StrategyModel;
+import org.cassandraunit.type.GenericType;
+import org.cassandraunit.type.GenericTypeEnum;
 import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
 import org.cassandraunit.utils.MockDataSetHelper;
 import org.junit.BeforeClass;
@@ -64,6 +79,8 @@ import com.google.common.base.Charsets;
  */
 public class DataLoaderTest {
 
+	private static final long ROWS_WAITING_TIME_IN_MS = 10000;
+
 	@BeforeClass
 	public static void beforeClass() throws Exception {
 		EmbeddedCassandraServerHelper.startEmbeddedCassandra();
@@ -670,6 +687,414 @@ public class DataLoaderTest {
 				is("org.apache.cassandra.locator.SimpleStrategy"));
 	}
 
+	@Test
+	public void shouldLoadDataSetInSeveralBatchesOfMutations() throws Exception {
+		String clusterName = "TestCluster15";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setMaxMutationsPerBatch(2);
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		SampleDataSetChecker.assertDataSetLoaded(HFactory.createKeyspace("beautifulKeyspaceName", cluster));
+	}
+
+	@Test
+	public void shouldLoadDataSetInSeveralBatchesOfBoundedSize() throws Exception {
+		String clusterName = "TestCluster16";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setMaxBatchSizeInBytes(1);
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		SampleDataSetChecker.assertDataSetLoaded(HFactory.createKeyspace("beautifulKeyspaceName", cluster));
+	}
+
+	@Test
+	public void shouldLoadDataSetConcurrently() throws Exception {
+		String clusterName = "TestCluster17";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setThreadCount(4);
+		loadingOption.setRowsPerTask(1);
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		SampleDataSetChecker.assertDataSetLoaded(HFactory.createKeyspace("beautifulKeyspaceName", cluster));
+	}
+
+	@Test
+	public void shouldStopConcurrentLoadingAtFirstError() throws Exception {
+		String clusterName = "TestCluster18";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setThreadCount(2);
+
+		/* the column families following the failing one wait until their task is interrupted */
+		DataSet dataSet = MockDataSetHelper.getMockDataSetWithInvalidRowKey();
+		AtomicInteger startedIterations = new AtomicInteger();
+		AtomicInteger endedIterations = new AtomicInteger();
+		AtomicInteger readRows = new AtomicInteger();
+		for (int i = 1; i <= 3; i++) {
+			ColumnFamilyModel columnFamily = new ColumnFamilyModel();
+			columnFamily.setName("columnFamilyAfterTheError" + i);
+			columnFamily.setKeyType(ComparatorType.UTF8TYPE);
+			columnFamily.setComparatorType(ComparatorType.UTF8TYPE);
+			columnFamily.setDefaultColumnValueType(ComparatorType.UTF8TYPE);
+			columnFamily.setLazyRows(getRowsWaitingForAnInterruption(startedIterations, endedIterations, readRows));
+			dataSet.getColumnFamilies().add(columnFamily);
+		}
+
+		long start = System.currentTimeMillis();
+		try {
+			dataLoader.load(dataSet, loadingOption);
+			fail();
+		} catch (CassandraUnitException e) {
+			assertThat(e.getCause() instanceof NumberFormatException, is(true));
+		}
+		assertThat(System.currentTimeMillis() - start < ROWS_WAITING_TIME_IN_MS, is(true));
+
+		/* the tasks running when the loading stopped end once interrupted */
+		while (endedIterations.get() < startedIterations.get()
+				&& System.currentTimeMillis() - start < 2 * ROWS_WAITING_TIME_IN_MS) {
+			Thread.sleep(10);
+		}
+		assertThat(endedIterations.get(), is(startedIterations.get()));
+		/* the 2 threads wait in the first column families, the last one is never started */
+		assertThat(startedIterations.get() < 3, is(true));
+		assertThat(readRows.get(), is(0));
+		Keyspace keyspace = HFactory.createKeyspace("keyspaceWithInvalidRowKey",
+				HFactory.getOrCreateCluster(clusterName, host));
+		for (int i = 1; i <= 3; i++) {
+			assertThat(countRows(keyspace, "columnFamilyAfterTheError" + i), is(0));
+		}
+	}
+
+	/**
+	 * @return rows whose iteration waits for {@link #ROWS_WAITING_TIME_IN_MS} before reading a row, unless the thread
+	 * is interrupted
+	 */
+	private Iterable<RowModel> getRowsWaitingForAnInterruption(final AtomicInteger startedIterations,
+			final AtomicInteger endedIterations, final AtomicInteger readRows) {
+		return new Iterable<RowModel>() {
+			@Override
+			public Iterator<RowModel> iterator() {
+				startedIterations.incrementAndGet();
+				return new Iterator<RowModel>() {
+					private Boolean hasRow = null;
+
+					@Override
+					public boolean hasNext() {
+						if (hasRow == null) {
+							try {
+								Thread.sleep(ROWS_WAITING_TIME_IN_MS);
+								hasRow = true;
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+								hasRow = false;
+							} finally {
+								endedIterations.incrementAndGet();
+							}
+						}
+						return hasRow;
+					}
+
+					@Override
+					public RowModel next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						hasRow = false;
+						readRows.incrementAndGet();
+						RowModel row = new RowModel();
+						row.setKey(new GenericType("key", GenericTypeEnum.UTF_8_TYPE));
+						ColumnModel column = new ColumnModel();
+						column.setName(new GenericType("name", GenericTypeEnum.UTF_8_TYPE));
+						column.setValue(new GenericType("value", GenericTypeEnum.UTF_8_TYPE));
+						row.getColumns().add(column);
+						return row;
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	@Test
+	public void shouldResetKeyspaceFromSnapshot() throws Exception {
+		String clusterName = "TestCluster19";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setSnapshotName("defaultValues");
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		HFactory.createMutator(keyspace, BytesArraySerializer.get()).insert(decodeHex("40"), "columnFamily1",
+				HFactory.createColumn(decodeHex("41"), decodeHex("41"), BytesArraySerializer.get(),
+						BytesArraySerializer.get()));
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		/* test */
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldLoadAStreamingXmlDataSet() {
+		String clusterName = "TestCluster20";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		dataLoader.load(new ClassPathStreamingXmlDataSet("xml/dataSetDefaultValues.xml"));
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldLoadAStreamingXmlDataSetConcurrently() {
+		String clusterName = "TestCluster21";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setThreadCount(2);
+		dataLoader.load(new ClassPathStreamingXmlDataSet("xml/dataSetDefaultValues.xml"), loadingOption);
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldLoadTheLazyRowsOfAStreamingDataSetByRanges() {
+		String clusterName = "TestCluster22";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setThreadCount(2);
+		loadingOption.setRowsPerTask(1);
+		dataLoader.load(new ClassPathStreamingXmlDataSet("xml/dataSetDefaultValues.xml"), loadingOption);
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldLoadABinaryDataSet() throws Exception {
+		String clusterName = "TestCluster23";
+		String host = "localhost:9171";
+		File binaryDataSet = File.createTempFile("dataSetDefaultValues", ".bin");
+		binaryDataSet.deleteOnExit();
+		new BinaryDataSetWriter().write(new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml"), binaryDataSet);
+
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		dataLoader.load(new FileBinaryDataSet(binaryDataSet.getPath()));
+
+		/* test */
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldNotReloadAnUnchangedDataSetLoadedReadOnly() {
+		String clusterName = "TestCluster24";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setReadOnly(true);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		HFactory.createMutator(keyspace, BytesArraySerializer.get()).insert(decodeHex("40"), "columnFamily1",
+				HFactory.createColumn(decodeHex("41"), decodeHex("41"), BytesArraySerializer.get(),
+						BytesArraySerializer.get()));
+
+		/* same dataset : the keyspace is kept with the inserted row */
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+		assertThat(countRows(keyspace, "columnFamily1"), is(4));
+
+		/* not read only : the keyspace is reloaded */
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues());
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldReloadAChangedDataSetLoadedReadOnly() {
+		String clusterName = "TestCluster25";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setReadOnly(true);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		LoadingOption onlySchemaLoadingOption = new LoadingOption();
+		onlySchemaLoadingOption.setReadOnly(true);
+		onlySchemaLoadingOption.setOnlySchema(true);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), onlySchemaLoadingOption);
+
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		assertDefaultValuesDataIsEmpty(cluster);
+	}
+
+	@Test
+	public void shouldReportTheLoad() {
+		String clusterName = "TestCluster26";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setMaxMutationsPerBatch(2);
+
+		LoadReport report = dataLoader.loadWithReport(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		assertThat(report.getOutcome(), is(LoadReport.Outcome.LOADED));
+		assertThat(report.getKeyspaceName(), is("beautifulKeyspaceName"));
+		assertThat(report.getRows(), is(3L));
+		assertThat(report.getColumns(), is(7L));
+		/* 7 mutations by 2 */
+		assertThat(report.getBatches(), is(4L));
+		assertThat(report.getRequests(), is(4L));
+		assertThat(report.getLatencies().getCount(), is(4L));
+		ColumnFamilyLoadReport columnFamilyReport = report.getColumnFamilyReport("columnFamily1");
+		assertThat(columnFamilyReport.getRows(), is(3L));
+		assertThat(columnFamilyReport.getRequests(), is(4L));
+		assertThat(columnFamilyReport.getBytes() > 0, is(true));
+		assertThat(LoadStatistics.get().getLastLoad(), is(report.toString()));
+
+		loadingOption.setReadOnly(true);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+		report = dataLoader.loadWithReport(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+		assertThat(report.getOutcome(), is(LoadReport.Outcome.ALREADY_LOADED));
+		assertThat(report.getRequests(), is(0L));
+	}
+
+	@Test
+	public void shouldReloadAnExistingKeyspaceWithoutRecreatingItsColumnFamilies() {
+		String clusterName = "TestCluster27";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setMigrateSchema(true);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		int columnFamilyId = getColumnFamilyDefinition(cluster, "columnFamily1").getId();
+		cluster.addColumnFamily(HFactory.createColumnFamilyDefinition("beautifulKeyspaceName", "extraColumnFamily",
+				ComparatorType.BYTESTYPE), true);
+		Keyspace keyspace = HFactory.createKeyspace("beautifulKeyspaceName", cluster);
+		HFactory.createMutator(keyspace, BytesArraySerializer.get()).insert(decodeHex("40"), "columnFamily1",
+				HFactory.createColumn(decodeHex("41"), decodeHex("41"), BytesArraySerializer.get(),
+						BytesArraySerializer.get()));
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		/* same column family truncated, the one which is not in the dataset dropped */
+		assertThat(getColumnFamilyDefinition(cluster, "columnFamily1").getId(), is(columnFamilyId));
+		assertThat(getColumnFamilyDefinition(cluster, "extraColumnFamily"), nullValue());
+		assertThat(countRows(keyspace, "columnFamily1"), is(3));
+		SampleDataSetChecker.assertDataSetLoaded(keyspace);
+	}
+
+	@Test
+	public void shouldRecreateAColumnFamilyWhichWasACounterColumnFamily() {
+		String clusterName = "TestCluster28";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		LoadingOption loadingOption = new LoadingOption();
+		loadingOption.setMigrateSchema(true);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		cluster.dropColumnFamily("beautifulKeyspaceName", "columnFamily1", true);
+		ColumnFamilyDefinition counterColumnFamily = HFactory.createColumnFamilyDefinition("beautifulKeyspaceName",
+				"columnFamily1", ComparatorType.BYTESTYPE);
+		counterColumnFamily.setDefaultValidationClass(ComparatorType.COUNTERTYPE.getClassName());
+		cluster.addColumnFamily(counterColumnFamily, true);
+		int counterColumnFamilyId = getColumnFamilyDefinition(cluster, "columnFamily1").getId();
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues(), loadingOption);
+
+		/* a column family can not be updated from a counter column family, it is dropped and added again */
+		ColumnFamilyDefinition columnFamily = getColumnFamilyDefinition(cluster, "columnFamily1");
+		assertThat(columnFamily.getId(), not(counterColumnFamilyId));
+		assertThat(SchemaPlanner.normalizeType(columnFamily.getDefaultValidationClass()), is("BytesType"));
+		SampleDataSetChecker.assertDataSetLoaded(HFactory.createKeyspace("beautifulKeyspaceName", cluster));
+	}
+
+	@Test
+	public void shouldDropAnExistingKeyspaceWhenTheSchemaIsNotMigrated() {
+		String clusterName = "TestCluster42";
+		String host = "localhost:9171";
+		DataLoader dataLoader = new DataLoader(clusterName, host);
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues());
+
+		Cluster cluster = HFactory.getOrCreateCluster(clusterName, host);
+		int columnFamilyId = getColumnFamilyDefinition(cluster, "columnFamily1").getId();
+		cluster.addColumnFamily(HFactory.createColumnFamilyDefinition("beautifulKeyspaceName", "extraColumnFamily",
+				ComparatorType.BYTESTYPE), true);
+
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues());
+
+		assertThat(getColumnFamilyDefinition(cluster, "columnFamily1").getId(), not(columnFamilyId));
+		assertThat(getColumnFamilyDefinition(cluster, "extraColumnFamily"), nullValue());
+		SampleDataSetChecker.assertDataSetLoaded(HFactory.createKeyspace("beautifulKeyspaceName", cluster));
+	}
+
+	@Test
+	public void shouldNormalizeTheTypesOfTheSchema() {
+		assertThat(SchemaPlanner.normalizeType("org.apache.cassandra.db.marshal.ReversedType("
+				+ "org.apache.cassandra.db.marshal.UTF8Type)"), is("ReversedType(UTF8Type)"));
+		assertThat(SchemaPlanner.normalizeType("org.apache.cassandra.db.marshal.UTF8Type(reversed=true)"),
+				is("ReversedType(UTF8Type)"));
+		assertThat(SchemaPlanner.normalizeType("CompositeType(LongType(reversed=true), UTF8Type)"),
+				is("CompositeType(ReversedType(LongType),UTF8Type)"));
+	}
+
+	private ColumnFamilyDefinition getColumnFamilyDefinition(Cluster cluster, String columnFamilyName) {
+		for (ColumnFamilyDefinition columnFamilyDefinition : cluster.describeKeyspace("beautifulKeyspaceName")
+				.getCfDefs()) {
+			if (columnFamilyDefinition.getName().equals(columnFamilyName)) {
+				return columnFamilyDefinition;
+			}
+		}
+		return null;
+	}
+
+	private int countRows(Keyspace keyspace, String columnFamilyName) {
+		RangeSlicesQuery<byte[], byte[], byte[]> query = HFactory.createRangeSlicesQuery(keyspace,
+				BytesArraySerializer.get(), BytesArraySerializer.get(), BytesArraySerializer.get());
+		query.setColumnFamily(columnFamilyName);
+		query.setRange(null, null, false, Integer.MAX_VALUE);
+		return query.execute().get().getList().size();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldNotAcceptANegativeBatchSize() {
+		new LoadingOption().setMaxMutationsPerBatch(-1);
+	}
+
     @Test
     public void shouldLoadDataWithReversedComparatorOnSimpleType() {
         String clusterName = "TestCluster6";
@@ -0,0 +1,57 @@
+package org.cassandraunit;
+
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.xml.ClassPathStreamingXmlDataSet;
+import org.cassandraunit.dataset.xml.ClassPathXmlDataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class DataSetFingerprintTest {
+
+    @Test
+    public void shouldFingerprintAStreamingDataSetWithoutReadingItsRows() {
+        DataSet dataSet = new ClassPathStreamingXmlDataSet("xml/dataSetDefinedValues.xml") {
+            @Override
+            public Iterator<RowModel> getRowIterator(ColumnFamilyModel columnFamily) {
+                throw new AssertionError("rows of " + columnFamily.getName() + " read");
+            }
+        };
+
+        assertThat(DataSetFingerprint.of(dataSet, new LoadingOption()),
+                is(DataSetFingerprint.of(new ClassPathStreamingXmlDataSet("xml/dataSetDefinedValues.xml"),
+                        new LoadingOption())));
+    }
+
+    @Test
+    public void shouldFingerprintTheContentOfAStreamingDataSet() {
+        assertThat(DataSetFingerprint.of(new ClassPathStreamingXmlDataSet("xml/dataSetDefinedValues.xml"),
+                new LoadingOption()),
+                not(DataSetFingerprint.of(new ClassPathStreamingXmlDataSet("xml/dataSetDefaultValues.xml"),
+                        new LoadingOption())));
+    }
+
+    @Test
+    public void shouldFingerprintTheRowsOfADataSet() {
+        assertThat(DataSetFingerprint.of(new ClassPathXmlDataSet("xml/dataSetDefinedValues.xml"), new LoadingOption()),
+                is(DataSetFingerprint.of(new ClassPathXmlDataSet("xml/dataSetDefinedValues.xml"),
+                        new LoadingOption())));
+    }
+
+    @Test
+    public void shouldFingerprintTheLoadingOptions() {
+        LoadingOption loadingOption = new LoadingOption();
+        loadingOption.setOnlySchema(true);
+
+        assertThat(DataSetFingerprint.of(new ClassPathStreamingXmlDataSet("xml/dataSetDefinedValues.xml"),
+                loadingOption),
+                not(DataSetFingerprint.of(new ClassPathStreamingXmlDataSet("xml/dataSetDefinedValues.xml"),
+                        new LoadingOption())));
+    }
+}
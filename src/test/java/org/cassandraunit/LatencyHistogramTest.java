@@ -0,0 +1,47 @@
+package org.cassandraunit;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldBeEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMeanInMicros(), is(0L));
+        assertThat(histogram.getPercentileInMicros(99), is(0L));
+    }
+
+    @Test
+    public void shouldGiveTheUpperBoundOfThePercentileBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            /* 100 us, in the bucket up to 128 us */
+            histogram.record(100000);
+        }
+        histogram.record(5000000);
+
+        assertThat(histogram.getCount(), is(100L));
+        assertThat(histogram.getMeanInMicros(), is(149L));
+        assertThat(histogram.getMaxInMicros(), is(5000L));
+        assertThat(histogram.getPercentileInMicros(50), is(128L));
+        assertThat(histogram.getPercentileInMicros(99), is(128L));
+        /* bounded by the max */
+        assertThat(histogram.getPercentileInMicros(100), is(5000L));
+    }
+
+    @Test
+    public void shouldRecordSubMicrosecondLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        assertThat(histogram.getPercentileInMicros(50), is(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotGiveAPercentileOver100() {
+        new LatencyHistogram().getPercentileInMicros(101);
+    }
+}
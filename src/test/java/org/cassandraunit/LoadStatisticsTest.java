@@ -0,0 +1,53 @@
+package org.cassandraunit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class LoadStatisticsTest {
+
+    @Before
+    public void resetStatistics() {
+        LoadStatistics.get().reset();
+    }
+
+    @Test
+    public void shouldKeepTheSlowestLoadsFirst() {
+        for (int i = 0; i < 12; i++) {
+            finishedLoadReport("keyspace" + i, i % 2 == 0 ? i : 100 - i);
+        }
+
+        LoadStatistics statistics = LoadStatistics.get();
+        assertThat(statistics.getLoadCount(), is(12L));
+        assertThat(statistics.getSlowestLoadReports().size(), is(10));
+        assertThat(statistics.getSlowestLoadReports().get(0).getKeyspaceName(), is("keyspace1"));
+        assertThat(statistics.getSlowestLoadReports().get(5).getKeyspaceName(), is("keyspace11"));
+        assertThat(statistics.getSlowestLoadReports().get(6).getKeyspaceName(), is("keyspace10"));
+        assertThat(statistics.getSlowestLoadReports().get(9).getKeyspaceName(), is("keyspace4"));
+        assertThat(statistics.getLastLoad(), startsWith("keyspace keyspace11 loaded"));
+    }
+
+    @Test
+    public void shouldBeReadOverJmx() throws Exception {
+        finishedLoadReport("jmxKeyspace", 0);
+
+        ObjectName objectName = new ObjectName(LoadStatistics.OBJECT_NAME);
+        assertThat((Long) ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "LoadCount"), is(1L));
+        assertThat((String) ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "LastLoad"),
+                startsWith("keyspace jmxKeyspace loaded"));
+    }
+
+    /**
+     * @return the report of a load which lasted the given time
+     */
+    private LoadReport finishedLoadReport(String keyspaceName, long durationInMs) {
+        return new LoadReport(keyspaceName, System.nanoTime() - durationInMs * 1000000)
+                .finish(LoadReport.Outcome.LOADED);
+    }
+}
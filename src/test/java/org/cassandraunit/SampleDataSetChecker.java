@@ -5,6 +5,9 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import me.prettyprint.cassandra.serializers.BytesArraySerializer;
@@ -21,9 +24,13 @@ import me.prettyprint.hector.api.query.RangeSlicesQuery;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.StreamingDataSet;
 import org.cassandraunit.model.ColumnFamilyModel;
 import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.RowModel;
 import org.cassandraunit.model.StrategyModel;
+import org.cassandraunit.model.SuperColumnModel;
+import org.cassandraunit.type.GenericType;
 import org.cassandraunit.type.GenericTypeEnum;
 
 public class SampleDataSetChecker {
@@ -143,4 +150,71 @@ public class SampleDataSetChecker {
 		assertThat(columnFamilyModel2.getRows().get(0).getKey().getTypesBelongingCompositeType(),
 				is(new GenericTypeEnum[] { GenericTypeEnum.LONG_TYPE, GenericTypeEnum.UTF_8_TYPE }));
 	}
+
+	/**
+	 * compare the schema and the rows read by a streaming dataset with the ones of the same dataset fully loaded
+	 */
+	public static void assertSameDataSet(DataSet expectedDataSet, StreamingDataSet streamingDataSet) {
+		assertThat(streamingDataSet.getKeyspace().getName(), is(expectedDataSet.getKeyspace().getName()));
+		assertThat(streamingDataSet.getKeyspace().getReplicationFactor(),
+				is(expectedDataSet.getKeyspace().getReplicationFactor()));
+		assertThat(streamingDataSet.getKeyspace().getStrategy(), is(expectedDataSet.getKeyspace().getStrategy()));
+		List<ColumnFamilyModel> expectedColumnFamilies = expectedDataSet.getColumnFamilies();
+		List<ColumnFamilyModel> columnFamilies = streamingDataSet.getColumnFamilies();
+		assertThat(columnFamilies.size(), is(expectedColumnFamilies.size()));
+		for (int i = 0; i < expectedColumnFamilies.size(); i++) {
+			ColumnFamilyModel expectedColumnFamily = expectedColumnFamilies.get(i);
+			ColumnFamilyModel columnFamily = columnFamilies.get(i);
+			assertThat(columnFamily.getName(), is(expectedColumnFamily.getName()));
+			assertThat(columnFamily.getType(), is(expectedColumnFamily.getType()));
+			assertThat(columnFamily.getKeyType(), is(expectedColumnFamily.getKeyType()));
+			assertThat(columnFamily.getComparatorType(), is(expectedColumnFamily.getComparatorType()));
+			assertThat(columnFamily.getComparatorTypeAlias(), is(expectedColumnFamily.getComparatorTypeAlias()));
+			assertThat(columnFamily.getDefaultColumnValueType(), is(expectedColumnFamily.getDefaultColumnValueType()));
+			assertThat(columnFamily.getColumnsMetadata().size(), is(expectedColumnFamily.getColumnsMetadata().size()));
+			assertThat(columnFamily.getRows().isEmpty(), is(true));
+
+			List<String> rows = new ArrayList<String>();
+			Iterator<RowModel> rowIterator = streamingDataSet.getRowIterator(columnFamily);
+			while (rowIterator.hasNext()) {
+				rows.add(rowToString(rowIterator.next()));
+			}
+			List<String> expectedRows = new ArrayList<String>();
+			for (RowModel row : expectedColumnFamily.getRows()) {
+				expectedRows.add(rowToString(row));
+			}
+			assertThat(rows, is(expectedRows));
+		}
+	}
+
+	private static String rowToString(RowModel row) {
+		StringBuilder rowString = new StringBuilder(genericTypeToString(row.getKey())).append(" :");
+		for (SuperColumnModel superColumn : row.getSuperColumns()) {
+			rowString.append(" ").append(genericTypeToString(superColumn.getName())).append("{");
+			for (ColumnModel column : superColumn.getColumns()) {
+				rowString.append(columnToString(column));
+			}
+			rowString.append("}");
+		}
+		for (ColumnModel column : row.getColumns()) {
+			rowString.append(columnToString(column));
+		}
+		return rowString.toString();
+	}
+
+	private static String columnToString(ColumnModel column) {
+		return " " + genericTypeToString(column.getName()) + "=" + genericTypeToString(column.getValue()) + "@"
+				+ column.getTimestamp();
+	}
+
+	private static String genericTypeToString(GenericType genericType) {
+		if (genericType == null) {
+			return "null";
+		}
+		if (genericType.getCompositeValues() != null) {
+			return Arrays.toString(genericType.getCompositeValues())
+					+ Arrays.toString(genericType.getTypesBelongingCompositeType());
+		}
+		return genericType.getValue() + "(" + genericType.getType() + ")";
+	}
 }
@@ -0,0 +1,52 @@
+package org.cassandraunit.cli;
+
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.FileDataSet;
+import org.cassandraunit.utils.FileTmpHelper;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CassandraUnitDataSetConverterTest {
+
+    @Test
+    public void shouldGetFileAndOutputOptions() throws Exception {
+        String[] args = {"-f", "dataset.json", "-o", "dataset.bin"};
+        CassandraUnitDataSetConverter.parseCommandLine(args);
+        assertThat(CassandraUnitDataSetConverter.getCommandLine().getOptionValue("file"), is("dataset.json"));
+        assertThat(CassandraUnitDataSetConverter.getCommandLine().getOptionValue("output"), is("dataset.bin"));
+        assertThat(CassandraUnitDataSetConverter.isUsageBeenPrinted(), is(false));
+    }
+
+    @Test
+    public void shouldPrintUsageBecauseFileOptionIsMissing() throws Exception {
+        String[] args = {"-o", "dataset.bin"};
+        CassandraUnitDataSetConverter.parseCommandLine(args);
+        assertThat(CassandraUnitDataSetConverter.isUsageBeenPrinted(), is(true));
+    }
+
+    @Test
+    public void shouldPrintUsageBecauseTheDataSetCanNotBeConverted() throws Exception {
+        String[] args = {"-f", "dataset.cql"};
+        CassandraUnitDataSetConverter.parseCommandLine(args);
+        assertThat(CassandraUnitDataSetConverter.isUsageBeenPrinted(), is(true));
+    }
+
+    @Test
+    public void shouldConvertADataSetToABinaryDataSet() throws Exception {
+        String targetFileDataSet = FileTmpHelper.copyClassPathDataSetToTmpDirectory(this.getClass(),
+                "/json/dataSetDefinedValues.json");
+        String[] args = {"-f", targetFileDataSet};
+        CassandraUnitDataSetConverter.main(args);
+
+        File binaryDataSet = new File(targetFileDataSet.replace(".json", ".bin"));
+        assertThat(binaryDataSet.exists(), is(true));
+        DataSet dataSet = new FileDataSet(binaryDataSet.getPath());
+        assertThat(dataSet.getKeyspace().getName(), is("beautifulDefinedKeyspaceName"));
+        assertThat(dataSet.getColumnFamilies().size(), is(new FileDataSet(targetFileDataSet).getColumnFamilies()
+                .size()));
+    }
+}
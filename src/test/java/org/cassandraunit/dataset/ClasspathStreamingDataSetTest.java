@@ -0,0 +1,157 @@
+package org.cassandraunit.dataset;
+
+import org.cassandraunit.dataset.json.ClassPathJsonDataSet;
+import org.cassandraunit.dataset.json.ClassPathStreamingJsonDataSet;
+import org.cassandraunit.dataset.xml.ClassPathStreamingXmlDataSet;
+import org.cassandraunit.dataset.xml.ClassPathXmlDataSet;
+import org.cassandraunit.dataset.yaml.ClassPathStreamingYamlDataSet;
+import org.cassandraunit.dataset.yaml.ClassPathYamlDataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.cassandraunit.SampleDataSetChecker.assertSameDataSet;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * the streaming datasets of each format against the datasets of the same format
+ */
+@RunWith(Parameterized.class)
+public class ClasspathStreamingDataSetTest {
+
+    private interface DataSets {
+        DataSet dataSet(String dataSetLocation);
+
+        StreamingDataSet streamingDataSet(String dataSetLocation);
+    }
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> dataSets() {
+        return Arrays.asList(new Object[][]{
+                {"json", 1, new DataSets() {
+                    @Override
+                    public DataSet dataSet(String dataSetLocation) {
+                        return new ClassPathJsonDataSet(dataSetLocation);
+                    }
+
+                    @Override
+                    public StreamingDataSet streamingDataSet(String dataSetLocation) {
+                        return new ClassPathStreamingJsonDataSet(dataSetLocation);
+                    }
+                }},
+                {"yaml", 1, new DataSets() {
+                    @Override
+                    public DataSet dataSet(String dataSetLocation) {
+                        return new ClassPathYamlDataSet(dataSetLocation);
+                    }
+
+                    @Override
+                    public StreamingDataSet streamingDataSet(String dataSetLocation) {
+                        return new ClassPathStreamingYamlDataSet(dataSetLocation);
+                    }
+                }},
+                {"xml", 3, new DataSets() {
+                    @Override
+                    public DataSet dataSet(String dataSetLocation) {
+                        return new ClassPathXmlDataSet(dataSetLocation);
+                    }
+
+                    @Override
+                    public StreamingDataSet streamingDataSet(String dataSetLocation) {
+                        return new ClassPathStreamingXmlDataSet(dataSetLocation);
+                    }
+                }}});
+    }
+
+    private final String format;
+
+    /* rows of the first column family of dataSetDefaultValues */
+    private final int defaultValuesRowCount;
+
+    private final DataSets dataSets;
+
+    public ClasspathStreamingDataSetTest(String format, int defaultValuesRowCount, DataSets dataSets) {
+        this.format = format;
+        this.defaultValuesRowCount = defaultValuesRowCount;
+        this.dataSets = dataSets;
+    }
+
+    @Test
+    public void shouldStreamTheSameDataSetAsTheDataSet() {
+        assertSameDataSets("dataSetDefinedValues");
+    }
+
+    @Test
+    public void shouldStreamADataSetWithCompositeType() {
+        assertSameDataSets("dataSetWithCompositeType");
+    }
+
+    @Test
+    public void shouldStreamADataSetWithAllDataTypes() {
+        assertSameDataSets("dataSetAllDataTypes");
+    }
+
+    @Test
+    public void shouldStreamADataSetWithMetadata() {
+        assertSameDataSets("dataSetWithMetadataAndFunctions");
+    }
+
+    @Test
+    public void shouldStreamTheColumnFamiliesInAnyOrder() {
+        List<ColumnFamilyModel> expectedColumnFamilies = dataSets.dataSet(location("dataSetDefinedValues"))
+                .getColumnFamilies();
+        StreamingDataSet dataSet = dataSets.streamingDataSet(location("dataSetDefinedValues"));
+        List<ColumnFamilyModel> columnFamilies = dataSet.getColumnFamilies();
+        for (int i = columnFamilies.size() - 1; i >= 0; i--) {
+            assertThat(countRows(dataSet.getRowIterator(columnFamilies.get(i))),
+                    is(expectedColumnFamilies.get(i).getRows().size()));
+        }
+    }
+
+    @Test
+    public void shouldIterateTheRowsSeveralTimes() {
+        StreamingDataSet dataSet = dataSets.streamingDataSet(location("dataSetDefaultValues"));
+        ColumnFamilyModel columnFamily = dataSet.getColumnFamilies().get(0);
+        assertThat(countRows(dataSet.getRowIterator(columnFamily)), is(defaultValuesRowCount));
+        assertThat(countRows(dataSet.getRowIterator(columnFamily)), is(defaultValuesRowCount));
+    }
+
+    @Test
+    public void shouldExposeTheRowsAsLazyRows() {
+        StreamingDataSet dataSet = dataSets.streamingDataSet(location("dataSetDefaultValues"));
+        ColumnFamilyModel columnFamily = dataSet.getColumnFamilies().get(0);
+        assertThat(columnFamily.hasLazyRows(), is(true));
+        assertThat(columnFamily.getRows().isEmpty(), is(true));
+        assertThat(countRows(columnFamily.getRowIterable().iterator()), is(defaultValuesRowCount));
+    }
+
+    @Test(expected = ParseException.class)
+    public void shouldNotGetADataSetBecauseOfDataSetNotExist() {
+        dataSets.streamingDataSet(location("unknown"));
+    }
+
+    private void assertSameDataSets(String dataSetName) {
+        assertSameDataSet(dataSets.dataSet(location(dataSetName)), dataSets.streamingDataSet(location(dataSetName)));
+    }
+
+    private String location(String dataSetName) {
+        return format + "/" + dataSetName + "." + format;
+    }
+
+    private int countRows(Iterator<RowModel> rows) {
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count++;
+        }
+        return count;
+    }
+}
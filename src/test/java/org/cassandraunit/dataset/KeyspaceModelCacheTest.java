@@ -0,0 +1,98 @@
+package org.cassandraunit.dataset;
+
+import org.cassandraunit.dataset.json.ClassPathJsonDataSet;
+import org.cassandraunit.dataset.xml.ClassPathStreamingXmlDataSet;
+import org.cassandraunit.dataset.xml.ClassPathXmlDataSet;
+import org.cassandraunit.dataset.yaml.ClassPathYamlDataSet;
+import org.cassandraunit.model.KeyspaceModel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.cassandraunit.SampleDataSetChecker.assertDataSetDefaultValues;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class KeyspaceModelCacheTest {
+
+    @Before
+    public void clearCache() {
+        KeyspaceModelCache.clear();
+    }
+
+    @Test
+    public void shouldParseADataSetOnceForAllItsInstances() {
+        KeyspaceModel keyspace = new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml").getKeyspace();
+        assertThat(KeyspaceModelCache.size(), is(1));
+
+        DataSet dataSet = new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml");
+        assertDataSetDefaultValues(dataSet);
+        assertThat(KeyspaceModelCache.size(), is(1));
+        assertThat(dataSet.getKeyspace(), not(sameInstance(keyspace)));
+    }
+
+    @Test
+    public void shouldGiveACopyOfTheCachedKeyspace() {
+        DataSet dataSet = new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml");
+        dataSet.getKeyspace().setName("modifiedKeyspaceName");
+        dataSet.getColumnFamilies().get(0).getRows().clear();
+
+        DataSet otherDataSet = new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml");
+        assertDataSetDefaultValues(otherDataSet);
+        assertThat(otherDataSet.getColumnFamilies().get(0).getRows().size(), is(3));
+    }
+
+    @Test
+    public void shouldCacheEachFormatAndValidationSeparately() {
+        new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml").getKeyspace();
+        new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml", false).getKeyspace();
+        new ClassPathJsonDataSet("json/dataSetDefaultValues.json").getKeyspace();
+        new ClassPathYamlDataSet("yaml/dataSetDefaultValues.yaml").getKeyspace();
+        assertThat(KeyspaceModelCache.size(), is(4));
+    }
+
+    @Test
+    public void shouldNotCacheAStreamingDataSet() {
+        new ClassPathStreamingXmlDataSet("xml/dataSetDefaultValues.xml").getKeyspace();
+        assertThat(KeyspaceModelCache.size(), is(0));
+    }
+
+    @Test(expected = ParseException.class)
+    public void shouldNotCacheADataSetWhichCanNotBeParsed() {
+        try {
+            new ClassPathXmlDataSet("xml/dataSetInvalidDataSet.xml").getKeyspace();
+        } finally {
+            assertThat(KeyspaceModelCache.size(), is(0));
+        }
+    }
+
+    @Test
+    public void shouldNotKeepTheDataSetOpenedToCheckItExists() {
+        final List<InputStream> openedInputs = new ArrayList<InputStream>();
+        final List<InputStream> closedInputs = new ArrayList<InputStream>();
+        DataSetInput input = new DataSetInput("dataSet", new DataSetInput.Opener() {
+            @Override
+            public InputStream open(String dataSetLocation) {
+                InputStream openedInput = new ByteArrayInputStream(new byte[0]) {
+                    @Override
+                    public void close() throws IOException {
+                        closedInputs.add(this);
+                        super.close();
+                    }
+                };
+                openedInputs.add(openedInput);
+                return openedInput;
+            }
+        });
+        assertThat(closedInputs, is(openedInputs));
+
+        assertThat(input.open(), not(sameInstance(openedInputs.get(0))));
+    }
+}
@@ -0,0 +1,207 @@
+package org.cassandraunit.dataset.binary;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.cassandraunit.dataset.DataSet;
+import org.cassandraunit.dataset.FileDataSet;
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.json.ClassPathJsonDataSet;
+import org.cassandraunit.dataset.xml.ClassPathXmlDataSet;
+import org.cassandraunit.dataset.yaml.ClassPathYamlDataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.ColumnModel;
+import org.cassandraunit.model.RowModel;
+import org.cassandraunit.model.SuperColumnModel;
+import org.cassandraunit.serializer.GenericTypeSerializer;
+import org.cassandraunit.type.GenericType;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class FileBinaryDataSetTest {
+
+    @Test
+    public void shouldReadTheSameDataSetAsTheXmlDataSet() throws IOException {
+        assertSameDataSet(new ClassPathXmlDataSet("xml/dataSetDefinedValues.xml"));
+    }
+
+    @Test
+    public void shouldReadTheSameDataSetAsTheJsonDataSet() throws IOException {
+        assertSameDataSet(new ClassPathJsonDataSet("json/dataSetDefinedValues.json"));
+    }
+
+    @Test
+    public void shouldReadTheSameDataSetAsTheYamlDataSet() throws IOException {
+        assertSameDataSet(new ClassPathYamlDataSet("yaml/dataSetDefinedValues.yaml"));
+    }
+
+    @Test
+    public void shouldReadADataSetWithCompositeType() throws IOException {
+        assertSameDataSet(new ClassPathXmlDataSet("xml/dataSetWithCompositeType.xml"));
+    }
+
+    @Test
+    public void shouldReadADataSetWithAllDataTypes() throws IOException {
+        assertSameDataSet(new ClassPathXmlDataSet("xml/dataSetAllDataTypes.xml"));
+    }
+
+    @Test
+    public void shouldReadADataSetWithMetadataAndTimestamps() throws IOException {
+        assertSameDataSet(new ClassPathXmlDataSet("xml/dataSetWithMetadataAndFunctions.xml"));
+        assertSameDataSet(new ClassPathXmlDataSet("xml/dataSetWithTimestamp.xml"));
+    }
+
+    @Test
+    public void shouldReadABinaryDataSetFromItsExtension() throws IOException {
+        File binaryDataSet = writeBinaryDataSet(new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml"));
+        DataSet dataSet = new FileDataSet(binaryDataSet.getPath());
+        assertThat(dataSet.getKeyspace().getName(), is("beautifulKeyspaceName"));
+        assertThat(dataSet.getColumnFamilies().get(0).hasLazyRows(), is(true));
+    }
+
+    @Test
+    public void shouldSliceTheValuesOfTheMappedDataSet() throws IOException {
+        DataSet dataSet = new FileBinaryDataSet(writeBinaryDataSet(
+                new ClassPathXmlDataSet("xml/dataSetDefinedValues.xml")).getPath());
+        ColumnFamilyModel columnFamily = dataSet.getColumnFamilies().get(2);
+        RowModel row = columnFamily.getRowIterable().iterator().next();
+        assertThat(row.getKey().getSerializedValue().isDirect(), is(true));
+        assertThat(row.getColumns().get(0).getValue().getSerializedValue().isDirect(), is(true));
+        assertThat(toBytes(columnFamily.getRowIterable()), is(toBytes(columnFamily.getRowIterable())));
+    }
+
+    @Test(expected = ParseException.class)
+    public void shouldNotReadADataSetWhichIsNotBinary() throws IOException {
+        File file = File.createTempFile("dataSetDefaultValues", ".bin");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, "<keyspace/>");
+        new FileBinaryDataSet(file.getPath()).getKeyspace();
+    }
+
+    @Test(expected = ParseException.class)
+    public void shouldNotReadARowLongerThanTheDataSet() throws IOException {
+        File file = writeBinaryDataSet(new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml"));
+        FileBinaryDataSet dataSet = new FileBinaryDataSet(file.getPath());
+        corruptFirstRowLength(file, dataSet, Integer.MAX_VALUE);
+
+        dataSet.getColumnFamilies().get(0).getRowIterable().iterator().next();
+    }
+
+    @Test
+    public void shouldNotReadARowShorterThanItsContent() throws IOException {
+        File file = writeBinaryDataSet(new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml"));
+        FileBinaryDataSet dataSet = new FileBinaryDataSet(file.getPath());
+        long rowOffset = corruptFirstRowLength(file, dataSet, 2);
+
+        try {
+            dataSet.getColumnFamilies().get(0).getRowIterable().iterator().next();
+            fail();
+        } catch (ParseException e) {
+            assertThat(e.getMessage(), containsString("offset " + rowOffset));
+        }
+    }
+
+    /**
+     * @return the offset of the first row in the file
+     */
+    private long corruptFirstRowLength(File file, FileBinaryDataSet dataSet, int rowLength) throws IOException {
+        CountingInputStream header = new CountingInputStream(new FileInputStream(file));
+        try {
+            dataSet.readHeader(new DataInputStream(header));
+        } finally {
+            header.close();
+        }
+        RandomAccessFile corruptedFile = new RandomAccessFile(file, "rw");
+        try {
+            corruptedFile.seek(header.getCount());
+            corruptedFile.writeInt(rowLength);
+        } finally {
+            corruptedFile.close();
+        }
+        return header.getCount();
+    }
+
+    @Test(expected = ParseException.class)
+    public void shouldNotGetADataSetBecauseOfDataSetNotExist() {
+        new FileBinaryDataSet("unknown.bin");
+    }
+
+    private void assertSameDataSet(DataSet expectedDataSet) throws IOException {
+        DataSet dataSet = new FileBinaryDataSet(writeBinaryDataSet(expectedDataSet).getPath());
+
+        assertThat(dataSet.getKeyspace().getName(), is(expectedDataSet.getKeyspace().getName()));
+        assertThat(dataSet.getKeyspace().getReplicationFactor(),
+                is(expectedDataSet.getKeyspace().getReplicationFactor()));
+        assertThat(dataSet.getKeyspace().getStrategy(), is(expectedDataSet.getKeyspace().getStrategy()));
+        List<ColumnFamilyModel> expectedColumnFamilies = expectedDataSet.getColumnFamilies();
+        List<ColumnFamilyModel> columnFamilies = dataSet.getColumnFamilies();
+        assertThat(columnFamilies.size(), is(expectedColumnFamilies.size()));
+        for (int i = 0; i < expectedColumnFamilies.size(); i++) {
+            ColumnFamilyModel expectedColumnFamily = expectedColumnFamilies.get(i);
+            ColumnFamilyModel columnFamily = columnFamilies.get(i);
+            assertThat(columnFamily.getName(), is(expectedColumnFamily.getName()));
+            assertThat(columnFamily.getType(), is(expectedColumnFamily.getType()));
+            assertThat(columnFamily.getKeyType(), is(expectedColumnFamily.getKeyType()));
+            assertThat(columnFamily.getKeyTypeAlias(), is(expectedColumnFamily.getKeyTypeAlias()));
+            assertThat(columnFamily.getComparatorType(), is(expectedColumnFamily.getComparatorType()));
+            assertThat(columnFamily.getComparatorTypeAlias(), is(expectedColumnFamily.getComparatorTypeAlias()));
+            assertThat(columnFamily.getSubComparatorType(), is(expectedColumnFamily.getSubComparatorType()));
+            assertThat(columnFamily.getDefaultColumnValueType(), is(expectedColumnFamily.getDefaultColumnValueType()));
+            assertThat(columnFamily.getComment(), is(expectedColumnFamily.getComment()));
+            assertThat(columnFamily.getGcGraceSeconds(), is(expectedColumnFamily.getGcGraceSeconds()));
+            assertThat(columnFamily.getReadRepairChance(), is(expectedColumnFamily.getReadRepairChance()));
+            assertThat(columnFamily.getColumnsMetadata().size(), is(expectedColumnFamily.getColumnsMetadata().size()));
+            assertThat(toBytes(columnFamily.getRowIterable()), is(toBytes(expectedColumnFamily.getRowIterable())));
+        }
+    }
+
+    private File writeBinaryDataSet(DataSet dataSet) throws IOException {
+        File file = File.createTempFile(dataSet.getKeyspace().getName(), ".bin");
+        file.deleteOnExit();
+        new BinaryDataSetWriter().write(dataSet, file);
+        return file;
+    }
+
+    /**
+     * @return the serialized keys, names, values and timestamps of the rows
+     */
+    private List<Object> toBytes(Iterable<RowModel> rows) {
+        List<Object> bytes = new ArrayList<Object>();
+        for (RowModel row : rows) {
+            bytes.add(toBytes(row.getKey()));
+            for (SuperColumnModel superColumn : row.getSuperColumns()) {
+                bytes.add(toBytes(superColumn.getName()));
+                addColumnsBytes(bytes, superColumn.getColumns());
+            }
+            addColumnsBytes(bytes, row.getColumns());
+        }
+        return bytes;
+    }
+
+    private void addColumnsBytes(List<Object> bytes, List<ColumnModel> columns) {
+        for (ColumnModel column : columns) {
+            bytes.add(toBytes(column.getName()));
+            bytes.add(toBytes(column.getValue()));
+            bytes.add(column.getTimestamp());
+        }
+    }
+
+    private ByteBuffer toBytes(GenericType genericType) {
+        if (genericType == null) {
+            return null;
+        }
+        return GenericTypeSerializer.get().toByteBuffer(genericType);
+    }
+}
@@ -0,0 +1,112 @@
+package org.cassandraunit.dataset.cql;
+
+import org.apache.commons.lang.StringUtils;
+import org.cassandraunit.dataset.ParseException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CQLStatementIteratorTest {
+
+    @Test
+    public void shouldReadStatementsWhateverTheLineTerminators() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "CREATE TABLE t (\r\n  id int,\r\n\r\n   PRIMARY KEY(id)\r);\nINSERT INTO t(id) values(1);\r\n"));
+
+        assertThat(statementIterator.next(), is("CREATE TABLE t ( id int, PRIMARY KEY(id) );"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(1);"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldReadLinesLongerThanTheBuffer() {
+        String value = StringUtils.repeat("a", 20000);
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "INSERT INTO t(id, value) values(1,\n'" + value + "');\nINSERT INTO t(id) values(2);"));
+
+        assertThat(statementIterator.next(), is("INSERT INTO t(id, value) values(1, '" + value + "');"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(2);"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldIgnoreAnUnterminatedLastStatement() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "INSERT INTO t(id) values(1);\nINSERT INTO t(id)\n"));
+
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(1);"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldNotSplitOnADelimiterInsideAStringOrAnIdentifier() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "INSERT INTO \"my;table\"(id, value) values(1, 'a;b'';\nc');"));
+
+        assertThat(statementIterator.next(), is("INSERT INTO \"my;table\"(id, value) values(1, 'a;b'';\nc');"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldRemoveComments() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "-- the table; of the test\n"
+                        + "CREATE TABLE t (id int, // the key;\n"
+                        + "  value /* not; a key */ varchar, PRIMARY KEY(id));\n"
+                        + "/* multi line\n comment; */ INSERT INTO t(id, value) values(1, '-- /* kept */');"));
+
+        assertThat(statementIterator.next(), is("CREATE TABLE t (id int, value varchar, PRIMARY KEY(id));"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id, value) values(1, '-- /* kept */');"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldSplitSeveralStatementsWrittenOnOneLine() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "INSERT INTO t(id) values(1);INSERT INTO t(id) values(2); INSERT INTO t(id) values(3);"));
+
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(1);"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(2);"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(3);"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldKeepABatchInOneStatement() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "begin unlogged batch\n"
+                        + "  INSERT INTO t(id, value) values(1, 'apply batch;');\n"
+                        + "  INSERT INTO t(id) values(2);\n"
+                        + "apply\n  batch;\n"
+                        + "INSERT INTO t(id) values(3);"));
+
+        assertThat(statementIterator.next(), is("begin unlogged batch INSERT INTO t(id, value) values(1, 'apply batch;'); "
+                + "INSERT INTO t(id) values(2); apply batch;"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(3);"));
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+
+    @Test(expected = ParseException.class)
+    public void shouldNotAcceptAnUnterminatedString() {
+        Iterator<String> statementIterator = new CQLStatementIterator(new StringReader(
+                "INSERT INTO t(id, value) values(1, 'a);"));
+
+        statementIterator.hasNext();
+    }
+
+    @Test
+    public void shouldNotReadTheStatementsLeftOnceClosed() throws IOException {
+        CQLStatementIterator statementIterator = new CQLStatementIterator(new StringReader(
+                "INSERT INTO t(id) values(1);\nINSERT INTO t(id) values(2);"));
+        assertThat(statementIterator.next(), is("INSERT INTO t(id) values(1);"));
+
+        statementIterator.close();
+
+        assertThat(statementIterator.hasNext(), is(false));
+    }
+}
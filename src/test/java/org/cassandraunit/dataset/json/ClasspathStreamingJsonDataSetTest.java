@@ -0,0 +1,15 @@
+package org.cassandraunit.dataset.json;
+
+import org.cassandraunit.dataset.ParseException;
+import org.junit.Test;
+
+/**
+ * the cases shared with the other formats are in {@link org.cassandraunit.dataset.ClasspathStreamingDataSetTest}
+ */
+public class ClasspathStreamingJsonDataSetTest {
+
+    @Test(expected = ParseException.class)
+    public void shouldNotGetADataSetWithoutKeyspaceName() {
+        new ClassPathStreamingJsonDataSet("json/dataSetBadMissingKeyspaceName.json").getKeyspace();
+    }
+}
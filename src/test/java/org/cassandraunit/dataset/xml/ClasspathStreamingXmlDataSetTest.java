@@ -0,0 +1,66 @@
+package org.cassandraunit.dataset.xml;
+
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.StreamingDataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.cassandraunit.SampleDataSetChecker.assertSameDataSet;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * the cases shared with the other formats are in {@link org.cassandraunit.dataset.ClasspathStreamingDataSetTest}
+ */
+public class ClasspathStreamingXmlDataSetTest {
+
+    @Test
+    public void shouldStreamADataSetWithoutSchemaValidation() {
+        assertSameDataSet(new ClassPathXmlDataSet("xml/dataSetDefaultValues.xml"),
+                new ClassPathStreamingXmlDataSet("xml/dataSetDefaultValues.xml", false));
+    }
+
+    @Test
+    public void shouldNotGetAnInvalidDataSet() {
+        try {
+            new ClassPathStreamingXmlDataSet("xml/dataSetInvalidDataSet.xml").getKeyspace();
+            fail();
+        } catch (ParseException e) {
+            /* nothing to do, it what we want */
+        }
+    }
+
+    @Test
+    public void shouldReadTheColumnFamiliesInTheirOrderInASinglePass() {
+        final AtomicInteger openings = new AtomicInteger();
+        StreamingDataSet dataSet = new ClassPathStreamingXmlDataSet("xml/dataSetDefinedValues.xml", false) {
+            @Override
+            protected InputStream getInputDataSetLocation(String dataSetLocation) {
+                openings.incrementAndGet();
+                return super.getInputDataSetLocation(dataSetLocation);
+            }
+        };
+        List<ColumnFamilyModel> expectedColumnFamilies = new ClassPathXmlDataSet("xml/dataSetDefinedValues.xml")
+                .getColumnFamilies();
+        List<ColumnFamilyModel> columnFamilies = dataSet.getColumnFamilies();
+        int openingsOfTheSchema = openings.get();
+
+        for (int i = 0; i < columnFamilies.size(); i++) {
+            Iterator<RowModel> rows = dataSet.getRowIterator(columnFamilies.get(i));
+            int rowCount = 0;
+            while (rows.hasNext()) {
+                rows.next();
+                rowCount++;
+            }
+            assertThat(rowCount, is(expectedColumnFamilies.get(i).getRows().size()));
+        }
+        assertThat(openings.get(), is(openingsOfTheSchema + 1));
+    }
+}
@@ -68,6 +68,13 @@ public class ClasspathXmlDataSetTest {
         }
     }
 
+    @Test
+    public void shouldGetKeyspaceWithoutSchemaValidation() {
+        DataSet dataSet = new ClassPathXmlDataSet("xml/dataSetDefinedValues.xml", false);
+        assertThat(dataSet.getKeyspace().getName(), is("otherKeyspaceName"));
+        assertThat(dataSet.getColumnFamilies().isEmpty(), is(false));
+    }
+
     @Test
     public void shouldGetKeyspaceWithDefaultValues() {
 
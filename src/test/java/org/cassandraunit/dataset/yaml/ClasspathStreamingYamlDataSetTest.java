@@ -0,0 +1,58 @@
+package org.cassandraunit.dataset.yaml;
+
+import org.cassandraunit.dataset.ParseException;
+import org.cassandraunit.dataset.StreamingDataSet;
+import org.cassandraunit.model.ColumnFamilyModel;
+import org.cassandraunit.model.RowModel;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * the cases shared with the other formats are in {@link org.cassandraunit.dataset.ClasspathStreamingDataSetTest}
+ */
+public class ClasspathStreamingYamlDataSetTest {
+
+	@Test(expected = ParseException.class)
+	public void shouldNotGetADataSetWithoutKeyspaceName() {
+		new ClassPathStreamingYamlDataSet("yaml/dataSetBadMissingKeyspaceName.yaml").getKeyspace();
+	}
+
+	@Test(expected = ParseException.class)
+	public void shouldNotGetAnEmptyDataSet() {
+		new ClassPathStreamingYamlDataSet("yaml/dataSetBadEmpty.yaml").getKeyspace();
+	}
+
+	@Test
+	public void shouldReadTheColumnFamiliesInTheirOrderInASinglePass() {
+		final AtomicInteger openings = new AtomicInteger();
+		StreamingDataSet dataSet = new ClassPathStreamingYamlDataSet("yaml/dataSetDefinedValues.yaml") {
+			@Override
+			protected InputStream getInputDataSetLocation(String dataSetLocation) {
+				openings.incrementAndGet();
+				return super.getInputDataSetLocation(dataSetLocation);
+			}
+		};
+		List<ColumnFamilyModel> expectedColumnFamilies = new ClassPathYamlDataSet("yaml/dataSetDefinedValues.yaml")
+				.getColumnFamilies();
+		List<ColumnFamilyModel> columnFamilies = dataSet.getColumnFamilies();
+		int openingsOfTheSchema = openings.get();
+
+		for (int i = 0; i < columnFamilies.size(); i++) {
+			Iterator<RowModel> rows = dataSet.getRowIterator(columnFamilies.get(i));
+			int rowCount = 0;
+			while (rows.hasNext()) {
+				rows.next();
+				rowCount++;
+			}
+			assertThat(rowCount, is(expectedColumnFamilies.get(i).getRows().size()));
+		}
+		assertThat(openings.get(), is(openingsOfTheSchema + 1));
+	}
+}
@@ -0,0 +1,89 @@
+package org.cassandraunit.serializer;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DateParserTest {
+
+    @Test
+    public void shouldParseTheDataSetDateFormat() throws Exception {
+        assertThat(DateParser.parse("20130102 030405"),
+                is(new SimpleDateFormat("yyyyMMdd HHmmss").parse("20130102 030405").getTime()));
+        /* out of range fields roll over as with the lenient date format */
+        assertThat(DateParser.parse("20131301 000000"),
+                is(new SimpleDateFormat("yyyyMMdd HHmmss").parse("20131301 000000").getTime()));
+    }
+
+    @Test
+    public void shouldParseIso8601() throws Exception {
+        SimpleDateFormat utcFormat = new SimpleDateFormat("yyyyMMdd HHmmss.SSS");
+        utcFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        assertThat(DateParser.parse("2013-01-02T03:04:05Z"), is(utcFormat.parse("20130102 030405.000").getTime()));
+        assertThat(DateParser.parse("2013-01-02T03:04:05.123Z"), is(utcFormat.parse("20130102 030405.123").getTime()));
+        assertThat(DateParser.parse("2013-01-02T03:04:05.1234567Z"),
+                is(utcFormat.parse("20130102 030405.123").getTime()));
+        assertThat(DateParser.parse("2013-01-02T05:04:05+02:00"), is(utcFormat.parse("20130102 030405.000").getTime()));
+        assertThat(DateParser.parse("2013-01-02T01:34:05-0130"), is(utcFormat.parse("20130102 030405.000").getTime()));
+        assertThat(DateParser.parse("2013-01-02T03:04Z"), is(utcFormat.parse("20130102 030400.000").getTime()));
+        assertThat(DateParser.parse("2013-01-02T03:04:05"),
+                is(new SimpleDateFormat("yyyyMMdd HHmmss").parse("20130102 030405").getTime()));
+        assertThat(DateParser.parse("2013-01-02"),
+                is(new SimpleDateFormat("yyyyMMdd HHmmss").parse("20130102 000000").getTime()));
+    }
+
+    @Test
+    public void shouldParseEpochMillis() {
+        assertThat(DateParser.parse("1357095845000"), is(1357095845000L));
+        assertThat(DateParser.parse("0"), is(0L));
+        assertThat(DateParser.parse("-1000"), is(-1000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotParseAnUnknownFormat() {
+        DateParser.parse("02/01/2013");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotParseAnIncompleteIso8601Date() {
+        DateParser.parse("2013-01-02T03");
+    }
+
+    @Test
+    public void shouldParseConcurrently() throws Exception {
+        final long expected = new SimpleDateFormat("yyyyMMdd HHmmss").parse("20130102 030405").getTime();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 10000; j++) {
+                            if (DateParser.parse("20130102 030405") != expected) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(), is(true));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
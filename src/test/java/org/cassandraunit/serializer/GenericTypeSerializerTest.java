@@ -0,0 +1,92 @@
+package org.cassandraunit.serializer;
+
+import me.prettyprint.cassandra.serializers.BooleanSerializer;
+import me.prettyprint.cassandra.serializers.CompositeSerializer;
+import me.prettyprint.cassandra.serializers.DateSerializer;
+import me.prettyprint.cassandra.serializers.DoubleSerializer;
+import me.prettyprint.cassandra.serializers.FloatSerializer;
+import me.prettyprint.cassandra.serializers.IntegerSerializer;
+import me.prettyprint.cassandra.serializers.LongSerializer;
+import me.prettyprint.cassandra.serializers.StringSerializer;
+import me.prettyprint.cassandra.serializers.UUIDSerializer;
+import me.prettyprint.hector.api.beans.Composite;
+import org.cassandraunit.exception.CassandraUnitException;
+import org.cassandraunit.type.GenericType;
+import org.cassandraunit.type.GenericTypeEnum;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * the values must be serialized as the Hector serializers do
+ */
+public class GenericTypeSerializerTest {
+
+    @Test
+    public void shouldSerializePrimitivesAsHector() throws Exception {
+        assertThat(toByteBuffer("true", GenericTypeEnum.BOOLEAN_TYPE), is(BooleanSerializer.get().toByteBuffer(true)));
+        assertThat(toByteBuffer("false", GenericTypeEnum.BOOLEAN_TYPE),
+                is(BooleanSerializer.get().toByteBuffer(false)));
+        assertThat(toByteBuffer("-12", GenericTypeEnum.INTEGER_TYPE), is(IntegerSerializer.get().toByteBuffer(-12)));
+        assertThat(toByteBuffer("1234567890123", GenericTypeEnum.LONG_TYPE),
+                is(LongSerializer.get().toByteBuffer(1234567890123L)));
+        assertThat(toByteBuffer("42", GenericTypeEnum.COUNTER_TYPE), is(LongSerializer.get().toByteBuffer(42L)));
+        assertThat(toByteBuffer("-1.5", GenericTypeEnum.DOUBLE_TYPE), is(DoubleSerializer.get().toByteBuffer(-1.5)));
+        assertThat(toByteBuffer("2.25", GenericTypeEnum.FLOAT_TYPE), is(FloatSerializer.get().toByteBuffer(2.25f)));
+        assertThat(toByteBuffer("20130102 030405", GenericTypeEnum.DATE_TYPE),
+                is(DateSerializer.get().toByteBuffer(GenericTypeSerializer.dateFormat.parse("20130102 030405"))));
+    }
+
+    @Test
+    public void shouldSerializeStringsAndUUIDsAsHector() {
+        assertThat(toByteBuffer("\u00e9t\u00e9", GenericTypeEnum.UTF_8_TYPE),
+                is(StringSerializer.get().toByteBuffer("\u00e9t\u00e9")));
+        assertThat(toByteBuffer("ascii", GenericTypeEnum.ASCII_TYPE), is(StringSerializer.get().toByteBuffer("ascii")));
+        String uuid = "13816710-1dd2-11b2-879a-782bcb80ff6a";
+        assertThat(toByteBuffer(uuid, GenericTypeEnum.TIME_UUID_TYPE),
+                is(UUIDSerializer.get().toByteBuffer(UUID.fromString(uuid))));
+        assertThat(toByteBuffer(uuid, GenericTypeEnum.UUID_TYPE),
+                is(UUIDSerializer.get().toByteBuffer(UUID.fromString(uuid))));
+    }
+
+    @Test
+    public void shouldDecodeHexAndBase64Bytes() {
+        assertThat(toByteBuffer("", GenericTypeEnum.BYTES_TYPE), is(ByteBuffer.wrap(new byte[0])));
+        assertThat(toByteBuffer("0aFf", GenericTypeEnum.BYTES_TYPE), is(ByteBuffer.wrap(new byte[]{10, -1})));
+        assertThat(toByteBuffer("aGVsbG8=", GenericTypeEnum.BYTES_TYPE), is(ByteBuffer.wrap("hello".getBytes())));
+        assertThat(toByteBuffer("aGk+Lw==", GenericTypeEnum.BYTES_TYPE), is(ByteBuffer.wrap("hi>/".getBytes())));
+    }
+
+    @Test(expected = CassandraUnitException.class)
+    public void shouldNotDecodeBytesWithAnUnknownEncoding() {
+        toByteBuffer("not bytes", GenericTypeEnum.BYTES_TYPE);
+    }
+
+    @Test(expected = CassandraUnitException.class)
+    public void shouldNotDecodeAnOddNumberOfHexCharacters() {
+        toByteBuffer("abc", GenericTypeEnum.BYTES_TYPE);
+    }
+
+    @Test
+    public void shouldSerializeCompositesAsHector() {
+        String[] values = {"11", "aa", "13816710-1dd2-11b2-879a-782bcb80ff6a"};
+        GenericTypeEnum[] types = {GenericTypeEnum.LONG_TYPE, GenericTypeEnum.UTF_8_TYPE,
+                GenericTypeEnum.TIME_UUID_TYPE};
+
+        Composite composite = new Composite();
+        composite.addComponent(11L, LongSerializer.get());
+        composite.addComponent("aa", StringSerializer.get());
+        composite.addComponent(UUID.fromString(values[2]), UUIDSerializer.get());
+
+        assertThat(GenericTypeSerializer.get().toByteBuffer(new GenericType(values, types)),
+                is(new CompositeSerializer().toByteBuffer(composite)));
+    }
+
+    private ByteBuffer toByteBuffer(String value, GenericTypeEnum type) {
+        return GenericTypeSerializer.get().toByteBuffer(new GenericType(value, type));
+    }
+}
@@ -4,12 +4,22 @@ import me.prettyprint.cassandra.service.CassandraHostConfigurator;
 import me.prettyprint.hector.api.Cluster;
 import me.prettyprint.hector.api.ddl.KeyspaceDefinition;
 import me.prettyprint.hector.api.factory.HFactory;
+import org.apache.cassandra.config.Config;
+import org.apache.cassandra.config.SeedProviderDef;
+import org.cassandraunit.DataLoader;
+import org.cassandraunit.SampleDataSetChecker;
 import org.junit.Test;
+import org.yaml.snakeyaml.TypeDescription;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
 
+import java.io.InputStream;
+import java.net.Socket;
 import java.util.Random;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -29,6 +39,66 @@ public class EmbeddedCassandraServerHelperTest {
         EmbeddedCassandraServerHelper.cleanEmbeddedCassandra();
 	}
 
+	@Test
+	public void shouldOnlyReturnWhenTheNativeTransportIsReady() throws Exception {
+		EmbeddedCassandraServerHelper.startEmbeddedCassandra();
+		Socket socket = new Socket("127.0.0.1", 9142);
+		assertThat(socket.isConnected(), is(true));
+		socket.close();
+	}
+
+	@Test
+	public void shouldTruncateColumnFamiliesAndKeepTheSchema() throws Exception {
+		EmbeddedCassandraServerHelper.startEmbeddedCassandra();
+		DataLoader dataLoader = new DataLoader("TestCluster", "127.0.0.1:9171");
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues());
+
+		EmbeddedCassandraServerHelper.cleanDataEmbeddedCassandra(true);
+
+		Cluster cluster = HFactory.getOrCreateCluster("TestCluster", new CassandraHostConfigurator("127.0.0.1:9171"));
+		SampleDataSetChecker.assertDefaultValuesSchemaExist(cluster);
+		SampleDataSetChecker.assertDefaultValuesDataIsEmpty(cluster);
+		EmbeddedCassandraServerHelper.cleanEmbeddedCassandra();
+	}
+
+	@Test
+	public void shouldLoadADataSetWithTheFastConfiguration() throws Exception {
+		/* Cassandra is started once by JVM, the fast configuration is the one of this test when it is the first */
+		EmbeddedCassandraServerHelper.startEmbeddedCassandra(EmbeddedCassandraServerHelper.FAST_CASSANDRA_YML_FILE);
+		DataLoader dataLoader = new DataLoader("TestCluster", "127.0.0.1:9171");
+		dataLoader.load(MockDataSetHelper.getMockDataSetWithDefaultValues());
+
+		Cluster cluster = HFactory.getOrCreateCluster("TestCluster", new CassandraHostConfigurator("127.0.0.1:9171"));
+		SampleDataSetChecker.assertDataSetLoaded(HFactory.createKeyspace("beautifulKeyspaceName", cluster));
+		EmbeddedCassandraServerHelper.cleanEmbeddedCassandra();
+	}
+
+	@Test
+	public void shouldReadTheFastConfigurationAsACassandraConfiguration() throws Exception {
+		/* read as DatabaseDescriptor does, whichever configuration started Cassandra : an unknown setting fails */
+		Constructor constructor = new Constructor(Config.class);
+		TypeDescription seedDescription = new TypeDescription(SeedProviderDef.class);
+		seedDescription.putMapPropertyType("parameters", String.class, String.class);
+		constructor.addTypeDescription(seedDescription);
+		InputStream input = getClass().getResourceAsStream("/" + EmbeddedCassandraServerHelper.FAST_CASSANDRA_YML_FILE);
+		Config config;
+		try {
+			config = (Config) new Yaml(constructor).load(input);
+		} finally {
+			input.close();
+		}
+
+		assertThat(config.rpc_port, is(9171));
+		assertThat(config.native_transport_port, is(9142));
+		assertThat(config.start_native_transport, is(true));
+		assertThat(config.commitlog_segment_size_in_mb, is(1));
+		assertThat(config.commitlog_total_space_in_mb, nullValue());
+		assertThat(config.hinted_handoff_enabled, is(false));
+		assertThat(config.auto_snapshot, is(false));
+		assertThat(config.concurrent_writes, is(4));
+		assertThat(config.memtable_flush_writers, is(1));
+	}
+
 	private void testIfTheEmbeddedCassandraServerIsUpOnHost(String hostAndPort) {
         Random random = new Random();
 		Cluster cluster = HFactory.getOrCreateCluster("TestCluster" + random.nextInt(), new CassandraHostConfigurator(hostAndPort));
@@ -680,6 +680,36 @@ public class MockDataSetHelper {
         return mockDataSet;
     }
 
+    public static DataSet getMockDataSetWithInvalidRowKey() {
+        DataSet mockDataSet = mock(DataSet.class);
+        KeyspaceModel keyspace = new KeyspaceModel();
+        keyspace.setName("keyspaceWithInvalidRowKey");
+
+        /* column family */
+        ColumnFamilyModel columnFamily = new ColumnFamilyModel();
+        columnFamily.setName("columnFamilyWithInvalidRowKey");
+        columnFamily.setKeyType(ComparatorType.LONGTYPE);
+        columnFamily.setDefaultColumnValueType(ComparatorType.UTF8TYPE);
+
+        /* row1 */
+        RowModel row = new RowModel();
+        row.setKey(new GenericType("notALong", GenericTypeEnum.LONG_TYPE));
+
+        /* column1 */
+        ColumnModel column1 = new ColumnModel();
+        column1.setName(new GenericType("01", GenericTypeEnum.BYTES_TYPE));
+        column1.setValue(new GenericType("value1", GenericTypeEnum.UTF_8_TYPE));
+        row.getColumns().add(column1);
+
+        columnFamily.getRows().add(row);
+        keyspace.getColumnFamilies().add(columnFamily);
+
+        when(mockDataSet.getKeyspace()).thenReturn(keyspace);
+        when(mockDataSet.getColumnFamilies()).thenReturn(keyspace.getColumnFamilies());
+
+        return mockDataSet;
+    }
+
     public static DataSet getMockDataSetWithTimestampedColumn() {
         DataSet mockDataSet = mock(DataSet.class);
         KeyspaceModel keyspace = new KeyspaceModel();